@@ -53,6 +53,12 @@ public class BPlusTree {
 			File original = new File(inputDirectory + "/db/data/" + tableName);
 			original.delete();
 			TupleWriterBinary twb = new TupleWriterBinary(inputDirectory + "/db/data/" + tableName);
+			if (DatabaseCatalog.getInstance().useZoneMaps()) {
+				twb.trackZoneMap();
+			}
+			if (DatabaseCatalog.getInstance().useCompressedTables()) {
+				twb.compressPages();
+			}
 			for (int i = 0; i < tupleSet.size(); i++) {
 				twb.writeTuple(tupleSet.get(i));
 			}
@@ -93,12 +99,10 @@ public class BPlusTree {
 	 */
 	public void fillLeafNodes() {
 		FieldOrderedTuple ret;
-		int absoluteKeyPosition = 0;
 		List<KeyRIDPair> krPairList = new ArrayList<KeyRIDPair>();
 		while ((ret = trb.readFOTuple()) != null) {
-			KeyRIDPair krPair = new KeyRIDPair(ret.getField(keyPosition), trb.absoluteIDToRID(absoluteKeyPosition));
+			KeyRIDPair krPair = new KeyRIDPair(ret.getField(keyPosition), trb.lastTupleRID());
 			krPairList.add(krPair);
-			absoluteKeyPosition++;
 		}
 		krPairList.sort(new KRComparator());
 		List<KeyRIDsPair> compressedKRSList = new ArrayList<>();
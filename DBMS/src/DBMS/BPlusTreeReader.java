@@ -16,10 +16,13 @@ import DBMS.LeafNode;
  */
 public class BPlusTreeReader {
 	String fileLocation;
+	String poolKey;
 	FileInputStream fin;
 	FileChannel fc;
 	ByteBuffer pageInMemory;
 	int pageNumberInMemory = -1;
+	boolean pagePinned = false;
+	int pageSize;
 
 	// Header page info
 	boolean headerRead = false;
@@ -42,6 +45,8 @@ public class BPlusTreeReader {
 	 */
 	public BPlusTreeReader(String fileLocation) {
 		this.fileLocation = fileLocation;
+		this.poolKey = BufferPool.fileKey(fileLocation);
+		this.pageSize = DatabaseCatalog.getInstance().getPageSize();
 		try {
 			fin = new FileInputStream(fileLocation);
 			fc = fin.getChannel();
@@ -51,18 +56,27 @@ public class BPlusTreeReader {
 	}
 
 	/**
-	 * Read the given page number into memory.
+	 * Read the given page number into memory, through the BufferPool. The
+	 * page previously in memory is unpinned.
 	 * @param pageNumber The page number to be read.
 	 */
 	public void readPageIntoMemory(int pageNumber) {
-		pageInMemory = ByteBuffer.allocate(TupleReaderBinary.BUFFER_SIZE);
+		BufferPool pool = BufferPool.getInstance();
+		if (pagePinned) {
+			pool.unpin(poolKey, pageNumberInMemory);
+			pagePinned = false;
+		}
+		pageInMemory = null;
 		try {
-			if (fc.read(pageInMemory, pageNumber * TupleReaderBinary.BUFFER_SIZE) != -1) {
-				pageInMemory.rewind();
-			}
+			pageInMemory = pool.fetchPage(poolKey, fc, pageNumber, pageSize);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		if (pageInMemory != null) {
+			pagePinned = true;
+		} else {
+			pageInMemory = ByteBuffer.allocate(pageSize);
+		}
 		this.pageNumberInMemory = pageNumber;
 	}
 
@@ -76,13 +90,20 @@ public class BPlusTreeReader {
 	}
 
 	/**
-	 * Fills header info from the header page in-memory.
+	 * Fills header info from the header page in-memory. If the index was
+	 * written with a page size other than the database's, the nodes of this
+	 * file are read with the page size recorded in its header; the header
+	 * fields lie at the start of the page, so they read the same either way.
 	 */
 	public void deserializeHeaderInMemory() {
 		assert (pageNumberInMemory == 0);
 		rootAddress = pageInMemory.getInt(BPlusTreeWriter.ROOT_ADDRESS_INDEX);
 		numberLeaves = pageInMemory.getInt(BPlusTreeWriter.LEAF_COUNT_INDEX);
 		treeOrder = pageInMemory.getInt(BPlusTreeWriter.TREE_ORDER_INDEX);
+		int filePageSize = pageInMemory.getInt(BPlusTreeWriter.PAGE_SIZE_INDEX);
+		if (filePageSize > 0) {
+			pageSize = filePageSize;
+		}
 		headerRead = true;
 	}
 
@@ -181,10 +202,10 @@ public class BPlusTreeReader {
 			return (LeafNode) node;
 		} else {
 			IndexNode in = (IndexNode) node;
-			if (searchKey < node.keys.get(0)) {
+			if (node.keys.isEmpty() || searchKey < node.keys.get(0)) {
 				readPageIntoMemory(in.children.get(0).position);
 				return walkSerializedTree(deserializeNodeInMemory(), searchKey);
-			} else if (searchKey > node.keys.get(node.keys.size() - 1)) {
+			} else if (searchKey >= node.keys.get(node.keys.size() - 1)) {
 				readPageIntoMemory(in.children.get(in.children.size() - 1).position);
 				return walkSerializedTree(deserializeNodeInMemory(), searchKey);
 			} else {
@@ -207,6 +228,9 @@ public class BPlusTreeReader {
 	public void setLowerBound(int bound) {
 		currentLeaf = getLeafFromKey(bound);
 		lowerBound = bound;
+		// if no key in the leaf reaches the bound, start from the next leaf
+		keyIndex = currentLeaf.keys.size();
+		rIDListPosition = 0;
 		for (int i = 0; i < currentLeaf.keys.size(); i++) {
 			if (currentLeaf.keys.get(i) >= lowerBound) {
 				keyIndex = i;
@@ -22,11 +22,13 @@ public class BPlusTreeWriter {
 	ByteBuffer pageInMemory;
 	FileOutputStream fin;
 	FileChannel fc;
+	int pageSize;
 
 	// Header page constants
 	public static final int ROOT_ADDRESS_INDEX = 0;
 	public static final int LEAF_COUNT_INDEX = 4;
 	public static final int TREE_ORDER_INDEX = 8;
+	public static final int PAGE_SIZE_INDEX = 12;
 
 	// Generic node page constants
 	public static final int INDEX_NODE_FLAG = 0;
@@ -47,6 +49,8 @@ public class BPlusTreeWriter {
 	public BPlusTreeWriter(BPlusTree tree, String fileLocation) {
 		this.fileLocation = fileLocation;
 		this.tree = tree;
+		this.pageSize = DatabaseCatalog.getInstance().getPageSize();
+		BufferPool.getInstance().invalidate(BufferPool.fileKey(fileLocation));
 		try {
 			fin = new FileOutputStream(fileLocation);
 			fc = fin.getChannel();
@@ -72,11 +76,12 @@ public class BPlusTreeWriter {
 	 * Write the header page of the serialized B+ tree file.
 	 */
 	public void writeHeader() {
-		pageInMemory = ByteBuffer.allocate(TupleReaderBinary.BUFFER_SIZE);
+		pageInMemory = ByteBuffer.allocate(pageSize);
 		Node root = tree.treeHierarchy.get(tree.treeHierarchy.size() - 1).get(0);
 		pageInMemory.putInt(ROOT_ADDRESS_INDEX, root.position);
 		pageInMemory.putInt(LEAF_COUNT_INDEX, tree.treeHierarchy.get(0).size());
 		pageInMemory.putInt(TREE_ORDER_INDEX, tree.getOrder());
+		pageInMemory.putInt(PAGE_SIZE_INDEX, pageSize);
 		flush();
 	}
 
@@ -84,7 +89,7 @@ public class BPlusTreeWriter {
 	 * Write an index page of the serialized B+ tree file.
 	 */
 	public void writeIndexNodePage(IndexNode indexNode) {
-		pageInMemory = ByteBuffer.allocate(TupleReaderBinary.BUFFER_SIZE);
+		pageInMemory = ByteBuffer.allocate(pageSize);
 		pageInMemory.putInt(INDEX_NODE_FLAG, 1);
 		pageInMemory.putInt(NUMBER_OF_KEYS_INDEX, indexNode.keys.size());
 		int keyCounter = KEY_START_INDEX;
@@ -103,7 +108,7 @@ public class BPlusTreeWriter {
 	 * Write a leaf page of the serialized B+ tree file.
 	 */
 	public void writeLeafNodePage(LeafNode leafNode) {
-		pageInMemory = ByteBuffer.allocate(TupleReaderBinary.BUFFER_SIZE);
+		pageInMemory = ByteBuffer.allocate(pageSize);
 		pageInMemory.putInt(INDEX_NODE_FLAG, 0);
 		pageInMemory.putInt(NUMBER_OF_ENTRIES_INDEX, leafNode.pointers.size());
 		int keyCounter = ENTRIES_START_INDEX;
@@ -0,0 +1,265 @@
+package DBMS;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Singleton Class holding the pages of data and index files shared by every
+ * reader, across operators and queries. A page is identified by its file and
+ * page number. The pool holds at most a fixed number of unpinned pages and
+ * replaces them with the 2Q policy: a page read for the first time enters a
+ * small FIFO queue, and only a page referenced again after leaving it is
+ * promoted to the main LRU queue. A single sequential scan therefore cannot
+ * flush the pages that are used repeatedly, such as B+ tree inner pages or
+ * the inner relation of a nested loop join.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public final class BufferPool {
+	private static final BufferPool instance = new BufferPool();
+
+	private int capacity;
+	private int recentCapacity;
+	private int ghostCapacity;
+
+	private HashMap<PageId, Frame> frames;
+	private LinkedHashMap<PageId, Frame> recentQueue;
+	private LinkedHashMap<PageId, Frame> frequentQueue;
+	private LinkedHashSet<PageId> ghostQueue;
+
+	/**
+	 * Identifies a page by the file it belongs to and its page number.
+	 */
+	private static class PageId {
+		final String file;
+		final int pageNumber;
+
+		PageId(String file, int pageNumber) {
+			this.file = file;
+			this.pageNumber = pageNumber;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof PageId)) {
+				return false;
+			}
+			PageId other = (PageId) o;
+			return pageNumber == other.pageNumber && file.equals(other.file);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * file.hashCode() + pageNumber;
+		}
+	}
+
+	/**
+	 * A page held by the pool, with the number of readers using it.
+	 */
+	private static class Frame {
+		final ByteBuffer page;
+		int pinCount;
+
+		Frame(ByteBuffer page) {
+			this.page = page;
+		}
+	}
+
+	/**
+	 * Private method used by the class to instantiate the one and only
+	 * BufferPool.
+	 */
+	private BufferPool() {
+		frames = new HashMap<PageId, Frame>();
+		recentQueue = new LinkedHashMap<PageId, Frame>();
+		frequentQueue = new LinkedHashMap<PageId, Frame>(16, 0.75f, true);
+		ghostQueue = new LinkedHashSet<PageId>();
+		setCapacity(256);
+	}
+
+	/**
+	 * Return the BufferPool.
+	 *
+	 * @return the one and only BufferPool.
+	 */
+	public static BufferPool getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Method to set the number of pages the pool may hold. A quarter of them
+	 * is reserved for pages read only once.
+	 *
+	 * @param numPages
+	 *            the page budget of the pool.
+	 */
+	public synchronized void setCapacity(int numPages) {
+		capacity = Math.max(1, numPages);
+		recentCapacity = Math.max(1, capacity / 4);
+		ghostCapacity = Math.max(1, capacity / 2);
+		evict();
+	}
+
+	/**
+	 * Returns the key under which the pages of a file are held, so that
+	 * different paths to the same file share their pages.
+	 *
+	 * @param fileLocation
+	 *            the path of the file.
+	 * @return the key of the file.
+	 */
+	public static String fileKey(String fileLocation) {
+		return new File(fileLocation).getAbsoluteFile().toPath().normalize().toString();
+	}
+
+	/**
+	 * Returns a page of a file and pins it, reading it from the given channel
+	 * if the pool does not hold it. The page stays in the pool at least until
+	 * it is unpinned.
+	 *
+	 * @param file
+	 *            the key of the file, as returned by fileKey.
+	 * @param channel
+	 *            a channel open on the file.
+	 * @param pageNumber
+	 *            the number of the page.
+	 * @param pageSize
+	 *            the size of a page of the file, in bytes.
+	 * @return a read-only view of the page, or null if the file has no such
+	 *         page.
+	 * @throws IOException
+	 */
+	public ByteBuffer fetchPage(String file, FileChannel channel, int pageNumber, int pageSize)
+			throws IOException {
+		PageId id = new PageId(file, pageNumber);
+		synchronized (this) {
+			Frame frame = lookup(id);
+			if (frame != null) {
+				frame.pinCount++;
+				return frame.page.asReadOnlyBuffer();
+			}
+		}
+
+		ByteBuffer page = ByteBuffer.allocate(pageSize);
+		if (channel.read(page, (long) pageNumber * pageSize) == -1) {
+			return null;
+		}
+		page.rewind();
+
+		synchronized (this) {
+			Frame frame = lookup(id);
+			if (frame == null) {
+				frame = new Frame(page);
+				frames.put(id, frame);
+				if (ghostQueue.remove(id)) {
+					frequentQueue.put(id, frame);
+				} else {
+					recentQueue.put(id, frame);
+				}
+			}
+			frame.pinCount++;
+			evict();
+			return frame.page.asReadOnlyBuffer();
+		}
+	}
+
+	/**
+	 * Releases a page pinned by fetchPage.
+	 *
+	 * @param file
+	 *            the key of the file, as returned by fileKey.
+	 * @param pageNumber
+	 *            the number of the page.
+	 */
+	public synchronized void unpin(String file, int pageNumber) {
+		Frame frame = frames.get(new PageId(file, pageNumber));
+		if (frame != null && frame.pinCount > 0) {
+			frame.pinCount--;
+			evict();
+		}
+	}
+
+	/**
+	 * Drops every page of a file from the pool. Called whenever the file is
+	 * rewritten, so that no reader sees its old contents.
+	 *
+	 * @param file
+	 *            the key of the file, as returned by fileKey.
+	 */
+	public synchronized void invalidate(String file) {
+		frames.keySet().removeIf(id -> id.file.equals(file));
+		recentQueue.keySet().removeIf(id -> id.file.equals(file));
+		frequentQueue.keySet().removeIf(id -> id.file.equals(file));
+		ghostQueue.removeIf(id -> id.file.equals(file));
+	}
+
+	/**
+	 * Finds a page in the pool, counting the reference for the LRU queue.
+	 * Pages in the FIFO queue keep their position.
+	 */
+	private Frame lookup(PageId id) {
+		Frame frame = frames.get(id);
+		if (frame != null && !recentQueue.containsKey(id)) {
+			frequentQueue.get(id);
+		}
+		return frame;
+	}
+
+	/**
+	 * Evicts unpinned pages until the pool is within its budget. The FIFO
+	 * queue gives up its oldest page while it is over its share, and the
+	 * page is remembered in the ghost queue; otherwise the least recently
+	 * used page of the LRU queue goes. If every page is pinned, the pool
+	 * temporarily exceeds its budget.
+	 */
+	private void evict() {
+		while (frames.size() > capacity) {
+			boolean evicted = false;
+			if (recentQueue.size() > recentCapacity) {
+				evicted = evictFrom(recentQueue, true);
+			}
+			if (!evicted) {
+				evicted = evictFrom(frequentQueue, false) || evictFrom(recentQueue, true);
+			}
+			if (!evicted) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Evicts the oldest unpinned page of a queue.
+	 *
+	 * @return true if a page was evicted.
+	 */
+	private boolean evictFrom(LinkedHashMap<PageId, Frame> queue, boolean remember) {
+		Iterator<Map.Entry<PageId, Frame>> entries = queue.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<PageId, Frame> entry = entries.next();
+			if (entry.getValue().pinCount == 0) {
+				entries.remove();
+				frames.remove(entry.getKey());
+				if (remember) {
+					ghostQueue.add(entry.getKey());
+					if (ghostQueue.size() > ghostCapacity) {
+						Iterator<PageId> oldest = ghostQueue.iterator();
+						oldest.next();
+						oldest.remove();
+					}
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
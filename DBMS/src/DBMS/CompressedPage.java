@@ -0,0 +1,405 @@
+package DBMS;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class builds and decodes compressed pages of binary tuple files. A
+ * compressed page is told apart from a plain one by its negated tuple length
+ * in the header, which also holds the tuple count and the position of the
+ * page's first tuple in the file. Each column of the page is then stored
+ * with whichever of three encodings takes the least space:
+ * <ul>
+ * <li>frame of reference: the column minimum, then every value's offset
+ * from it, bit-packed;</li>
+ * <li>delta: for columns that never decrease, the first value, then the
+ * difference between each value and the previous one, bit-packed;</li>
+ * <li>run length: the runs of equal values, with their values stored by
+ * frame of reference and their lengths bit-packed.</li>
+ * </ul>
+ * The builder collects the tuples of one page and keeps, for each column,
+ * the statistics the encoded sizes are computed from, so that the writer
+ * knows when the page is full without encoding it.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class CompressedPage {
+
+	public static final int HEADER_SIZE = 12;
+	public static final int FIRST_TUPLE_INDEX = 8;
+	private static final byte FRAME_OF_REFERENCE = 0;
+	private static final byte DELTA = 1;
+	private static final byte RUN_LENGTH = 2;
+
+	private int tupleLength;
+	private int pageSize;
+	private int numTuples;
+	private int[] values;
+
+	private int[] minimums;
+	private int[] maximums;
+	private boolean[] nonDecreasing;
+	private long[] maxDeltas;
+	private int[] runs;
+	private int[] runLengths;
+	private int[] maxRunLengths;
+
+	/**
+	 * Initializes an empty CompressedPage.
+	 * @param tupleLength The number of columns of the tuples on the page
+	 * @param pageSize The size of a page, in bytes
+	 */
+	public CompressedPage(int tupleLength, int pageSize) {
+		this.tupleLength = tupleLength;
+		this.pageSize = pageSize;
+		values = new int[tupleLength * 64];
+		minimums = new int[tupleLength];
+		maximums = new int[tupleLength];
+		nonDecreasing = new boolean[tupleLength];
+		maxDeltas = new long[tupleLength];
+		runs = new int[tupleLength];
+		runLengths = new int[tupleLength];
+		maxRunLengths = new int[tupleLength];
+	}
+
+	/**
+	 * @return the number of columns of the tuples on the page
+	 */
+	public int getTupleLength() {
+		return tupleLength;
+	}
+
+	/**
+	 * @return the number of tuples on the page
+	 */
+	public int size() {
+		return numTuples;
+	}
+
+	/**
+	 * Empties the page.
+	 */
+	public void clear() {
+		numTuples = 0;
+	}
+
+	/**
+	 * Returns whether the page still fits once the given tuple is added.
+	 * An empty page always takes one tuple.
+	 * @param tuple The values of the tuple
+	 * @return true if the tuple can be added
+	 */
+	public boolean fits(int[] tuple) {
+		if (numTuples == 0) {
+			return true;
+		}
+		int n = numTuples + 1;
+		int size = HEADER_SIZE;
+		for (int column = 0; column < tupleLength; column++) {
+			int value = tuple[column];
+			int last = values[numTuples * tupleLength - tupleLength + column];
+			boolean sorted = nonDecreasing[column] && value >= last;
+			long maxDelta = sorted ? Math.max(maxDeltas[column], (long) value - last) : 0;
+			int columnRuns = runs[column] + (value == last ? 0 : 1);
+			int maxRunLength = value == last ? Math.max(maxRunLengths[column], runLengths[column] + 1)
+					: maxRunLengths[column];
+			size += columnSize(n, Math.min(minimums[column], value), Math.max(maximums[column], value), sorted,
+					maxDelta, columnRuns, maxRunLength);
+		}
+		return size <= pageSize;
+	}
+
+	/**
+	 * Adds a tuple to the page.
+	 * @param tuple The values of the tuple
+	 */
+	public void add(int[] tuple) {
+		if ((numTuples + 1) * tupleLength > values.length) {
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		for (int column = 0; column < tupleLength; column++) {
+			int value = tuple[column];
+			if (numTuples == 0) {
+				minimums[column] = value;
+				maximums[column] = value;
+				nonDecreasing[column] = true;
+				maxDeltas[column] = 0;
+				runs[column] = 1;
+				runLengths[column] = 1;
+				maxRunLengths[column] = 1;
+			} else {
+				int last = values[numTuples * tupleLength - tupleLength + column];
+				minimums[column] = Math.min(minimums[column], value);
+				maximums[column] = Math.max(maximums[column], value);
+				if (nonDecreasing[column] && value >= last) {
+					maxDeltas[column] = Math.max(maxDeltas[column], (long) value - last);
+				} else {
+					nonDecreasing[column] = false;
+				}
+				if (value == last) {
+					runLengths[column]++;
+					maxRunLengths[column] = Math.max(maxRunLengths[column], runLengths[column]);
+				} else {
+					runs[column]++;
+					runLengths[column] = 1;
+				}
+			}
+			values[numTuples * tupleLength + column] = value;
+		}
+		numTuples++;
+	}
+
+	/**
+	 * Encodes the tuples added so far into a page.
+	 * @param page The page buffer to write to, at least pageSize bytes long
+	 * @param firstTuple The position in the file of the first tuple of the
+	 * page
+	 */
+	public void encode(ByteBuffer page, int firstTuple) {
+		page.clear();
+		page.putInt(-tupleLength);
+		page.putInt(numTuples);
+		page.putInt(firstTuple);
+		for (int column = 0; column < tupleLength; column++) {
+			int frameSize = frameOfReferenceSize(numTuples, minimums[column], maximums[column]);
+			int deltaSize = nonDecreasing[column] ? deltaSize(numTuples, maxDeltas[column]) : Integer.MAX_VALUE;
+			int runLengthSize = runLengthSize(runs[column], minimums[column], maximums[column],
+					maxRunLengths[column]);
+			if (runLengthSize < frameSize && runLengthSize < deltaSize) {
+				encodeRunLength(page, column);
+			} else if (deltaSize < frameSize) {
+				encodeDelta(page, column);
+			} else {
+				encodeFrameOfReference(page, column);
+			}
+		}
+		page.clear();
+	}
+
+	/**
+	 * Returns whether a page is compressed.
+	 * @param page The page
+	 * @return true if the page was written by a CompressedPage
+	 */
+	public static boolean isCompressed(ByteBuffer page) {
+		return page.getInt(0) < 0;
+	}
+
+	/**
+	 * Returns the position in the file of the first tuple of a compressed
+	 * page.
+	 * @param page The page
+	 * @return the position of the page's first tuple
+	 */
+	public static int firstTuple(ByteBuffer page) {
+		return page.getInt(FIRST_TUPLE_INDEX);
+	}
+
+	/**
+	 * Decodes the tuples of a compressed page.
+	 * @param page The page
+	 * @return the values of the tuples, one tuple after the other
+	 */
+	public static int[] decode(ByteBuffer page) {
+		int tupleLength = -page.getInt(0);
+		int numTuples = page.getInt(4);
+		int[] decoded = new int[tupleLength * numTuples];
+		int position = HEADER_SIZE;
+		for (int column = 0; column < tupleLength; column++) {
+			byte encoding = page.get(position);
+			position++;
+			if (encoding == RUN_LENGTH) {
+				int numRuns = page.getInt(position);
+				int base = page.getInt(position + 4);
+				int valueBits = page.get(position + 8);
+				int lengthBits = page.get(position + 9);
+				position += 10;
+				long[] runValues = unpack(page, position, numRuns, valueBits);
+				position += packedSize(numRuns, valueBits);
+				long[] lengths = unpack(page, position, numRuns, lengthBits);
+				position += packedSize(numRuns, lengthBits);
+				int row = 0;
+				for (int run = 0; run < numRuns; run++) {
+					int value = (int) (base + runValues[run]);
+					for (long i = 0; i <= lengths[run]; i++) {
+						decoded[row * tupleLength + column] = value;
+						row++;
+					}
+				}
+			} else if (encoding == DELTA) {
+				int value = page.getInt(position);
+				int bits = page.get(position + 4);
+				position += 5;
+				long[] deltas = unpack(page, position, numTuples - 1, bits);
+				position += packedSize(numTuples - 1, bits);
+				decoded[column] = value;
+				for (int row = 1; row < numTuples; row++) {
+					value += (int) deltas[row - 1];
+					decoded[row * tupleLength + column] = value;
+				}
+			} else {
+				int base = page.getInt(position);
+				int bits = page.get(position + 4);
+				position += 5;
+				long[] offsets = unpack(page, position, numTuples, bits);
+				position += packedSize(numTuples, bits);
+				for (int row = 0; row < numTuples; row++) {
+					decoded[row * tupleLength + column] = (int) (base + offsets[row]);
+				}
+			}
+		}
+		return decoded;
+	}
+
+	/**
+	 * Writes a column as the offsets of its values from the minimum.
+	 */
+	private void encodeFrameOfReference(ByteBuffer page, int column) {
+		int bits = bitWidth((long) maximums[column] - minimums[column]);
+		page.put(FRAME_OF_REFERENCE);
+		page.putInt(minimums[column]);
+		page.put((byte) bits);
+		long[] offsets = new long[numTuples];
+		for (int row = 0; row < numTuples; row++) {
+			offsets[row] = (long) values[row * tupleLength + column] - minimums[column];
+		}
+		pack(page, offsets, numTuples, bits);
+	}
+
+	/**
+	 * Writes a non-decreasing column as its first value and the differences
+	 * between consecutive values.
+	 */
+	private void encodeDelta(ByteBuffer page, int column) {
+		int bits = bitWidth(maxDeltas[column]);
+		page.put(DELTA);
+		page.putInt(values[column]);
+		page.put((byte) bits);
+		long[] deltas = new long[numTuples];
+		for (int row = 1; row < numTuples; row++) {
+			deltas[row - 1] = (long) values[row * tupleLength + column] - values[(row - 1) * tupleLength + column];
+		}
+		pack(page, deltas, numTuples - 1, bits);
+	}
+
+	/**
+	 * Writes a column as its runs of equal values. Run lengths are stored
+	 * minus one.
+	 */
+	private void encodeRunLength(ByteBuffer page, int column) {
+		int numRuns = runs[column];
+		int valueBits = bitWidth((long) maximums[column] - minimums[column]);
+		int lengthBits = bitWidth(maxRunLengths[column] - 1);
+		long[] runValues = new long[numRuns];
+		long[] lengths = new long[numRuns];
+		int run = 0;
+		for (int row = 0; row < numTuples; row++) {
+			int value = values[row * tupleLength + column];
+			if (row > 0 && value == values[(row - 1) * tupleLength + column]) {
+				lengths[run - 1]++;
+			} else {
+				runValues[run] = (long) value - minimums[column];
+				run++;
+			}
+		}
+		page.put(RUN_LENGTH);
+		page.putInt(numRuns);
+		page.putInt(minimums[column]);
+		page.put((byte) valueBits);
+		page.put((byte) lengthBits);
+		pack(page, runValues, numRuns, valueBits);
+		pack(page, lengths, numRuns, lengthBits);
+	}
+
+	/**
+	 * Returns the size of the smallest encoding of a column with the given
+	 * statistics.
+	 */
+	private static int columnSize(int n, int minimum, int maximum, boolean sorted, long maxDelta, int numRuns,
+			int maxRunLength) {
+		int size = Math.min(frameOfReferenceSize(n, minimum, maximum),
+				runLengthSize(numRuns, minimum, maximum, maxRunLength));
+		if (sorted) {
+			size = Math.min(size, deltaSize(n, maxDelta));
+		}
+		return size;
+	}
+
+	private static int frameOfReferenceSize(int n, int minimum, int maximum) {
+		return 6 + packedSize(n, bitWidth((long) maximum - minimum));
+	}
+
+	private static int deltaSize(int n, long maxDelta) {
+		return 6 + packedSize(n - 1, bitWidth(maxDelta));
+	}
+
+	private static int runLengthSize(int numRuns, int minimum, int maximum, int maxRunLength) {
+		return 11 + packedSize(numRuns, bitWidth((long) maximum - minimum))
+				+ packedSize(numRuns, bitWidth(maxRunLength - 1));
+	}
+
+	/**
+	 * Returns the number of bits needed to store a non-negative value.
+	 */
+	private static int bitWidth(long value) {
+		return 64 - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * Returns the number of bytes taken by n bit-packed values.
+	 */
+	private static int packedSize(int n, int bits) {
+		return (int) (((long) n * bits + 7) / 8);
+	}
+
+	/**
+	 * Writes values of the given bit width at the buffer's position, least
+	 * significant bits first.
+	 */
+	private static void pack(ByteBuffer page, long[] packed, int n, int bits) {
+		if (bits == 0) {
+			return;
+		}
+		long buffer = 0;
+		int bufferedBits = 0;
+		for (int i = 0; i < n; i++) {
+			buffer |= packed[i] << bufferedBits;
+			bufferedBits += bits;
+			while (bufferedBits >= 8) {
+				page.put((byte) buffer);
+				buffer >>>= 8;
+				bufferedBits -= 8;
+			}
+		}
+		if (bufferedBits > 0) {
+			page.put((byte) buffer);
+		}
+	}
+
+	/**
+	 * Reads n values of the given bit width, stored least significant bits
+	 * first from the given position.
+	 */
+	private static long[] unpack(ByteBuffer page, int position, int n, int bits) {
+		long[] unpacked = new long[Math.max(0, n)];
+		if (bits == 0) {
+			return unpacked;
+		}
+		long mask = (1L << bits) - 1;
+		long buffer = 0;
+		int bufferedBits = 0;
+		for (int i = 0; i < n; i++) {
+			while (bufferedBits < bits) {
+				buffer |= (page.get(position) & 0xFFL) << bufferedBits;
+				position++;
+				bufferedBits += 8;
+			}
+			unpacked[i] = buffer & mask;
+			buffer >>>= bits;
+			bufferedBits -= bits;
+		}
+		return unpacked;
+	}
+
+}
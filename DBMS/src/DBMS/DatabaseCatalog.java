@@ -24,6 +24,23 @@ public final class DatabaseCatalog {
 	private Hashtable<String, Integer> bPlusTreeInfoTable;
 	private Hashtable<String, Boolean> isClusteredInfoTable;
 	private Hashtable<String, Integer> treeOrderInfoTable;
+	private int hashJoinBuffer;
+	private int inequalityJoinBuffer;
+	private int nestedLoopJoinBuffer;
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	public static final int DEFAULT_PAGE_SIZE = 4096;
+	public static final int MAX_PAGE_SIZE = 1 << 20;
+	private boolean replacementSelection;
+	private int sortThreads;
+	private int exchangeWorkers;
+	private int morselPages;
+	private boolean memoryMappedReads;
+	private boolean zoneMaps;
+	private boolean compressedTables;
+	private boolean compressedSortRuns;
+	private boolean batchExecution;
+	private int readAheadPages;
+	private int writeBehindPages;
 
 	/**
 	 * Private method used by the class to instantiate the one and only
@@ -56,6 +73,290 @@ public final class DatabaseCatalog {
 		tempDirectory = temp;
 	}
 
+	/**
+	 * Method to set the page size of the database. Every data file, index
+	 * file and temp file of the database is laid out in pages of this size.
+	 * 
+	 * @param numBytes
+	 *            the page size, a power of two between DEFAULT_PAGE_SIZE and
+	 *            MAX_PAGE_SIZE bytes.
+	 */
+	public void setPageSize(int numBytes) {
+		if (numBytes < DEFAULT_PAGE_SIZE || numBytes > MAX_PAGE_SIZE || Integer.bitCount(numBytes) != 1) {
+			throw new IllegalArgumentException("Unsupported page size " + numBytes);
+		}
+		pageSize = numBytes;
+	}
+
+	/**
+	 * Return the page size of the database, in bytes.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Method to set the number of pages a hash join may use for its in-memory
+	 * hash table.
+	 * 
+	 * @param numPages
+	 *            the number of pages available to a hash join.
+	 */
+	public void setHashJoinBuffer(int numPages) {
+		hashJoinBuffer = numPages;
+	}
+
+	/**
+	 * Return the number of pages a hash join may use for its in-memory hash
+	 * table.
+	 */
+	public int getHashJoinBuffer() {
+		return hashJoinBuffer;
+	}
+
+	/**
+	 * Method to set the number of pages an inequality join may use to hold
+	 * both of its inputs in memory.
+	 * 
+	 * @param numPages
+	 *            the number of pages available to an inequality join.
+	 */
+	public void setInequalityJoinBuffer(int numPages) {
+		inequalityJoinBuffer = numPages;
+	}
+
+	/**
+	 * Return the number of pages an inequality join may use to hold both of
+	 * its inputs in memory.
+	 */
+	public int getInequalityJoinBuffer() {
+		return inequalityJoinBuffer;
+	}
+
+	/**
+	 * Method to set the number of pages the workers of a parallel block nested
+	 * loop join may use to share its inner input in memory. A larger inner
+	 * input is written to the temp directory and read from there.
+	 * 
+	 * @param numPages
+	 *            the number of pages available to the shared inner input.
+	 */
+	public void setNestedLoopJoinBuffer(int numPages) {
+		nestedLoopJoinBuffer = numPages;
+	}
+
+	/**
+	 * Return the number of pages the workers of a parallel block nested loop
+	 * join may use to share its inner input in memory.
+	 */
+	public int getNestedLoopJoinBuffer() {
+		return nestedLoopJoinBuffer;
+	}
+
+	/**
+	 * Method to set whether binary tuple files are read through a memory
+	 * mapping instead of one read call per page. Mapped files are served
+	 * straight from the mapping, so their pages bypass both the read-ahead
+	 * of sequential scans and the BufferPool. Without the mapping, sequential
+	 * scans with read-ahead enabled read ahead of the BufferPool, and every
+	 * other read goes through the pool.
+	 * 
+	 * @param enabled
+	 *            true to map files read by TupleReaderBinary.
+	 */
+	public void setMemoryMappedReads(boolean enabled) {
+		memoryMappedReads = enabled;
+	}
+
+	/**
+	 * Return whether binary tuple files are read through a memory mapping.
+	 */
+	public boolean useMemoryMappedReads() {
+		return memoryMappedReads;
+	}
+
+	/**
+	 * Method to set whether binary data files keep per-page zone maps, and
+	 * whether scans use them to skip pages outside their selection.
+	 * 
+	 * @param enabled
+	 *            true to build and use zone maps.
+	 */
+	public void setZoneMaps(boolean enabled) {
+		zoneMaps = enabled;
+	}
+
+	/**
+	 * Return whether binary data files keep per-page zone maps.
+	 */
+	public boolean useZoneMaps() {
+		return zoneMaps;
+	}
+
+	/**
+	 * Method to set whether base tables are stored as compressed pages.
+	 * 
+	 * @param enabled
+	 *            true to compress the data files of the database.
+	 */
+	public void setCompressedTables(boolean enabled) {
+		compressedTables = enabled;
+	}
+
+	/**
+	 * Return whether base tables are stored as compressed pages.
+	 */
+	public boolean useCompressedTables() {
+		return compressedTables;
+	}
+
+	/**
+	 * Method to set whether external sorts write their runs as compressed
+	 * pages.
+	 * 
+	 * @param enabled
+	 *            true to compress sort runs.
+	 */
+	public void setCompressedSortRuns(boolean enabled) {
+		compressedSortRuns = enabled;
+	}
+
+	/**
+	 * Return whether external sorts write their runs as compressed pages.
+	 */
+	public boolean useCompressedSortRuns() {
+		return compressedSortRuns;
+	}
+
+	/**
+	 * Method to set whether query plans are evaluated a batch of tuples at a
+	 * time instead of a tuple at a time.
+	 * 
+	 * @param enabled
+	 *            true to evaluate query plans by batches.
+	 */
+	public void setBatchExecution(boolean enabled) {
+		batchExecution = enabled;
+	}
+
+	/**
+	 * Return whether query plans are evaluated by batches.
+	 */
+	public boolean useBatchExecution() {
+		return batchExecution;
+	}
+
+	/**
+	 * Method to set the number of pages sequential scans read ahead of the
+	 * tuples they return. Ignored for files read through a memory mapping.
+	 * 
+	 * @param numPages
+	 *            the number of pages in flight; 0 disables read-ahead.
+	 */
+	public void setReadAheadPages(int numPages) {
+		readAheadPages = numPages;
+	}
+
+	/**
+	 * Return the number of pages sequential scans read ahead.
+	 */
+	public int getReadAheadPages() {
+		return readAheadPages;
+	}
+
+	/**
+	 * Method to set the number of page buffers binary tuple writers use to
+	 * write full pages behind the tuples being added.
+	 * 
+	 * @param numPages
+	 *            the number of page buffers; 0 writes every page inline.
+	 */
+	public void setWriteBehindPages(int numPages) {
+		writeBehindPages = numPages;
+	}
+
+	/**
+	 * Return the number of page buffers binary tuple writers write behind
+	 * with.
+	 */
+	public int getWriteBehindPages() {
+		return writeBehindPages;
+	}
+
+	/**
+	 * Method to set the number of worker threads an external sort may use.
+	 * 
+	 * @param numThreads
+	 *            the number of threads; 1 sorts sequentially.
+	 */
+	public void setSortThreads(int numThreads) {
+		sortThreads = numThreads;
+	}
+
+	/**
+	 * Return the number of worker threads an external sort may use.
+	 */
+	public int getSortThreads() {
+		return sortThreads;
+	}
+
+	/**
+	 * Method to set the number of worker threads a query may run its
+	 * partitioned scans and joins on, through exchange operators.
+	 * 
+	 * @param numWorkers
+	 *            the number of workers; 1 runs every query serially.
+	 */
+	public void setExchangeWorkers(int numWorkers) {
+		exchangeWorkers = numWorkers;
+	}
+
+	/**
+	 * Return the number of worker threads a query may run on.
+	 */
+	public int getExchangeWorkers() {
+		return exchangeWorkers;
+	}
+
+	/**
+	 * Method to set the number of pages of the morsels parallel table scans
+	 * hand out to their workers.
+	 * 
+	 * @param numPages
+	 *            the number of pages of each morsel.
+	 */
+	public void setMorselPages(int numPages) {
+		morselPages = numPages;
+	}
+
+	/**
+	 * Return the number of pages of each morsel of a parallel table scan.
+	 */
+	public int getMorselPages() {
+		return morselPages;
+	}
+
+	/**
+	 * Method to set whether external sorts generate their initial runs by
+	 * replacement selection instead of sorting one buffer-full at a time.
+	 * Replacement selection is serial, so it replaces the parallel generation
+	 * of the initial runs when sortThreads is above 1.
+	 * 
+	 * @param enabled
+	 *            true to use replacement selection in pass 0.
+	 */
+	public void setReplacementSelection(boolean enabled) {
+		replacementSelection = enabled;
+	}
+
+	/**
+	 * Return whether external sorts generate their initial runs by
+	 * replacement selection.
+	 */
+	public boolean useReplacementSelection() {
+		return replacementSelection;
+	}
+
 	/**
 	 * Method to set the index directory.
 	 * 
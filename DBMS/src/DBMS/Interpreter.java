@@ -10,10 +10,14 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import PhysicalOperator.ColumnarScanOperator;
+import PhysicalOperator.Operator;
 import PhysicalOperator.ScanOperator;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.parser.CCJSqlParser;
@@ -50,6 +54,21 @@ public class Interpreter {
 	public int joinBuffer;
 	public String sortMethod;
 	public int sortBuffer;
+	public int sortThreads;
+	public int exchangeWorkers;
+	public int morselPages;
+	public int hashJoinBuffer;
+	public int inequalityJoinBuffer;
+	public int nestedLoopJoinBuffer;
+	public boolean replacementSelection;
+	public boolean memoryMappedReads;
+	public boolean zoneMaps;
+	public boolean compressedTables;
+	public boolean compressedSortRuns;
+	public boolean batchExecution;
+	public int bufferPoolPages;
+	public int readAheadPages;
+	public int writeBehindPages;
 
 	public boolean EOF; // boolean value specifying if end of the queries.sql
 						// file was reached.
@@ -60,6 +79,8 @@ public class Interpreter {
 
 	private DatabaseCatalog catalog;
 
+	public static final String COLUMNAR_SUFFIX = ":columnar";
+
 	/**
 	 * Constructor for Interpreter.
 	 * 
@@ -87,18 +108,76 @@ public class Interpreter {
 		joinBuffer = 5;
 		sortMethod = "EXTERNAL";
 		sortBuffer = 5;
+		sortThreads = 4;
+		exchangeWorkers = 4;
+		morselPages = 64;
+		hashJoinBuffer = 1024;
+		inequalityJoinBuffer = 1024;
+		nestedLoopJoinBuffer = 1024;
+		replacementSelection = false;
+		memoryMappedReads = false;
+		zoneMaps = true;
+		compressedTables = false;
+		compressedSortRuns = true;
+		batchExecution = true;
+		bufferPoolPages = 256;
+		readAheadPages = 8;
+		writeBehindPages = 4;
 
 		catalog.setDirectory(inputDirectory, outputDirectory, tempDirectory);
+		catalog.setHashJoinBuffer(hashJoinBuffer);
+		catalog.setInequalityJoinBuffer(inequalityJoinBuffer);
+		catalog.setNestedLoopJoinBuffer(nestedLoopJoinBuffer);
+		catalog.setReplacementSelection(replacementSelection);
+		catalog.setSortThreads(sortThreads);
+		catalog.setExchangeWorkers(exchangeWorkers);
+		catalog.setMorselPages(morselPages);
+		catalog.setMemoryMappedReads(memoryMappedReads);
+		catalog.setZoneMaps(zoneMaps);
+		catalog.setCompressedTables(compressedTables);
+		catalog.setCompressedSortRuns(compressedSortRuns);
+		catalog.setBatchExecution(batchExecution);
+		BufferPool.getInstance().setCapacity(bufferPoolPages);
+		catalog.setReadAheadPages(readAheadPages);
+		catalog.setWriteBehindPages(writeBehindPages);
+
+		processPageSizeInfo();
 
 		processSchemaInfo();
 
+		processColumnarTables();
+
+		processCompression();
+
 		processIndexInfo();
 
+		processZoneMaps();
+
 		collectStatistics();
 
 	}
 
-	/** Method to process schema info. */
+	/**
+	 * Method to process the page size of the database, recorded in
+	 * db/page_size.txt. Databases without the file use the default page size.
+	 */
+	private void processPageSizeInfo() {
+		File pageSizeFile = new File(inputDirectory + "/db/page_size.txt");
+		if (!pageSizeFile.exists()) {
+			catalog.setPageSize(DatabaseCatalog.DEFAULT_PAGE_SIZE);
+			return;
+		}
+		try (BufferedReader pageSizeReader = new BufferedReader(new FileReader(pageSizeFile))) {
+			catalog.setPageSize(Integer.parseInt(pageSizeReader.readLine().trim()));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Method to process schema info. A relation whose name is followed by
+	 * COLUMNAR_SUFFIX in the schema is stored one file per column.
+	 */
 	private void processSchemaInfo() {
 
 		try {
@@ -123,7 +202,11 @@ public class Interpreter {
 					fields.add(tableInfo[i]);
 				}
 
-				TableInfo currentTable = new TableInfo(inputDirectory + "/db/data/" + tableInfo[0], fields);
+				boolean columnar = tableInfo[0].endsWith(COLUMNAR_SUFFIX);
+				if (columnar) {
+					tableInfo[0] = tableInfo[0].substring(0, tableInfo[0].length() - COLUMNAR_SUFFIX.length());
+				}
+				TableInfo currentTable = new TableInfo(inputDirectory + "/db/data/" + tableInfo[0], fields, columnar);
 				catalog.SetTable(tableInfo[0], currentTable);
 				catalog.addRelation(tableInfo[0]);
 				catalog.addAttributeInfo(tableInfo[0],
@@ -135,6 +218,146 @@ public class Interpreter {
 		}
 	}
 
+	/**
+	 * Method to split the data file of each columnar relation into its column
+	 * files, for relations loaded as a file of tuples whose column files are
+	 * missing or older than it. The column files are written to temporary
+	 * files and renamed into place only once every column is complete. The
+	 * file of tuples is kept, so the input data survives an interrupted split
+	 * and the relation can be loaded by rows again.
+	 */
+	private void processColumnarTables() {
+		for (String relation : catalog.getAllRelations()) {
+			TableInfo table = catalog.GetTable(relation);
+			File original = new File(table.getLocation());
+			if (!table.isColumnar() || !original.exists() || columnFilesCurrent(table, original)) {
+				continue;
+			}
+			List<String> fields = table.getFields();
+			TupleWriterBinary[] writers = new TupleWriterBinary[fields.size()];
+			for (int i = 0; i < writers.length; i++) {
+				writers[i] = new TupleWriterBinary(table.getColumnLocation(fields.get(i)) + ".split");
+				if (compressedTables) {
+					writers[i].compressPages();
+				}
+			}
+			TupleReaderBinary reader = new TupleReaderBinary(table.getLocation());
+			int[] values;
+			while ((values = reader.readValues()) != null) {
+				for (int i = 0; i < writers.length; i++) {
+					writers[i].writeTuple(new int[] { values[i] });
+				}
+			}
+			reader.close();
+			for (TupleWriterBinary writer : writers) {
+				writer.flush();
+				writer.close();
+			}
+
+			for (String field : fields) {
+				String location = table.getColumnLocation(field);
+				replaceFile(location + ".split", location);
+				BufferPool.getInstance().invalidate(BufferPool.fileKey(location));
+			}
+		}
+	}
+
+	/**
+	 * Method to check whether every column file of a columnar relation exists
+	 * and was written after its file of tuples.
+	 * 
+	 * @param table
+	 *            the columnar relation.
+	 * @param original
+	 *            the file of tuples of the relation.
+	 * @return true if the column files need not be split again.
+	 */
+	private boolean columnFilesCurrent(TableInfo table, File original) {
+		for (String field : table.getFields()) {
+			File column = new File(table.getColumnLocation(field));
+			if (!column.exists() || column.lastModified() < original.lastModified()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Method to rewrite the data files of each relation as compressed pages,
+	 * if compressed tables are enabled and the files are not compressed yet.
+	 * The data files of a columnar relation are its column files.
+	 */
+	private void processCompression() {
+		if (!compressedTables) {
+			return;
+		}
+		for (String relation : catalog.getAllRelations()) {
+			TableInfo table = catalog.GetTable(relation);
+			if (table.isColumnar()) {
+				for (String field : table.getFields()) {
+					compressFile(table.getColumnLocation(field));
+				}
+			} else {
+				compressFile(table.getLocation());
+			}
+		}
+	}
+
+	/**
+	 * Method to rewrite a binary tuple file as compressed pages, unless it is
+	 * empty or compressed already. The compressed pages are written to a
+	 * temporary file, which replaces the original only once it is complete, so
+	 * the original is never lost.
+	 * 
+	 * @param location
+	 *            the path of the file.
+	 */
+	private void compressFile(String location) {
+		TupleReaderBinary reader = new TupleReaderBinary(location);
+		FieldOrderedTuple tuple = reader.readFOTuple();
+		if (tuple == null || reader.compressed) {
+			reader.close();
+			return;
+		}
+		TupleWriterBinary writer = new TupleWriterBinary(location + ".compressed");
+		writer.compressPages();
+		do {
+			writer.writeTuple(tuple);
+		} while ((tuple = reader.readFOTuple()) != null);
+		writer.flush();
+		writer.close();
+		reader.close();
+
+		if (!replaceFile(location + ".compressed", location)) {
+			return;
+		}
+		new File(location + ZoneMap.FILE_SUFFIX).delete();
+		BufferPool.getInstance().invalidate(BufferPool.fileKey(location));
+	}
+
+	/**
+	 * Method to replace a file with a completely written temporary file in a
+	 * single atomic rename. If the rename fails, the temporary file is removed
+	 * and the file is left as it was.
+	 * 
+	 * @param temporary
+	 *            the path of the temporary file.
+	 * @param location
+	 *            the path of the file to be replaced.
+	 * @return true if the file was replaced.
+	 */
+	private boolean replaceFile(String temporary, String location) {
+		try {
+			Files.move(new File(temporary).toPath(), new File(location).toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			new File(temporary).delete();
+			return false;
+		}
+	}
+
 	/** Method to process index info. */
 	private void processIndexInfo() {
 		String indexDirectory = inputDirectory + "/db/indexes";
@@ -153,6 +376,11 @@ public class Interpreter {
 				String[] indexInfo = line.trim().split(" ");
 				String relation = indexInfo[0];
 				String attribute = indexInfo[1];
+				if (catalog.GetTable(relation).isColumnar()) {
+					// Columnar relations are scanned from their column files, which
+					// RIDs do not point into.
+					continue;
+				}
 
 				for (int i = 2; i < indexInfo.length; i += 2) {
 					boolean isClustered = false;
@@ -185,13 +413,38 @@ public class Interpreter {
 		}
 	}
 
+	/**
+	 * Method to build the zone map of each relation whose data file has none,
+	 * or has been modified since its zone map was written. Columnar relations
+	 * are scanned without zone maps.
+	 */
+	private void processZoneMaps() {
+		if (!zoneMaps) {
+			return;
+		}
+		for (String relation : catalog.getAllRelations()) {
+			TableInfo table = catalog.GetTable(relation);
+			if (table.isColumnar()) {
+				continue;
+			}
+			if (ZoneMap.load(table.getLocation()) == null) {
+				ZoneMap.build(table.getLocation(), table.getFields().size());
+			}
+		}
+	}
+
 	/** Method to collect statistics of each relation. */
 	private void collectStatistics() {
 		StringBuilder statsInfo = new StringBuilder();
 
 		for (String relation : catalog.getAllRelations()) {
 			StatisticsInfo stats = new StatisticsInfo(relation);
-			ScanOperator scanner = new ScanOperator(relation, null);
+			Operator scanner;
+			if (catalog.GetTable(relation).isColumnar()) {
+				scanner = new ColumnarScanOperator(relation, null, null);
+			} else {
+				scanner = new ScanOperator(relation, null);
+			}
 			Tuple currentTuple;
 			while ((currentTuple = scanner.getNextTuple()) != null) {
 				stats.updateStats(currentTuple);
@@ -2,13 +2,19 @@ package DBMS;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 
 public class JavaUtils {
 
+	private static final Pattern COLUMN_REFERENCE = Pattern.compile("\\w+\\.\\w+");
+
 	/**
 	 * Method to see if an expression contains specific table/alias name.
 	 *
@@ -49,4 +55,41 @@ public class JavaUtils {
 		}
 		return expressionAccumulator;
 	}
+
+	/**
+	 * Method to split a conjunction into the list of its conjuncts; the
+	 * inverse of listToExpression.
+	 *
+	 * @param exp
+	 *            The expression to be split; may be null.
+	 * @return A list containing the conjuncts of the expression.
+	 */
+	public List<Expression> expressionToList(Expression exp) {
+		List<Expression> expressionList = new ArrayList<Expression>();
+		if (exp instanceof AndExpression) {
+			expressionList.addAll(expressionToList(((AndExpression) exp).getLeftExpression()));
+			expressionList.addAll(expressionToList(((AndExpression) exp).getRightExpression()));
+		} else if (exp != null) {
+			expressionList.add(exp);
+		}
+		return expressionList;
+	}
+
+	/**
+	 * Method to find the qualified columns (table/alias name, a dot and the
+	 * attribute name) an expression or clause refers to.
+	 *
+	 * @param exp
+	 *            The text of the expression.
+	 * @return The set of columns referenced in the text, in order of first
+	 *         reference.
+	 */
+	public Set<String> columnReferences(String exp) {
+		Set<String> columns = new LinkedHashSet<String>();
+		Matcher matcher = COLUMN_REFERENCE.matcher(exp);
+		while (matcher.find()) {
+			columns.add(matcher.group());
+		}
+		return columns;
+	}
 }
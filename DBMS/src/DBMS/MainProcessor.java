@@ -110,18 +110,33 @@ public class MainProcessor {
 						writer.close();
 					}
 
-					FieldOrderedTuple fot;
-					List<Integer> values = new ArrayList<Integer>();
-
-					Tuple resultTuple;
-					while ((resultTuple = planner.getNextTuple()) != null) {
-						values.clear();
-						for (String fieldname : interpreter.outputOrder) {
-							values.add(Integer.parseInt(resultTuple.getField(fieldname)));
+					TupleSchema outputSchema = physicalPlan.getOutputSchema();
+					int[] outputSlots = new int[interpreter.outputOrder.size()];
+					for (int i = 0; i < outputSlots.length; i++) {
+						outputSlots[i] = outputSchema.getSlot(interpreter.outputOrder.get(i));
+					}
+					int[] values = new int[outputSlots.length];
+
+					if (DatabaseCatalog.getInstance().useBatchExecution()) {
+						TupleBatch resultBatch;
+						while ((resultBatch = planner.getNextBatch()) != null) {
+							int[] selection = resultBatch.getSelection();
+							for (int j = 0; j < resultBatch.getSelectedCount(); j++) {
+								for (int i = 0; i < values.length; i++) {
+									values[i] = resultBatch.getColumn(outputSlots[i])[selection[j]];
+								}
+								tupleWriterBinary.writeTuple(values);
+							}
 						}
-						fot = new FieldOrderedTuple(values);
-						tupleWriterBinary.writeTuple(fot);
+					} else {
+						Tuple resultTuple;
+						while ((resultTuple = planner.getNextTuple()) != null) {
+							for (int i = 0; i < values.length; i++) {
+								values[i] = resultTuple.getValue(outputSlots[i]);
+							}
+							tupleWriterBinary.writeTuple(values);
 
+						}
 					}
 					tupleWriterBinary.flush();
 					tupleWriterBinary.close();
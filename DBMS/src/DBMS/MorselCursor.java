@@ -0,0 +1,58 @@
+package DBMS;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class hands out the pages of a file in morsels, contiguous ranges of
+ * a fixed number of pages, to the readers sharing it. Each morsel is claimed
+ * by exactly one reader, and a reader claims the next one as soon as it has
+ * read its last, so readers that finish early take over the morsels the
+ * others have not reached yet.
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class MorselCursor {
+	private int numPages;
+	private int morselPages;
+	private AtomicInteger nextPage;
+
+	/**
+	 * Constructor for MorselCursor
+	 * @param numPages The number of pages of the file
+	 * @param morselPages The number of pages of each morsel
+	 */
+	public MorselCursor(int numPages, int morselPages) {
+		this.numPages = numPages;
+		this.morselPages = Math.max(1, morselPages);
+		nextPage = new AtomicInteger(0);
+	}
+
+	/**
+	 * Claims the next morsel of the file.
+	 * @return The first page of the morsel and the page after its last,
+	 * or null once every morsel has been claimed
+	 */
+	public int[] claim() {
+		int firstPage = nextPage.getAndAdd(morselPages);
+		if (firstPage >= numPages) {
+			return null;
+		}
+		return new int[] { firstPage, Math.min(numPages, firstPage + morselPages) };
+	}
+
+	/**
+	 * Returns the number of morsels the file is split into.
+	 * @return The number of morsels
+	 */
+	public int getNumMorsels() {
+		return (numPages + morselPages - 1) / morselPages;
+	}
+
+	/**
+	 * Makes every morsel available again, once all readers sharing this
+	 * cursor have been stopped.
+	 */
+	public void reset() {
+		nextPage.set(0);
+	}
+}
@@ -0,0 +1,177 @@
+package DBMS;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class sorts a list of tuples in the order given by a RecordComparator
+ * without calling the comparator for every comparison. The first sort
+ * fields of each tuple are packed into a normalized key: a long holding each
+ * value sign-flipped and big-endian, so that comparing two keys as unsigned
+ * longs gives the same result as comparing the fields one by one. The
+ * (key, row) pairs are then sorted with an LSD radix sort, and the
+ * comparator is only consulted to order tuples whose keys tie when the sort
+ * order has more fields than fit in the key. Like List.sort, the sort is
+ * stable.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class NormalizedKeySorter {
+
+	private static final int KEY_FIELDS = 2;
+	private static final int INSERTION_SORT_THRESHOLD = 32;
+
+	private RecordComparator comparator;
+	private int[] keySlots;
+	private boolean completeKey;
+
+	/**
+	 * Initializes a NormalizedKeySorter for the sort order of the given
+	 * comparator.
+	 * @param comparator The comparator defining the sort order
+	 */
+	public NormalizedKeySorter(RecordComparator comparator) {
+		this.comparator = comparator;
+		int[] comparisonSlots = comparator.comparisonSlots;
+		keySlots = Arrays.copyOf(comparisonSlots, Math.min(KEY_FIELDS, comparisonSlots.length));
+		completeKey = comparisonSlots.length <= KEY_FIELDS;
+	}
+
+	/**
+	 * Builds the normalized key of a tuple. Flipping the sign bit of each
+	 * value maps the signed int order onto the unsigned order, and the
+	 * values are packed most significant field first.
+	 * @param tuple The tuple to build the key of
+	 * @return the normalized key, to be compared as an unsigned long
+	 */
+	public long normalizedKey(Tuple tuple) {
+		long key = 0;
+		for (int i = 0; i < KEY_FIELDS; i++) {
+			key <<= 32;
+			if (i < keySlots.length) {
+				key |= (tuple.getValue(keySlots[i]) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Sorts the given list of tuples in place.
+	 * @param tuples The tuples to sort
+	 */
+	public void sort(List<Tuple> tuples) {
+		int n = tuples.size();
+		if (n < 2) {
+			return;
+		}
+		long[] keys = new long[n];
+		int[] rows = new int[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = normalizedKey(tuples.get(i));
+			rows[i] = i;
+		}
+
+		if (n <= INSERTION_SORT_THRESHOLD) {
+			insertionSort(keys, rows);
+		} else {
+			radixSort(keys, rows);
+		}
+
+		Tuple[] sorted = new Tuple[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = tuples.get(rows[i]);
+		}
+		if (!completeKey) {
+			breakTies(keys, sorted);
+		}
+		for (int i = 0; i < n; i++) {
+			tuples.set(i, sorted[i]);
+		}
+	}
+
+	/**
+	 * Stable insertion sort of (key, row) pairs, for small inputs.
+	 * @param keys The normalized keys
+	 * @param rows The rows the keys belong to
+	 */
+	private static void insertionSort(long[] keys, int[] rows) {
+		for (int i = 1; i < keys.length; i++) {
+			long key = keys[i];
+			int row = rows[i];
+			int j = i - 1;
+			while (j >= 0 && Long.compareUnsigned(keys[j], key) > 0) {
+				keys[j + 1] = keys[j];
+				rows[j + 1] = rows[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			rows[j + 1] = row;
+		}
+	}
+
+	/**
+	 * Stable LSD radix sort of (key, row) pairs, one byte per pass. Passes
+	 * on a byte that is the same in every key are skipped.
+	 * @param keys The normalized keys
+	 * @param rows The rows the keys belong to
+	 */
+	private static void radixSort(long[] keys, int[] rows) {
+		int n = keys.length;
+		long[] sourceKeys = keys;
+		int[] sourceRows = rows;
+		long[] targetKeys = new long[n];
+		int[] targetRows = new int[n];
+		int[] counts = new int[256];
+
+		for (int shift = 0; shift < 64; shift += 8) {
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < n; i++) {
+				counts[(int) (sourceKeys[i] >>> shift) & 0xFF]++;
+			}
+			if (counts[(int) (sourceKeys[0] >>> shift) & 0xFF] == n) {
+				continue;
+			}
+			int offset = 0;
+			for (int b = 0; b < 256; b++) {
+				int count = counts[b];
+				counts[b] = offset;
+				offset += count;
+			}
+			for (int i = 0; i < n; i++) {
+				int position = counts[(int) (sourceKeys[i] >>> shift) & 0xFF]++;
+				targetKeys[position] = sourceKeys[i];
+				targetRows[position] = sourceRows[i];
+			}
+			long[] swapKeys = sourceKeys;
+			sourceKeys = targetKeys;
+			targetKeys = swapKeys;
+			int[] swapRows = sourceRows;
+			sourceRows = targetRows;
+			targetRows = swapRows;
+		}
+
+		if (sourceKeys != keys) {
+			System.arraycopy(sourceKeys, 0, keys, 0, n);
+			System.arraycopy(sourceRows, 0, rows, 0, n);
+		}
+	}
+
+	/**
+	 * Orders each group of tuples with equal keys by the full sort order.
+	 * @param keys The sorted normalized keys
+	 * @param sorted The tuples, in key order
+	 */
+	private void breakTies(long[] keys, Tuple[] sorted) {
+		int start = 0;
+		for (int i = 1; i <= keys.length; i++) {
+			if (i == keys.length || keys[i] != keys[start]) {
+				if (i - start > 1) {
+					Arrays.sort(sorted, start, i, comparator);
+				}
+				start = i;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package DBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class reads the pages of a file ahead of a sequential reader. It owns
+ * a ring of reusable page buffers; while the reader works on one page, the
+ * reads of the following pages are already in flight on a background I/O
+ * thread. Asking for any page other than the one after the last keeps the
+ * reader correct but restarts the read-ahead from that page.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class PageReadAhead {
+
+	static final ExecutorService ioThreads = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "page-io");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private FileChannel channel;
+	private ByteBuffer[] ring;
+	private Future<?>[] reads;
+	private int[] bytesRead;
+	private int currentPage;
+	private int pageSize;
+
+	/**
+	 * Constructor for PageReadAhead
+	 * @param channel A channel open on the file to read
+	 * @param numPages The number of pages in the ring, including the one
+	 * handed to the reader
+	 * @param pageSize The size of a page, in bytes
+	 */
+	public PageReadAhead(FileChannel channel, int numPages, int pageSize) {
+		this.channel = channel;
+		this.pageSize = pageSize;
+		ring = new ByteBuffer[Math.max(2, numPages)];
+		reads = new Future<?>[ring.length];
+		bytesRead = new int[ring.length];
+		for (int i = 0; i < ring.length; i++) {
+			ring[i] = ByteBuffer.allocate(pageSize);
+		}
+		currentPage = -1;
+	}
+
+	/**
+	 * Returns the given page of the file. The buffer is reused once the next
+	 * page is requested, so the caller must be done with it by then.
+	 * @param page The number of the page
+	 * @return the page, or null if the file has no such page
+	 * @throws IOException
+	 */
+	public ByteBuffer nextPage(int page) throws IOException {
+		if (currentPage >= 0 && page == currentPage + 1) {
+			issueRead(currentPage + ring.length);
+		} else {
+			restart(page);
+		}
+		currentPage = page;
+		int slot = page % ring.length;
+		awaitRead(slot);
+		if (bytesRead[slot] <= 0) {
+			return null;
+		}
+		ring[slot].rewind();
+		return ring[slot];
+	}
+
+	/**
+	 * Waits for the reads in flight to complete; the channel may be closed
+	 * afterwards.
+	 */
+	public void close() {
+		for (int i = 0; i < ring.length; i++) {
+			try {
+				awaitRead(i);
+			} catch (IOException e) {
+				// The pages are no longer needed.
+			}
+		}
+		currentPage = -1;
+	}
+
+	/**
+	 * Discards the reads in flight and fills the ring starting at the given
+	 * page.
+	 */
+	private void restart(int page) throws IOException {
+		close();
+		for (int i = 0; i < ring.length; i++) {
+			issueRead(page + i);
+		}
+	}
+
+	/**
+	 * Starts reading a page into its slot of the ring.
+	 */
+	private void issueRead(final int page) {
+		final int slot = page % ring.length;
+		reads[slot] = ioThreads.submit(() -> {
+			ByteBuffer buffer = ring[slot];
+			buffer.clear();
+			bytesRead[slot] = channel.read(buffer, (long) page * pageSize);
+			return null;
+		});
+	}
+
+	/**
+	 * Waits for the read into a slot of the ring to complete.
+	 */
+	private void awaitRead(int slot) throws IOException {
+		Future<?> read = reads[slot];
+		if (read == null) {
+			return;
+		}
+		reads[slot] = null;
+		try {
+			read.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			bytesRead[slot] = -1;
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+}
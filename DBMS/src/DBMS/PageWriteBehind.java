@@ -0,0 +1,146 @@
+package DBMS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+
+/**
+ * This class writes the pages of a file behind a writer. Pages are taken
+ * from a small ring of recycled direct buffers; a full page is handed back
+ * and written by a background I/O thread, while the writer fills the next
+ * one. All the pages queued at the time a write starts are written with a
+ * single gathering write. Pages reach the file in the order they were
+ * queued.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class PageWriteBehind {
+
+	private FileChannel channel;
+	private byte[] zeroPage;
+	private int numBuffers;
+	private int allocatedBuffers;
+	private ArrayDeque<ByteBuffer> freeBuffers;
+	private ArrayDeque<ByteBuffer> pendingPages;
+	private int pagesInFlight;
+	private boolean draining;
+	private IOException failure;
+
+	/**
+	 * Constructor for PageWriteBehind
+	 * @param channel A channel open on the file to write
+	 * @param numBuffers The number of page buffers in the ring
+	 * @param pageSize The size of a page, in bytes
+	 */
+	public PageWriteBehind(FileChannel channel, int numBuffers, int pageSize) {
+		this.channel = channel;
+		zeroPage = new byte[pageSize];
+		this.numBuffers = Math.max(2, numBuffers);
+		freeBuffers = new ArrayDeque<ByteBuffer>();
+		pendingPages = new ArrayDeque<ByteBuffer>();
+	}
+
+	/**
+	 * Returns an empty page buffer, waiting for a write to complete if every
+	 * buffer of the ring is in use.
+	 * @return a zeroed page buffer
+	 * @throws IOException
+	 */
+	public synchronized ByteBuffer acquire() throws IOException {
+		while (freeBuffers.isEmpty() && allocatedBuffers >= numBuffers) {
+			waitForWrites();
+		}
+		ByteBuffer page = freeBuffers.poll();
+		if (page == null) {
+			page = ByteBuffer.allocateDirect(zeroPage.length);
+			allocatedBuffers++;
+		} else {
+			page.put(zeroPage);
+			page.clear();
+		}
+		return page;
+	}
+
+	/**
+	 * Queues a page acquired from this ring to be written to the file. The
+	 * page must not be modified afterwards.
+	 * @param page The page to write
+	 */
+	public synchronized void submit(ByteBuffer page) {
+		page.clear();
+		pendingPages.add(page);
+		pagesInFlight++;
+		if (!draining) {
+			draining = true;
+			PageReadAhead.ioThreads.submit(this::drain);
+		}
+	}
+
+	/**
+	 * Waits until every queued page has been written.
+	 * @throws IOException if one of the writes failed
+	 */
+	public synchronized void barrier() throws IOException {
+		while (pagesInFlight > 0) {
+			waitForWrites();
+		}
+		if (failure != null) {
+			IOException e = failure;
+			failure = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the queued pages until none are left, then returns their
+	 * buffers to the ring. Runs on a background I/O thread.
+	 */
+	private void drain() {
+		while (true) {
+			ByteBuffer[] batch;
+			synchronized (this) {
+				if (pendingPages.isEmpty()) {
+					draining = false;
+					return;
+				}
+				batch = pendingPages.toArray(new ByteBuffer[0]);
+				pendingPages.clear();
+			}
+			IOException error = null;
+			try {
+				ByteBuffer last = batch[batch.length - 1];
+				while (last.hasRemaining()) {
+					channel.write(batch);
+				}
+			} catch (IOException e) {
+				error = e;
+			}
+			synchronized (this) {
+				if (error != null && failure == null) {
+					failure = error;
+				}
+				for (ByteBuffer page : batch) {
+					page.clear();
+					freeBuffers.add(page);
+				}
+				pagesInFlight -= batch.length;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits for the background thread to complete a write.
+	 */
+	private void waitForWrites() throws IOException {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+	}
+
+}
@@ -14,16 +14,21 @@ import java.util.Comparator;
  */
 public class RecordComparator implements Comparator<Tuple> {
 
-	String[] comparisonFields;
+	int[] comparisonSlots;
 
 	/**
 	 * Initializes a RecordComparator with a String array
 	 * of comparisonFields in the order two tuples are
-	 * to be compared.
+	 * to be compared. The fields are resolved to slots
+	 * in the given schema once, up front.
 	 * @param comparisonFields
+	 * @param schema The schema of the tuples being compared
 	 */
-	public RecordComparator(String[] comparisonFields) {
-		this.comparisonFields = comparisonFields;
+	public RecordComparator(String[] comparisonFields, TupleSchema schema) {
+		comparisonSlots = new int[comparisonFields.length];
+		for (int i = 0; i < comparisonFields.length; i++) {
+			comparisonSlots[i] = schema.getSlot(comparisonFields[i]);
+		}
 	}
 
 	/**
@@ -36,24 +41,26 @@ public class RecordComparator implements Comparator<Tuple> {
 	 */
 	@Override
 	public int compare(Tuple o1, Tuple o2) {
-		for (int i = 0; i < comparisonFields.length; i++) {
-			if (o1 == null && o2 == null){
-				return 0;
-			}			
-			if (o1 == null && o2 != null)
-				return 1;
-			
-			if (o2 == null && o1 != null)
-				return -1;
-			
-			if (Integer.parseInt(o1.getField(comparisonFields[i])) > Integer.parseInt(o2.getField(comparisonFields[i]))) {
+		if (o1 == null && o2 == null){
+			return 0;
+		}
+		if (o1 == null && o2 != null)
+			return 1;
+
+		if (o2 == null && o1 != null)
+			return -1;
+
+		for (int i = 0; i < comparisonSlots.length; i++) {
+			int value1 = o1.getValue(comparisonSlots[i]);
+			int value2 = o2.getValue(comparisonSlots[i]);
+			if (value1 > value2) {
 				return 1;
 			}
-			if (Integer.parseInt(o1.getField(comparisonFields[i])) < Integer.parseInt(o2.getField(comparisonFields[i]))) {
+			if (value1 < value2) {
 				return -1;
 			}
 		}
 		return 0;
 	}
 
-}
\ No newline at end of file
+}
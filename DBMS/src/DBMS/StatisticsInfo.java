@@ -48,7 +48,7 @@ public class StatisticsInfo {
 	 */
 	public void updateStats(Tuple tuple) {
 		for (int i = 0; i < attributesList.size(); i++) {
-			Integer value = Integer.parseInt(tuple.getField((tuple.ordering.get(i))));
+			Integer value = tuple.getValue(i);
 
 			Integer current_min = attributeStatsTable.get(attributesList.get(i))[min_idx];
 			Integer current_max = attributeStatsTable.get(attributesList.get(i))[max_idx];
@@ -12,6 +12,7 @@ import java.util.List;
 public class TableInfo {
 	private String tableLocation;
 	private List<String> fields;
+	private boolean columnar;
 
 	/** Initialize a TableInfo with a given tableLocation
 	 * and the relevant table field names.
@@ -20,8 +21,20 @@ public class TableInfo {
 	 * @param fields
 	 */
 	public TableInfo(String tableLocation, List<String> fields) {
+		this(tableLocation, fields, false);
+	}
+
+	/** Initialize a TableInfo with a given tableLocation,
+	 * the relevant table field names and its storage layout.
+	 * 
+	 * @param tableLocation
+	 * @param fields
+	 * @param columnar True if the table is stored one file per column
+	 */
+	public TableInfo(String tableLocation, List<String> fields, boolean columnar) {
 		this.tableLocation = tableLocation;
 		this.fields = fields;
+		this.columnar = columnar;
 	}
 	
 	/**
@@ -41,4 +54,27 @@ public class TableInfo {
 	public List<String> getFields() {
 		return fields;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 
+	 * @return True if this table is stored
+	 * one file per column instead of one
+	 * file of tuples.
+	 */
+	public boolean isColumnar() {
+		return columnar;
+	}
+
+	/**
+	 * The file holding one column of a
+	 * columnar table. Tuple i of every column
+	 * file holds a value of row i of the table.
+	 * 
+	 * @param field The field name of the column
+	 * @return The location of the column
+	 * on the disk.
+	 */
+	public String getColumnLocation(String field) {
+		return tableLocation + "." + field;
+	}
+}
@@ -1,88 +1,120 @@
 package DBMS;
 
-import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.Hashtable;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * This class holds information about the fields and their respective
- * values for a particular tuple.
- * 
+ * values for a particular tuple. Values are stored as primitive ints,
+ * positioned according to the tuple's schema.
+ *
  * @author Daniel Park (dp435) & Michael Neborak (mln45)
  *
  */
 public class Tuple {
 	String tableName;
-	Hashtable<String, String> tuples;
-	public List<String> ordering;
+	int[] values;
+	TupleSchema schema;
 
 	/**
 	 * Initializes a Tuple with for given tablename with
-	 * a given Hashtable of field/value pairs.
+	 * a given array of values laid out according to schema.
 	 * @param tableName
-	 * @param tuples
+	 * @param values
+	 * @param schema
 	 */
-	public Tuple(String tableName, Hashtable<String, String> tuples, List<String> ordering) {
+	public Tuple(String tableName, int[] values, TupleSchema schema) {
 		this.tableName = tableName;
-		this.tuples = tuples;
-		this.ordering = ordering;
+		this.values = values;
+		this.schema = schema;
 	}
 
 	/**
-	 * Sets the String value for the given field.
-	 * @param fieldName
+	 * Creates the tuple formed by appending the right tuple to the left tuple.
+	 * @param tableName
+	 * @param left The left tuple
+	 * @param right The right tuple
+	 * @param joinedSchema The concatenation of the left and right schemas
+	 * @return the joined tuple
+	 */
+	public static Tuple join(String tableName, Tuple left, Tuple right, TupleSchema joinedSchema) {
+		int[] joinedValues = new int[left.values.length + right.values.length];
+		System.arraycopy(left.values, 0, joinedValues, 0, left.values.length);
+		System.arraycopy(right.values, 0, joinedValues, left.values.length, right.values.length);
+		return new Tuple(tableName, joinedValues, joinedSchema);
+	}
+
+	/**
+	 * Sets the value stored in the given slot.
+	 * @param slot
 	 * @param value
 	 */
-	public void setField(String fieldName, String value) {
-		tuples.put(fieldName, value);
+	public void setValue(int slot, int value) {
+		values[slot] = value;
 	}
 
 	/**
-	 * Returns the String value in the given field.
+	 * Returns the value stored in the given slot.
+	 * @param slot
+	 * @return the int stored in the given slot
+	 */
+	public int getValue(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * Returns the value in the given field.
 	 * @param fieldName
-	 * @return the String stored in the given field
+	 * @return the int stored in the given field
+	 */
+	public int getValue(String fieldName) {
+		return values[schema.getSlot(fieldName)];
+	}
+
+	/**
+	 * Returns the internal array holding the values of this tuple.
+	 * @return the values of this tuple, in schema order
 	 */
-	public String getField(String fieldName) {
-		return tuples.get(fieldName);
+	public int[] getValues() {
+		return values;
 	}
 
 	/**
-	 * Returns the internal hashtable containing the field/value pairs.
-	 * @return the Hashtable containing the values for each field (key)
+	 * @return the schema describing the fields of this tuple
 	 */
-	public Hashtable<String, String> getHashtable() {
-		return tuples;
+	public TupleSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Relabels the fields of this tuple.
+	 * @param schema A schema with the same number of fields as this tuple
+	 */
+	public void setSchema(TupleSchema schema) {
+		this.schema = schema;
 	}
 
 	/**
 	 * @return A string describing this tuple and its field/value pairs
 	 */
 	public String toString() {
-		Enumeration<String> keys = tuples.keys();
-		String builder = "";
-		while (keys.hasMoreElements()) {
-			String nextElement = keys.nextElement();
-			builder += nextElement + " : " + tuples.get(nextElement) + "\n";
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			builder.append(schema.getFieldName(i) + " : " + values[i] + "\n");
 		}
-		return builder;
+		return builder.toString();
 	}
-	
+
 	public int size(){
-		return tuples.size();
+		return values.length;
 	}
-	
+
 	public FieldOrderedTuple convertToFOT(){
 		FieldOrderedTuple ret = new FieldOrderedTuple();
-		for (int i = 0; i < ordering.size(); i++){
-			ret.addField(Integer.parseInt(tuples.get(ordering.get(i))));
-		}	
+		for (int i = 0; i < values.length; i++){
+			ret.addField(values[i]);
+		}
 		return ret;
 	}
-	
-	public void addOrdering(String fieldname){
-		ordering.add(fieldname);
-	}
 
 	/**
 	 * Returns whether this tuple is equal to another
@@ -101,6 +133,11 @@ public class Tuple {
 			return false;
 		}
 
-		return this.tuples.equals(((Tuple) o).getHashtable());
+		return Arrays.equals(this.values, ((Tuple) o).values);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(values);
 	}
 }
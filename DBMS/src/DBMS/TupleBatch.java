@@ -0,0 +1,183 @@
+package DBMS;
+
+/**
+ * This class holds a batch of tuples in column-major form: one int vector per
+ * field of the schema, plus a selection vector listing, in ascending order,
+ * the rows of the batch that are still live. Filters narrow the selection
+ * vector instead of moving values, and projections share the column vectors
+ * of their input.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class TupleBatch {
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private TupleSchema schema;
+	private int[][] columns;
+	private int size;
+	private int[] selection;
+	private int selectedCount;
+
+	/**
+	 * Initializes an empty TupleBatch.
+	 * @param schema The schema of the rows of the batch
+	 * @param capacity The maximum number of rows of the batch
+	 */
+	public TupleBatch(TupleSchema schema, int capacity) {
+		this.schema = schema;
+		columns = new int[schema.size()][capacity];
+		selection = new int[capacity];
+		size = 0;
+		selectedCount = 0;
+	}
+
+	/**
+	 * Initializes a TupleBatch over existing column vectors.
+	 * @param schema The schema of the rows of the batch
+	 * @param columns The column vectors, in schema order
+	 * @param size The number of rows held in the column vectors
+	 * @param selection The selection vector
+	 * @param selectedCount The number of live rows listed in the selection vector
+	 */
+	public TupleBatch(TupleSchema schema, int[][] columns, int size, int[] selection, int selectedCount) {
+		this.schema = schema;
+		this.columns = columns;
+		this.size = size;
+		this.selection = selection;
+		this.selectedCount = selectedCount;
+	}
+
+	/**
+	 * @return the schema describing the fields of the rows of this batch
+	 */
+	public TupleSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Returns the vector holding the values of a field for every row.
+	 * @param slot The slot of the field
+	 * @return the column vector, indexed by row
+	 */
+	public int[] getColumn(int slot) {
+		return columns[slot];
+	}
+
+	/**
+	 * @return the column vectors of this batch, in schema order
+	 */
+	public int[][] getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return the number of rows held in this batch, live or not
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the maximum number of rows of this batch
+	 */
+	public int capacity() {
+		return selection.length;
+	}
+
+	/**
+	 * @return true if no more rows can be added to this batch
+	 */
+	public boolean isFull() {
+		return size == selection.length;
+	}
+
+	/**
+	 * Sets the number of rows written directly into the column vectors and
+	 * marks all of them live.
+	 * @param size The number of rows
+	 */
+	public void setSize(int size) {
+		this.size = size;
+		for (int row = 0; row < size; row++) {
+			selection[row] = row;
+		}
+		selectedCount = size;
+	}
+
+	/**
+	 * @return the selection vector; its first getSelectedCount() entries are
+	 * the live rows, in ascending order
+	 */
+	public int[] getSelection() {
+		return selection;
+	}
+
+	/**
+	 * @return the number of live rows of this batch
+	 */
+	public int getSelectedCount() {
+		return selectedCount;
+	}
+
+	/**
+	 * Sets the number of live rows after the selection vector has been
+	 * narrowed in place.
+	 * @param selectedCount The number of live rows
+	 */
+	public void setSelectedCount(int selectedCount) {
+		this.selectedCount = selectedCount;
+	}
+
+	/**
+	 * Appends a live row to this batch.
+	 * @param values The values of the row, in schema order
+	 */
+	public void addRow(int[] values) {
+		for (int slot = 0; slot < columns.length; slot++) {
+			columns[slot][size] = values[slot];
+		}
+		selection[selectedCount++] = size++;
+	}
+
+	/**
+	 * Appends a live row formed by appending a row of another batch to the
+	 * given values (as done by the join operators).
+	 * @param left The values of the left tuple
+	 * @param right The batch holding the right row
+	 * @param row The right row
+	 */
+	public void addJoinedRow(int[] left, TupleBatch right, int row) {
+		for (int slot = 0; slot < left.length; slot++) {
+			columns[slot][size] = left[slot];
+		}
+		for (int slot = 0; slot < right.columns.length; slot++) {
+			columns[left.length + slot][size] = right.columns[slot][row];
+		}
+		selection[selectedCount++] = size++;
+	}
+
+	/**
+	 * Copies the values of a row out of this batch.
+	 * @param row The row
+	 * @return the values of the row, in schema order
+	 */
+	public int[] getValues(int row) {
+		int[] values = new int[columns.length];
+		for (int slot = 0; slot < columns.length; slot++) {
+			values[slot] = columns[slot][row];
+		}
+		return values;
+	}
+
+	/**
+	 * Materializes a row of this batch as a tuple.
+	 * @param tableName
+	 * @param row The row
+	 * @return the tuple holding the values of the row
+	 */
+	public Tuple getTuple(String tableName, int row) {
+		return new Tuple(tableName, getValues(row), schema);
+	}
+}
@@ -1,99 +1,84 @@
 package DBMS;
 
-import java.util.ArrayList;
-
-import net.sf.jsqlparser.expression.Expression;
-
 /**
  * This class is responsible for testing the equality, less than, and greater
- * than relations between 2 tuples.
+ * than relations between 2 tuples. The fields to compare are resolved to
+ * slots once, when the comparator is created.
  *
  * @author Daniel Park (dp435) & Michael Neborak (mln45)
  */
 
 public class TupleCompare {
 
+	private int[] leftSlots;
+	private int[] rightSlots;
+
+	/**
+	 * Constructor for TupleCompare.
+	 * 
+	 * @param leftSlots
+	 *            The slots of the compared fields in the left tuple, in order
+	 *            of priority
+	 * @param rightSlots
+	 *            The slots of the corresponding fields in the right tuple
+	 */
+	public TupleCompare(int[] leftSlots, int[] rightSlots) {
+		this.leftSlots = leftSlots;
+		this.rightSlots = rightSlots;
+	}
+
+	/**
+	 * Method to compare the left tuple to the right tuple, field by field.
+	 * 
+	 * @param leftTuple
+	 *            The left tuple
+	 * @param rightTuple
+	 *            The right tuple
+	 * @return a negative number, zero, or a positive number as the left tuple
+	 *         is less than, equal to, or greater than the right tuple.
+	 */
+	public int compare(Tuple leftTuple, Tuple rightTuple) {
+		for (int i = 0; i < leftSlots.length; i++) {
+			int leftValue = leftTuple.getValue(leftSlots[i]);
+			int rightValue = rightTuple.getValue(rightSlots[i]);
+			if (leftValue < rightValue)
+				return -1;
+			else if (leftValue > rightValue)
+				return 1;
+		}
+		return 0;
+	}
+
 	/**
 	 * Method to compare if lessThanTuple is less than greaterThanTuple.
 	 * 
 	 * @param lessThanTuple
-	 *            The tuple expected to be smaller
+	 *            The left tuple, expected to be smaller
 	 * @param greaterThanTuple
-	 *            The tuple expected to be larger
-	 * @param expressionList
-	 *            Expression involving fields of the two input tuples
+	 *            The right tuple, expected to be larger
 	 * @return true if lessThanTuple is less than greaterThanTuple; false,
 	 *         otherwise.
 	 */
-	public boolean lessThan(Tuple lessThanTuple, Tuple greaterThanTuple, ArrayList<Expression> expressionList) {
+	public boolean lessThan(Tuple lessThanTuple, Tuple greaterThanTuple) {
 		if (greaterThanTuple == null || lessThanTuple == null)
 			return false;
-		for (Expression exp : expressionList) {
-			String[] condition = exp.toString().split("=");
-			String leftCol = condition[0].trim();
-			String rightCol = condition[1].trim();
-
-			int lessThanValue = -1;
-			int greaterThanValue = -1;
-
-			try {
-				lessThanValue = Integer.parseInt(lessThanTuple.getField(leftCol));
-				greaterThanValue = Integer.parseInt(greaterThanTuple.getField(rightCol));
-			} catch (Exception e) {
-				lessThanValue = Integer.parseInt(lessThanTuple.getField(rightCol));
-				greaterThanValue = Integer.parseInt(greaterThanTuple.getField(leftCol));
-			}
-
-			if (lessThanValue != greaterThanValue) {
-
-				if (lessThanValue < greaterThanValue)
-					return true;
-				else if (lessThanValue > greaterThanValue)
-					return false;
-			}
-		}
-		return false;
+		return compare(lessThanTuple, greaterThanTuple) < 0;
 	}
 
 	/**
 	 * Method to compare if greaterThanTuple is greater than lessThanTuple.
 	 * 
-	 * @param lessThanTuple
-	 *            The tuple expected to be smaller
 	 * @param greaterThanTuple
-	 *            The tuple expected to be larger
-	 * @param expressionList
-	 *            Expression involving fields of the two input tuples
+	 *            The left tuple, expected to be larger
+	 * @param lessThanTuple
+	 *            The right tuple, expected to be smaller
 	 * @return true if greaterThanTuple is greater than lessThanTuple; false,
 	 *         otherwise.
 	 */
-	public boolean greaterThan(Tuple greaterThanTuple, Tuple lessThanTuple, ArrayList<Expression> expressionList) {
+	public boolean greaterThan(Tuple greaterThanTuple, Tuple lessThanTuple) {
 		if (greaterThanTuple == null || lessThanTuple == null)
 			return false;
-		for (Expression exp : expressionList) {
-			String[] condition = exp.toString().split("=");
-			String leftCol = condition[0].trim();
-			String rightCol = condition[1].trim();
-
-			int greaterThanValue = -1;
-			int lessThanValue = -1;
-
-			try {
-				greaterThanValue = Integer.parseInt(greaterThanTuple.getField(leftCol));
-				lessThanValue = Integer.parseInt(lessThanTuple.getField(rightCol));
-			} catch (Exception e) {
-				greaterThanValue = Integer.parseInt(greaterThanTuple.getField(rightCol));
-				lessThanValue = Integer.parseInt(lessThanTuple.getField(leftCol));
-			}
-
-			if (greaterThanValue != lessThanValue) {
-				if (greaterThanValue > lessThanValue)
-					return true;
-				else if (greaterThanValue < lessThanValue)
-					return false;
-			}
-		}
-		return false;
+		return compare(greaterThanTuple, lessThanTuple) > 0;
 	}
 
 	/**
@@ -103,35 +88,12 @@ public class TupleCompare {
 	 *            The left tuple
 	 * @param rightTuple
 	 *            The right tuple
-	 * @param expressionList
-	 *            Expression involving fields of the two input tuples
-	 * @return true if leftTuple is equal to rightTuple in fields that show up
-	 *         in the expressionList
+	 * @return true if leftTuple is equal to rightTuple in the compared fields
 	 */
-	public boolean equals(Tuple leftTuple, Tuple rightTuple, ArrayList<Expression> expressionList) {
+	public boolean equals(Tuple leftTuple, Tuple rightTuple) {
 		if (leftTuple == null || rightTuple == null)
 			return false;
-		for (Expression exp : expressionList) {
-			String[] condition = exp.toString().split("=");
-			String leftCol = condition[0].trim();
-			String rightCol = condition[1].trim();
-
-			int leftValue = -1;
-			int rightValue = -1;
-
-			try {
-				leftValue = Integer.parseInt(leftTuple.getField(leftCol));
-				rightValue = Integer.parseInt(rightTuple.getField(rightCol));
-			} catch (Exception e) {
-				leftValue = Integer.parseInt(leftTuple.getField(rightCol));
-				rightValue = Integer.parseInt(rightTuple.getField(leftCol));
-			}
-
-			if (leftValue != rightValue) {
-				return false;
-			}
-		}
-		return true;
+		return compare(leftTuple, rightTuple) == 0;
 	}
 
 }
@@ -26,6 +26,12 @@ public class TupleConverter {
 	public void HumanToBinary(String humanInput, String binaryOutput) {
 		TupleReaderHuman trh = new TupleReaderHuman(humanInput);
 		TupleWriterBinary twb = new TupleWriterBinary(binaryOutput);
+		if (DatabaseCatalog.getInstance().useZoneMaps()) {
+			twb.trackZoneMap();
+		}
+		if (DatabaseCatalog.getInstance().useCompressedTables()) {
+			twb.compressPages();
+		}
 		FieldOrderedTuple fot;
 		while ((fot = trh.readFOTuple()) != null) {
 			twb.writeTuple(fot);
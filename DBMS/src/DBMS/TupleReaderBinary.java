@@ -4,9 +4,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 
 import DBMS.RID;
@@ -22,24 +22,33 @@ public class TupleReaderBinary {
 	int tupleIndex = 0;
 	int tuplesPerPage = -1;
 	int pagePointer = -1;
-	Hashtable<String, String> ht;
 	ByteBuffer pageInMemory;
 
-	FieldOrderedTuple currentTuple;
-	int partitionStartPage = 0;
-	int partitionStartIndex = 0;
-	FieldOrderedTuple previousTuple;
-	int previousPartitionStartPage = 0;
-	int previousPartitionStartIndex = 0;
-
 	FileInputStream fin;
 	FileChannel fc;
 	boolean closed;
-	public static final int BUFFER_SIZE = 4096;
+	int pageSize;
+	MappedByteBuffer[] segments;
+	long fileSize;
+	String poolKey;
+	int pinnedPage = -1;
+	int readAheadPages = 0;
+	PageReadAhead readAhead;
+	ZoneMap zoneMap;
+	int[] decodedPage;
+	boolean compressed;
+	int[] filterColumns;
+	int[] filterLows;
+	int[] filterHighs;
+	int firstPage = 0;
+	int endPage = Integer.MAX_VALUE;
+	MorselCursor morsels;
+	public static final long SEGMENT_SIZE = 1L << 30;
 	public static final int METADATA_SIZE = 8;
 	public static final int BYTE_SIZE = 4;
 	public List<String> keyNames;
 	boolean initializedPages;
+	TupleSchema schema;
 
 	private String tableName;
 	private String prefixName;
@@ -55,19 +64,12 @@ public class TupleReaderBinary {
 		this.keyNames = currentTable.getFields();
 		this.tableName = tableName;
 		initializedPages = false;
-		currentTuple = null;
-		previousTuple = null;
 		if (aliasName != null && !aliasName.equals("")) {
 			prefixName = aliasName;
 		} else {
 			prefixName = tableName;
 		}
-		try {
-			fin = new FileInputStream(fileLocation);
-			fc = fin.getChannel();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		}
+		openFile();
 	}
 
 	/**
@@ -78,22 +80,231 @@ public class TupleReaderBinary {
 	public TupleReaderBinary(String fileLocation) {
 		this.fileLocation = fileLocation;
 		initializedPages = false;
-		currentTuple = null;
-		previousTuple = null;
 
+		openFile();
+	}
+
+	/**
+	 * Opens the referenced file. If memory mapped reads are enabled in the
+	 * catalog, the whole file is mapped read-only, in segments of
+	 * SEGMENT_SIZE bytes so that files over 2 GB can be mapped, and the
+	 * stream is closed again; pages are then served as slices of the
+	 * mapping, and rewinds only move the page pointer. Otherwise pages are
+	 * fetched through the BufferPool.
+	 */
+	private void openFile() {
+		pageSize = DatabaseCatalog.getInstance().getPageSize();
+		poolKey = BufferPool.fileKey(fileLocation);
 		try {
 			fin = new FileInputStream(fileLocation);
 			fc = fin.getChannel();
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
+			return;
+		}
+		if (!DatabaseCatalog.getInstance().useMemoryMappedReads()) {
+			return;
+		}
+		try {
+			fileSize = fc.size();
+			int numSegments = (int) ((fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+			segments = new MappedByteBuffer[numSegments];
+			for (int i = 0; i < numSegments; i++) {
+				long position = i * SEGMENT_SIZE;
+				segments[i] = fc.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(SEGMENT_SIZE, fileSize - position));
+			}
+			fin.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			segments = null;
+		}
+	}
+
+	/**
+	 * Makes the given page of the file the page in memory.
+	 * @param page The number of the page to read
+	 * @return True if the page exists; false at end of file
+	 * @throws IOException
+	 */
+	private boolean readPage(int page) throws IOException {
+		long position = (long) page * pageSize;
+		if (segments != null) {
+			if (position >= fileSize) {
+				return false;
+			}
+			MappedByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+			int offset = (int) (position % SEGMENT_SIZE);
+			pageInMemory = segment.slice(offset, Math.min(pageSize, segment.capacity() - offset));
+			return true;
+		}
+		unpinPage();
+		if (readAheadPages > 0) {
+			if (readAhead == null) {
+				readAhead = new PageReadAhead(fc, readAheadPages, pageSize);
+			}
+			pageInMemory = readAhead.nextPage(page);
+			return pageInMemory != null;
+		}
+		ByteBuffer pooledPage = BufferPool.getInstance().fetchPage(poolKey, fc, page, pageSize);
+		if (pooledPage == null) {
+			return false;
+		}
+		pageInMemory = pooledPage;
+		pinnedPage = page;
+		return true;
+	}
+
+	/**
+	 * Releases the page this reader has pinned in the BufferPool, if any.
+	 */
+	private void unpinPage() {
+		if (pinnedPage >= 0) {
+			BufferPool.getInstance().unpin(poolKey, pinnedPage);
+			pinnedPage = -1;
+		}
+	}
+
+	/**
+	 * Makes this reader read the pages of its file ahead of the consumer,
+	 * with the given number of pages in flight, instead of fetching them
+	 * through the BufferPool. Meant for sequential scans; memory mapped
+	 * readers ignore it.
+	 * @param numPages The number of pages to read ahead; 0 disables it
+	 */
+	public void setReadAhead(int numPages) {
+		stopReadAhead();
+		readAheadPages = Math.max(0, numPages);
+	}
+
+	/**
+	 * Makes this reader skip the pages that, according to the zone map of
+	 * its file, hold no tuple whose columns all fall in the given ranges.
+	 * The tuples of the pages read are still returned unfiltered.
+	 * @param zoneMap The zone map of the file
+	 * @param columns The positions of the bounded columns
+	 * @param lows The inclusive lower bound of each column
+	 * @param highs The inclusive upper bound of each column
+	 */
+	public void setPageFilter(ZoneMap zoneMap, int[] columns, int[] lows, int[] highs) {
+		this.zoneMap = zoneMap;
+		this.filterColumns = columns;
+		this.filterLows = lows;
+		this.filterHighs = highs;
+	}
+
+	/**
+	 * Restricts this reader to a contiguous range of the pages of its file,
+	 * so that several readers can split a sequential scan between them.
+	 * @param firstPage The first page to read
+	 * @param endPage The page after the last page to read
+	 */
+	public void setPageRange(int firstPage, int endPage) {
+		this.firstPage = firstPage;
+		this.endPage = endPage;
+		pagePointer = firstPage - 1;
+	}
+
+	/**
+	 * Makes this reader read the pages of its file morsel by morsel, as it
+	 * claims them from a cursor shared with other readers of the file,
+	 * instead of reading every page.
+	 * @param morsels The cursor handing out the morsels of the file
+	 */
+	public void setMorsels(MorselCursor morsels) {
+		this.morsels = morsels;
+		setPageRange(0, 0);
+	}
+
+	/**
+	 * Moves the page pointer to the first page of the next unclaimed
+	 * morsel, if any.
+	 * @return True if a morsel was claimed; false if none is left
+	 */
+	private boolean claimMorsel() {
+		if (morsels == null) {
+			return false;
+		}
+		int[] morsel = morsels.claim();
+		if (morsel == null) {
+			return false;
+		}
+		firstPage = morsel[0];
+		endPage = morsel[1];
+		pagePointer = firstPage;
+		return true;
+	}
+
+	/**
+	 * Moves the page pointer past the pages that, according to the zone
+	 * map, hold no tuple in the filter's ranges.
+	 */
+	private void skipFilteredPages() {
+		if (zoneMap != null) {
+			while (!zoneMap.mayMatch(pagePointer, filterColumns, filterLows, filterHighs)) {
+				pagePointer++;
+				tupleIndex = 0;
+			}
+		}
+	}
+
+	/**
+	 * Waits for the reads ahead in flight and drops the ring of pages.
+	 */
+	private void stopReadAhead() {
+		if (readAhead != null) {
+			readAhead.close();
+			readAhead = null;
+		}
+	}
+
+	/**
+	 * Closes the stream of the referenced file, unless it has been mapped.
+	 */
+	private void closeFile() {
+		if (segments != null) {
+			return;
+		}
+		unpinPage();
+		stopReadAhead();
+		try {
+			fin.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Moves the page pointer back to the first page this reader reads. A
+	 * reader sharing a morsel cursor makes all morsels available again and
+	 * claims its first one on the next read.
+	 */
+	private void restartPages() {
+		if (morsels != null) {
+			morsels.reset();
+			firstPage = 0;
+			endPage = 0;
 		}
+		pagePointer = firstPage - 1;
 	}
 
 	/**
 	 * Set this reader back to its beginning marker.
 	 */
 	public void reset() {
+		if (segments != null) {
+			pageInMemory = null;
+			tupleLength = -1;
+			tupleIndex = 0;
+			tuplesPerPage = -1;
+			restartPages();
+			initializedPages = false;
+			closed = false;
+			return;
+		}
 		try {
+			unpinPage();
+			stopReadAhead();
 			if (!closed) {
 				try {
 					fin.close();
@@ -108,7 +319,7 @@ public class TupleReaderBinary {
 			tupleLength = -1;
 			tupleIndex = 0;
 			tuplesPerPage = -1;
-			pagePointer = -1;
+			restartPages();
 			closed = false;
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
@@ -116,101 +327,172 @@ public class TupleReaderBinary {
 
 	}
 
+	/**
+	 * Closes the referenced file. Further reads return null until the reader
+	 * is reset.
+	 */
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closeFile();
+		closed = true;
+	}
+
+	/**
+	 * Sets the schema of the tuples returned by readTuple(). The schema's
+	 * field names are used verbatim, so no prefixing takes place.
+	 * @param schema The schema describing each tuple in the file
+	 */
+	public void setSchema(TupleSchema schema) {
+		this.schema = schema;
+		this.keyNames = schema.getFieldNames();
+	}
+
+	/**
+	 * Returns the schema of the tuples returned by readTuple(), building it
+	 * from the key names on first use.
+	 * @param ES True if the reader is External Sort; false otherwise
+	 * @return The schema of this file's tuples.
+	 */
+	public TupleSchema getSchema(boolean ES) {
+		if (schema == null) {
+			List<String> fieldNames = new ArrayList<>();
+			for (String keyName : keyNames) {
+				fieldNames.add(ES ? keyName : prefixName + "." + keyName);
+			}
+			schema = new TupleSchema(fieldNames);
+		}
+		return schema;
+	}
+
+	/**
+	 * Positions the reader at the next tuple, reading in the next page
+	 * from disk if the current one is exhausted.
+	 * @return True if there is a tuple to read; false at end of file
+	 */
+	private boolean nextTupleAvailable() {
+		if (closed) {
+			return false;
+		}
+		if (tupleIndex < tuplesPerPage && initializedPages) {
+			return true;
+		}
+		try {
+			pagePointer++;
+			skipFilteredPages();
+			while (pagePointer >= endPage && claimMorsel()) {
+				skipFilteredPages();
+			}
+			if (pagePointer < endPage && readPage(pagePointer)) {
+				pageInMemory.rewind();
+				tupleLength = pageInMemory.getInt();
+				tupleIndex = initializedPages ? 0 : tupleIndex;
+				initializedPages = true;
+				tuplesPerPage = pageInMemory.getInt();
+				decodedPage = null;
+				if (tupleLength < 0) {
+					tupleLength = -tupleLength;
+					compressed = true;
+					decodedPage = CompressedPage.decode(pageInMemory);
+				}
+				if (keyNames != null && tupleLength != keyNames.size()) {
+					System.out.println(
+							"ERROR TUPLE LENGTH: " + tupleLength + "   KEY NAMES PROVIDED: " + keyNames.size());
+				}
+				if (tupleIndex < tuplesPerPage) {
+					return true;
+				}
+			}
+			closeFile();
+			closed = true;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	/**
+	 * Decodes the tuple at the current position into an int array and
+	 * advances the position. Compressed pages are decoded whole when they
+	 * are read.
+	 * @return The values of the tuple.
+	 */
+	private int[] decodeTuple() {
+		int[] values = new int[tupleLength];
+		if (decodedPage != null) {
+			System.arraycopy(decodedPage, tupleIndex * tupleLength, values, 0, tupleLength);
+			tupleIndex++;
+			return values;
+		}
+		int tupleStart = METADATA_SIZE + tupleIndex * tupleLength * BYTE_SIZE;
+		for (int i = 0; i < tupleLength; i++) {
+			values[i] = pageInMemory.getInt(tupleStart + BYTE_SIZE * i);
+		}
+		tupleIndex++;
+		return values;
+	}
+
 	/**
 	 * Read the next tuple from the referenced file.
 	 * @param ES True if the reader is External Sort; false otherwise
 	 * @return The next tuple from the file.
 	 */
 	public Tuple readTuple(boolean ES) {
-		FieldOrderedTuple temp = new FieldOrderedTuple();
-		if (closed) {
+		if (!nextTupleAvailable()) {
 			return null;
 		}
-		try {
-			if (tupleIndex < tuplesPerPage && initializedPages) {
-				ht = new Hashtable<>();
-				List<String> ordering = new ArrayList<>();
-				for (int i = 0; i < tupleLength; i++) {
-					int calculatedIndex = 8 + (tupleIndex) * tupleLength * 4 + 4 * i;
-					if (ES) {
-						ht.put(keyNames.get(i), Integer.toString(pageInMemory.getInt(calculatedIndex)));
-						ordering.add(keyNames.get(i));
-					} else {
-						ht.put(prefixName + "." + keyNames.get(i),
-								Integer.toString(pageInMemory.getInt(calculatedIndex)));
-						ordering.add(prefixName + "." + keyNames.get(i));
+		return new Tuple(tableName, decodeTuple(), getSchema(ES));
+	}
+
+	/**
+	 * Read the values of the next tuple from the referenced file, without
+	 * building a Tuple around them.
+	 * @return The values of the next tuple, or null at end of file.
+	 */
+	public int[] readValues() {
+		if (!nextTupleAvailable()) {
+			return null;
+		}
+		return decodeTuple();
+	}
+
+	/**
+	 * Read up to the given number of tuples from the referenced file into
+	 * the column vectors of a batch, a page at a time.
+	 * @param ES True if the reader is External Sort; false otherwise
+	 * @param capacity The maximum number of tuples to read
+	 * @return The batch of tuples read, or null at end of file.
+	 */
+	public TupleBatch readBatch(boolean ES, int capacity) {
+		if (!nextTupleAvailable()) {
+			return null;
+		}
+		TupleBatch batch = new TupleBatch(getSchema(ES), capacity);
+		int[][] columns = batch.getColumns();
+		int rows = 0;
+		while (rows < capacity && nextTupleAvailable()) {
+			int count = Math.min(tuplesPerPage - tupleIndex, capacity - rows);
+			if (decodedPage != null) {
+				for (int i = 0; i < count; i++) {
+					int tupleStart = (tupleIndex + i) * tupleLength;
+					for (int column = 0; column < tupleLength; column++) {
+						columns[column][rows + i] = decodedPage[tupleStart + column];
 					}
-					temp.addField(pageInMemory.getInt(calculatedIndex));
-				}
-				if (!temp.equals(currentTuple)) {
-					previousPartitionStartPage = partitionStartPage;
-					previousPartitionStartIndex = partitionStartIndex;
-
-					partitionStartPage = pagePointer;
-					partitionStartIndex = tupleIndex;
-					previousTuple = currentTuple;
-					currentTuple = temp;
 				}
-				tupleIndex++;
-				Tuple ret = new Tuple(tableName, ht, ordering);
-				return ret;
 			} else {
-				pageInMemory = ByteBuffer.allocate(BUFFER_SIZE);
-				pagePointer++;
-				if (fc.read(pageInMemory, pagePointer * BUFFER_SIZE) != -1) {
-					pageInMemory.rewind();
-					tupleLength = pageInMemory.getInt();
-					tupleIndex = initializedPages ? 0 : tupleIndex;
-					initializedPages = true;
-					tuplesPerPage = pageInMemory.getInt();
-					if (tupleLength != keyNames.size()) {
-						System.out.println(
-								"ERROR TUPLE LENGTH: " + tupleLength + "   KEY NAMES PROVIDED: " + keyNames.size());
+				for (int i = 0; i < count; i++) {
+					int tupleStart = METADATA_SIZE + (tupleIndex + i) * tupleLength * BYTE_SIZE;
+					for (int column = 0; column < tupleLength; column++) {
+						columns[column][rows + i] = pageInMemory.getInt(tupleStart + BYTE_SIZE * column);
 					}
-					if (tupleIndex < tuplesPerPage) {
-						ht = new Hashtable<>();
-						List<String> ordering = new ArrayList<>();
-						for (int i = 0; i < tupleLength; i++) {
-							int calculatedIndex = 8 + (tupleIndex) * tupleLength * 4 + 4 * i;
-							if (ES) {
-								ht.put(keyNames.get(i), Integer.toString(pageInMemory.getInt(calculatedIndex)));
-								temp.addField(pageInMemory.getInt(calculatedIndex));
-								ordering.add(keyNames.get(i));
-							} else {
-								ht.put(prefixName + "." + keyNames.get(i),
-										Integer.toString(pageInMemory.getInt(calculatedIndex)));
-								temp.addField(pageInMemory.getInt(calculatedIndex));
-								ordering.add(prefixName + "." + keyNames.get(i));
-							}
-
-						}
-						if (!temp.equals(currentTuple)) {
-							previousPartitionStartPage = partitionStartPage;
-							previousPartitionStartIndex = partitionStartIndex;
-
-							partitionStartPage = pagePointer;
-							partitionStartIndex = tupleIndex;
-							previousTuple = currentTuple;
-							currentTuple = temp;
-						}
-						tupleIndex++;
-						Tuple ret = new Tuple(tableName, ht, ordering);
-						return ret;
-					} else {
-						fin.close();
-						closed = true;
-						return null;
-					}
-				} else {
-					fin.close();
-					closed = true;
-					return null;
 				}
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
+			tupleIndex += count;
+			rows += count;
 		}
-		return null;
+		batch.setSize(rows);
+		return batch;
 	}
 
 	/**
@@ -222,75 +504,14 @@ public class TupleReaderBinary {
 	 * field ordered tuple.
 	 */
 	public FieldOrderedTuple readFOTuple() {
-		FieldOrderedTuple temp = new FieldOrderedTuple();
-		if (closed) {
+		if (!nextTupleAvailable()) {
 			return null;
 		}
-		try {
-			FieldOrderedTuple fot = new FieldOrderedTuple();
-			if (tupleIndex < tuplesPerPage && initializedPages) {
-				ht = new Hashtable<>();
-				for (int i = 0; i < tupleLength; i++) {
-					int calculatedIndex = 8 + (tupleIndex) * tupleLength * 4 + 4 * i;
-					fot.addField(pageInMemory.getInt(calculatedIndex));
-					// ht.put(prefixName + "." + keyNames.get(i),
-					// Integer.toString(pageInMemory.getInt(calculatedIndex)));
-					temp.addField(pageInMemory.getInt(calculatedIndex));
-				}
-				if (!temp.equals(currentTuple)) {
-					previousPartitionStartPage = partitionStartPage;
-					previousPartitionStartIndex = partitionStartIndex;
-
-					partitionStartPage = pagePointer;
-					partitionStartIndex = tupleIndex;
-					previousTuple = currentTuple;
-					currentTuple = temp;
-				}
-				tupleIndex++;
-				return fot;
-			} else {
-				pageInMemory = ByteBuffer.allocate(BUFFER_SIZE);
-				pagePointer++;
-				if (fc.read(pageInMemory, pagePointer * BUFFER_SIZE) != -1) {
-					pageInMemory.rewind();
-					tupleLength = pageInMemory.getInt();
-					tupleIndex = initializedPages ? 0 : tupleIndex;
-					initializedPages = true;
-					tuplesPerPage = pageInMemory.getInt();
-
-					if (tupleIndex < tuplesPerPage) {
-						ht = new Hashtable<>();
-						for (int i = 0; i < tupleLength; i++) {
-							int calculatedIndex = 8 + (tupleIndex) * tupleLength * 4 + 4 * i;
-							fot.addField(pageInMemory.getInt(calculatedIndex));
-							temp.addField(pageInMemory.getInt(calculatedIndex));
-						}
-						if (!temp.equals(currentTuple)) {
-							previousPartitionStartPage = partitionStartPage;
-							previousPartitionStartIndex = partitionStartIndex;
-
-							partitionStartPage = pagePointer;
-							partitionStartIndex = tupleIndex;
-							previousTuple = currentTuple;
-							currentTuple = temp;
-						}
-						tupleIndex++;
-						return fot;
-					} else {
-						fin.close();
-						closed = true;
-						return null;
-					}
-				} else {
-					fin.close();
-					closed = true;
-					return null;
-				}
-			}
-		} catch (IOException e) {
-			e.printStackTrace();
+		FieldOrderedTuple fot = new FieldOrderedTuple();
+		for (int value : decodeTuple()) {
+			fot.addField(value);
 		}
-		return null;
+		return fot;
 	}
 
 	/**
@@ -318,23 +539,33 @@ public class TupleReaderBinary {
 			System.out.println(
 					"ERROR TUPLE LENGTH: " + tupleLength + "   KEY NAMES PROVIDED: " + (keyNames == null ? "null" : keyNames.size()));
 		}
-		try {
-			if (!closed) {
-				try {
-					fin.close();
-				} catch (IOException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
+		if (segments != null) {
+			closed = false;
+		} else {
+			try {
+				unpinPage();
+				stopReadAhead();
+				if (!closed) {
+					try {
+						fin.close();
+					} catch (IOException e) {
+						// TODO Auto-generated catch block
+						e.printStackTrace();
+					}
 				}
+				fin = new FileInputStream(fileLocation);
+				fc = fin.getChannel();
+				pageInMemory = null;
+				closed = false;
+			} catch (FileNotFoundException e) {
+				e.printStackTrace();
 			}
-			fin = new FileInputStream(fileLocation);
-			fc = fin.getChannel();
-			pageInMemory = null;
-			closed = false;
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
 		}
-		int tuplesPerPage = (BUFFER_SIZE - METADATA_SIZE) / (tupleLength * BYTE_SIZE);
+		if (compressed) {
+			seekCompressed(index);
+			return;
+		}
+		int tuplesPerPage = (pageSize - METADATA_SIZE) / (tupleLength * BYTE_SIZE);
 		int page_idx = index / tuplesPerPage;
 		int tuple_idx = index % tuplesPerPage;
 		if (page_idx < 0 || tuple_idx < 0) {
@@ -342,20 +573,63 @@ public class TupleReaderBinary {
 		}
 		SetPageTuplePointer(page_idx, tuple_idx);
 	}
-	
+
 	/**
-	 * A function to easily convert an absolute tuple index
-	 * into an RID for use with BPlusTree serialization.
-	 * @param index Absolute tuple index (0-indexed)
+	 * Sets the reader to begin reading at the tuple with the given absolute
+	 * position in a file of compressed pages. Since the number of tuples on
+	 * a compressed page varies, the page holding the tuple is found by a
+	 * binary search over the position of each page's first tuple.
+	 * @param index 0-indexed tuple's absolute position in binary file
+	 */
+	private void seekCompressed(int index) {
+		try {
+			long size = segments != null ? fileSize : fc.size();
+			int low = 0;
+			int high = (int) (size / pageSize) - 1;
+			int page = 0;
+			int firstTuple = 0;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int midFirstTuple = firstTupleOfPage(mid);
+				if (midFirstTuple <= index) {
+					page = mid;
+					firstTuple = midFirstTuple;
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			SetPageTuplePointer(page, index - firstTuple);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the absolute position of the first tuple of a compressed page,
+	 * without making the page the page in memory.
+	 * @param page The page number
+	 * @return the position of the page's first tuple
+	 * @throws IOException
+	 */
+	private int firstTupleOfPage(int page) throws IOException {
+		long position = (long) page * pageSize;
+		if (segments != null) {
+			MappedByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+			return segment.getInt((int) (position % SEGMENT_SIZE) + CompressedPage.FIRST_TUPLE_INDEX);
+		}
+		ByteBuffer header = BufferPool.getInstance().fetchPage(poolKey, fc, page, pageSize);
+		BufferPool.getInstance().unpin(poolKey, page);
+		return CompressedPage.firstTuple(header);
+	}
+
+	/**
+	 * Returns the RID of the tuple last returned by this reader, for use
+	 * with BPlusTree serialization.
 	 * @return RID containing pageID and tupleID
 	 */
-	public RID absoluteIDToRID(int index){
-		assert (tupleLength > 0);
-		assert (index >= 0);
-		int tuplesPerPage = (BUFFER_SIZE - METADATA_SIZE) / (tupleLength * BYTE_SIZE);
-		int page_idx = index / tuplesPerPage;
-		int tuple_idx = index % tuplesPerPage;
-		assert(page_idx >= 0 && tuple_idx >= 0);
-		return new RID(page_idx,tuple_idx);
+	public RID lastTupleRID() {
+		assert (tupleIndex > 0);
+		return new RID(pagePointer, tupleIndex - 1);
 	}
 }
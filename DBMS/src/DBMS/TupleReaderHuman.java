@@ -7,7 +7,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 
 /**
@@ -22,6 +21,7 @@ public class TupleReaderHuman {
 	private BufferedReader tableReader;
 	private TableInfo currentTable;
 	private FileInputStream fis;
+	private TupleSchema schema;
 
 	/**
 	 * Constructor for TupleReaderHuman
@@ -65,26 +65,35 @@ public class TupleReaderHuman {
 		String line;
 		try {
 			if ((line = tableReader.readLine()) != null) {
-				Hashtable<String, String> tupleData = new Hashtable<>();
-				List<String> ordering = new ArrayList<>();
 				String[] fields = line.split(",");
-				FieldOrderedTuple fot = new FieldOrderedTuple();
+				int[] values = new int[fields.length];
 				for (int i = 0; i < fields.length; i++) {
-					if (aliasName != null && !aliasName.equals("")) {
-						tupleData.put(aliasName + "." + currentTable.getFields().get(i), fields[i]);
-						ordering.add(aliasName + "." + currentTable.getFields().get(i));
-					} else {
-						tupleData.put(tableName + "." + currentTable.getFields().get(i), fields[i]);
-						ordering.add(tableName + "." + currentTable.getFields().get(i));
-					}
+					values[i] = Integer.parseInt(fields[i]);
 				}
-				return new Tuple(tableName, tupleData, ordering);
+				return new Tuple(tableName, values, getSchema());
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
+
+	/**
+	 * Returns the schema of the tuples returned by readTuple(), building it
+	 * from the table's fields on first use.
+	 * @return The schema of this file's tuples.
+	 */
+	private TupleSchema getSchema() {
+		if (schema == null) {
+			String prefix = (aliasName != null && !aliasName.equals("")) ? aliasName : tableName;
+			List<String> fieldNames = new ArrayList<>();
+			for (String field : currentTable.getFields()) {
+				fieldNames.add(prefix + "." + field);
+			}
+			schema = new TupleSchema(fieldNames);
+		}
+		return schema;
+	}
 	
 	/**
 	 * This function reads a tuple just like
@@ -98,7 +107,6 @@ public class TupleReaderHuman {
 		String line;
 		try {
 			if ((line = tableReader.readLine()) != null) {
-				Hashtable<String, String> tupleData = new Hashtable<>();
 				String[] fields = line.split(",");
 				FieldOrderedTuple fot = new FieldOrderedTuple();
 				for (int i = 0; i < fields.length; i++) {
@@ -0,0 +1,104 @@
+package DBMS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class describes the layout of a tuple: the ordered list of qualified
+ * field names (e.g. "Sailors.A") and the slot each field occupies in the
+ * tuple's int array. A single schema is shared by every tuple an operator
+ * produces, so field name lookups never have to be stored per tuple.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class TupleSchema {
+	private List<String> fieldNames;
+	private HashMap<String, Integer> slotLookup;
+
+	/**
+	 * Initializes a TupleSchema with the given field names, in slot order.
+	 *
+	 * @param fieldNames
+	 *            the qualified field names of the tuple, from left to right.
+	 */
+	public TupleSchema(List<String> fieldNames) {
+		this.fieldNames = Collections.unmodifiableList(new ArrayList<String>(fieldNames));
+		slotLookup = new HashMap<String, Integer>();
+		for (int i = 0; i < this.fieldNames.size(); i++) {
+			slotLookup.put(this.fieldNames.get(i), i);
+		}
+	}
+
+	/**
+	 * Returns the slot of the given field.
+	 *
+	 * @param fieldName
+	 *            the qualified field name.
+	 * @return the slot of the field, or -1 if this schema does not contain it.
+	 */
+	public int getSlot(String fieldName) {
+		Integer slot = slotLookup.get(fieldName);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Returns whether this schema contains the given field.
+	 *
+	 * @param fieldName
+	 *            the qualified field name.
+	 * @return true if the field exists in this schema; false otherwise.
+	 */
+	public boolean contains(String fieldName) {
+		return slotLookup.containsKey(fieldName);
+	}
+
+	/**
+	 * Returns the name of the field stored in the given slot.
+	 *
+	 * @param slot
+	 *            the slot index.
+	 * @return the qualified field name.
+	 */
+	public String getFieldName(int slot) {
+		return fieldNames.get(slot);
+	}
+
+	/**
+	 * @return the qualified field names of this schema, in slot order.
+	 */
+	public List<String> getFieldNames() {
+		return fieldNames;
+	}
+
+	/**
+	 * @return the number of fields in this schema.
+	 */
+	public int size() {
+		return fieldNames.size();
+	}
+
+	/**
+	 * Creates the schema of a tuple formed by appending a tuple of the other
+	 * schema to a tuple of this schema (as done by the join operators).
+	 *
+	 * @param other
+	 *            the schema of the right-hand tuple.
+	 * @return the concatenated schema.
+	 */
+	public TupleSchema concat(TupleSchema other) {
+		List<String> joinedNames = new ArrayList<String>(fieldNames);
+		joinedNames.addAll(other.fieldNames);
+		return new TupleSchema(joinedNames);
+	}
+
+	/**
+	 * @return A string listing the field names of this schema.
+	 */
+	@Override
+	public String toString() {
+		return fieldNames.toString();
+	}
+}
@@ -27,6 +27,14 @@ public class TupleWriterBinary {
 	public static final int ELEMENT_SIZE = 4;
 	int tuplesOnPage = 0;
 	boolean forcedFlush = false;
+	int pageSize;
+	PageWriteBehind writeBehind;
+	ZoneMap zoneMap;
+	CompressedPage compressedPage;
+	boolean compress = false;
+	int tuplesWritten = 0;
+	int[] pageMinimums;
+	int[] pageMaximums;
 
 	/**
 	 * Constructor for the TupleWriterBinary
@@ -34,33 +42,134 @@ public class TupleWriterBinary {
 	 */
 	public TupleWriterBinary(String fileLocation) {
 		this.fileLocation = fileLocation;
+		this.pageSize = DatabaseCatalog.getInstance().getPageSize();
+		BufferPool.getInstance().invalidate(BufferPool.fileKey(fileLocation));
 		try {
 			fin = new FileOutputStream(fileLocation);
 			fc = fin.getChannel();
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		}
+		int writeBehindPages = DatabaseCatalog.getInstance().getWriteBehindPages();
+		if (fc != null && writeBehindPages > 0) {
+			writeBehind = new PageWriteBehind(fc, writeBehindPages, pageSize);
+		}
+	}
+
+	/**
+	 * Makes this writer record the zone map of the file it writes: the range
+	 * of every column on every page. The zone map is written next to the
+	 * file each time the writer is flushed.
+	 */
+	public void trackZoneMap() {
+		zoneMap = new ZoneMap(0);
+	}
+
+	/**
+	 * Makes this writer write compressed pages, as built by CompressedPage,
+	 * instead of storing each value in four bytes. TupleReaderBinary decodes
+	 * them transparently.
+	 */
+	public void compressPages() {
+		compress = true;
 	}
 
 	/**
-	 * Write all tuples in in-memory buffer to disk.
+	 * Starts the ranges of a new page, if a zone map is tracked.
+	 * @param numColumns The number of columns of the tuples on the page
+	 */
+	private void startPageRanges(int numColumns) {
+		if (zoneMap == null) {
+			return;
+		}
+		if (pageMinimums == null) {
+			zoneMap = new ZoneMap(numColumns);
+			pageMinimums = new int[numColumns];
+			pageMaximums = new int[numColumns];
+		}
+		Arrays.fill(pageMinimums, Integer.MAX_VALUE);
+		Arrays.fill(pageMaximums, Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Widens the ranges of the current page to cover a tuple, if a zone map
+	 * is tracked.
+	 * @param values The values of the tuple
+	 */
+	private void updatePageRanges(int[] values) {
+		if (pageMinimums == null) {
+			return;
+		}
+		for (int i = 0; i < pageMinimums.length && i < values.length; i++) {
+			pageMinimums[i] = Math.min(pageMinimums[i], values[i]);
+			pageMaximums[i] = Math.max(pageMaximums[i], values[i]);
+		}
+	}
+
+	/**
+	 * Returns an empty page, from the write-behind ring if there is one.
+	 * @return the new page
+	 * @throws IOException
+	 */
+	private ByteBuffer newPage() throws IOException {
+		if (writeBehind != null) {
+			return writeBehind.acquire();
+		}
+		return ByteBuffer.allocate(pageSize);
+	}
+
+	/**
+	 * Writes a page to the file, or queues it to be written behind.
+	 * @param page The page to write
+	 * @throws IOException
+	 */
+	private void writePage(ByteBuffer page) throws IOException {
+		if (pageMinimums != null) {
+			zoneMap.addPage(pageMinimums, pageMaximums);
+		}
+		if (writeBehind != null) {
+			writeBehind.submit(page);
+		} else {
+			fc.write(page);
+		}
+	}
+
+	/**
+	 * Write all tuples in in-memory buffer to disk. In write-behind mode, this
+	 * waits until every page written so far has reached the file. The zone
+	 * map, if tracked, is written once the pages are.
 	 */
 	public void flush() {
 		try {
+			if (compressedPage != null && compressedPage.size() > 0) {
+				writeCompressedPage();
+			}
 			if (pageInMemory != null){
-			fc.write(pageInMemory);
+			if (!forcedFlush) {
+				writePage(pageInMemory);
+			}
 			forcedFlush = true;
 			}
+			if (writeBehind != null) {
+				writeBehind.barrier();
+			}
+			if (zoneMap != null) {
+				zoneMap.write(fileLocation);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
 	/**
-	 * Close the associated file on disk.
+	 * Close the associated file on disk, after any pages still being written
+	 * behind.
 	 */
 	public void close() {
 		try {
+			if (writeBehind != null) {
+				writeBehind.barrier();
+			}
 			fc.close();
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -75,47 +184,115 @@ public class TupleWriterBinary {
 		if (tuple == null) {
 			return;
 		}
+		int[] values = new int[tuple.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = tuple.getField(i);
+		}
+		writeTuple(values);
+	}
+
+	/**
+	 * Write the specified tuple values to the binary file.
+	 * @param values The values of the tuple to be written, in field order.
+	 */
+	public void writeTuple(int[] values) {
+		if (values == null) {
+			return;
+		}
+		if (compress) {
+			writeCompressedTuple(values);
+			return;
+		}
 		try {
 			if (pageIndex == 0) {
-				pageInMemory = ByteBuffer.allocate(TupleReaderBinary.BUFFER_SIZE);
-				pageInMemory.putInt(TUPLE_SIZE_INDEX, tuple.size());
+				pageInMemory = newPage();
+				pageInMemory.putInt(TUPLE_SIZE_INDEX, values.length);
 				pageInMemory.putInt(TUPLE_COUNT_INDEX, 1);
 				pageIndex = 8;
 				tuplesOnPage = 1;
-				for (int i = 0; i < tuple.size(); i++) {
-					pageInMemory.putInt(pageIndex, tuple.getField(i));
+				startPageRanges(values.length);
+				for (int i = 0; i < values.length; i++) {
+					pageInMemory.putInt(pageIndex, values[i]);
 					pageIndex += ELEMENT_SIZE;
 				}
-			} else if (pageIndex + tuple.size() * ELEMENT_SIZE > TupleReaderBinary.BUFFER_SIZE || forcedFlush) {
+			} else if (pageIndex + values.length * ELEMENT_SIZE > pageSize || forcedFlush) {
 				// System.out.println("FLUSHING");
+				if (!forcedFlush) {
+					writePage(pageInMemory);
+				}
 				forcedFlush = false;
-				fc.write(pageInMemory);
-				pageInMemory = ByteBuffer.allocate(TupleReaderBinary.BUFFER_SIZE);
-				pageInMemory.putInt(TUPLE_SIZE_INDEX, tuple.size());
+				pageInMemory = newPage();
+				pageInMemory.putInt(TUPLE_SIZE_INDEX, values.length);
 				pageInMemory.putInt(TUPLE_COUNT_INDEX, 1);
 				pageIndex = 8;
 				tuplesOnPage = 1;
-				for (int i = 0; i < tuple.size(); i++) {
-					pageInMemory.putInt(pageIndex, tuple.getField(i));
+				startPageRanges(values.length);
+				for (int i = 0; i < values.length; i++) {
+					pageInMemory.putInt(pageIndex, values[i]);
 					pageIndex += ELEMENT_SIZE;
 				}
 			} else {
-				for (int i = 0; i < tuple.size(); i++) {
-					pageInMemory.putInt(pageIndex, tuple.getField(i));
+				for (int i = 0; i < values.length; i++) {
+					pageInMemory.putInt(pageIndex, values[i]);
 					pageIndex += ELEMENT_SIZE;
 				}
 				tuplesOnPage++;
 				pageInMemory.putInt(TUPLE_COUNT_INDEX, tuplesOnPage);
 			}
+			updatePageRanges(values);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Adds the specified tuple values to the compressed page being built,
+	 * writing the page out first if the tuple does not fit on it.
+	 * @param values The values of the tuple to be written, in field order.
+	 */
+	private void writeCompressedTuple(int[] values) {
+		try {
+			if (compressedPage != null && compressedPage.size() > 0
+					&& (compressedPage.getTupleLength() != values.length || !compressedPage.fits(values))) {
+				writeCompressedPage();
+			}
+			if (compressedPage == null || compressedPage.getTupleLength() != values.length) {
+				compressedPage = new CompressedPage(values.length, pageSize);
+			}
+			if (compressedPage.size() == 0) {
+				startPageRanges(values.length);
+			}
+			compressedPage.add(values);
+			updatePageRanges(values);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Encodes the compressed page being built and writes it out.
+	 * @throws IOException
+	 */
+	private void writeCompressedPage() throws IOException {
+		ByteBuffer page = newPage();
+		compressedPage.encode(page, tuplesWritten);
+		tuplesWritten += compressedPage.size();
+		compressedPage.clear();
+		writePage(page);
+	}
+
 	public void writeBlankPage() {
-		pageInMemory = ByteBuffer.allocate(TupleReaderBinary.BUFFER_SIZE);
+		try {
+			pageInMemory = newPage();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
 		pageInMemory.putInt(TUPLE_SIZE_INDEX, 0);
 		pageInMemory.putInt(TUPLE_COUNT_INDEX, 0);
+		if (pageMinimums != null) {
+			startPageRanges(pageMinimums.length);
+		}
 	}
 
 }
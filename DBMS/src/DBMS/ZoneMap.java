@@ -0,0 +1,180 @@
+package DBMS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the zone map of a binary tuple file: the minimum and
+ * maximum value of every column on every page of the file. It is kept in a
+ * side file next to the data file, and lets a scan skip the pages whose
+ * ranges cannot satisfy its selection.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ *
+ */
+public class ZoneMap {
+
+	public static final String FILE_SUFFIX = ".zonemap";
+
+	private int numColumns;
+	private List<int[]> minimums;
+	private List<int[]> maximums;
+
+	/**
+	 * Initializes an empty ZoneMap.
+	 * @param numColumns The number of columns of the tuples in the file
+	 */
+	public ZoneMap(int numColumns) {
+		this.numColumns = numColumns;
+		minimums = new ArrayList<int[]>();
+		maximums = new ArrayList<int[]>();
+	}
+
+	/**
+	 * Appends the ranges of the next page of the file.
+	 * @param pageMinimums The minimum value of each column on the page
+	 * @param pageMaximums The maximum value of each column on the page
+	 */
+	public void addPage(int[] pageMinimums, int[] pageMaximums) {
+		minimums.add(pageMinimums.clone());
+		maximums.add(pageMaximums.clone());
+	}
+
+	/**
+	 * @return the number of pages of the file
+	 */
+	public int getNumPages() {
+		return minimums.size();
+	}
+
+	/**
+	 * Returns whether a page may hold a tuple whose columns all fall in the
+	 * given ranges.
+	 * @param page The page number
+	 * @param columns The positions of the bounded columns
+	 * @param lows The inclusive lower bound of each column
+	 * @param highs The inclusive upper bound of each column
+	 * @return false if the page certainly holds no such tuple
+	 */
+	public boolean mayMatch(int page, int[] columns, int[] lows, int[] highs) {
+		if (page >= minimums.size()) {
+			return true;
+		}
+		int[] pageMinimums = minimums.get(page);
+		int[] pageMaximums = maximums.get(page);
+		for (int i = 0; i < columns.length; i++) {
+			if (pageMaximums[columns[i]] < lows[i] || pageMinimums[columns[i]] > highs[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes this zone map to the side file of a data file.
+	 * @param dataFile The path of the data file
+	 */
+	public void write(String dataFile) {
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(dataFile + FILE_SUFFIX)))) {
+			out.writeInt(numColumns);
+			out.writeInt(minimums.size());
+			for (int page = 0; page < minimums.size(); page++) {
+				for (int column = 0; column < numColumns; column++) {
+					out.writeInt(minimums.get(page)[column]);
+					out.writeInt(maximums.get(page)[column]);
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Reads the zone map of a data file from its side file.
+	 * @param dataFile The path of the data file
+	 * @return the zone map, or null if there is none or the data file has
+	 * been modified since it was written
+	 */
+	public static ZoneMap load(String dataFile) {
+		File sideFile = new File(dataFile + FILE_SUFFIX);
+		if (!sideFile.exists() || sideFile.lastModified() < new File(dataFile).lastModified()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sideFile)))) {
+			ZoneMap zoneMap = new ZoneMap(in.readInt());
+			int numPages = in.readInt();
+			int[] pageMinimums = new int[zoneMap.numColumns];
+			int[] pageMaximums = new int[zoneMap.numColumns];
+			for (int page = 0; page < numPages; page++) {
+				for (int column = 0; column < zoneMap.numColumns; column++) {
+					pageMinimums[column] = in.readInt();
+					pageMaximums[column] = in.readInt();
+				}
+				zoneMap.addPage(pageMinimums, pageMaximums);
+			}
+			return zoneMap;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the zone map of an existing data file by reading it page by
+	 * page, decoding compressed pages, and writes it to the side file.
+	 * @param dataFile The path of the data file
+	 * @param numColumns The number of columns of the tuples in the file
+	 * @return the zone map
+	 */
+	public static ZoneMap build(String dataFile, int numColumns) {
+		ZoneMap zoneMap = new ZoneMap(numColumns);
+		int pageSize = DatabaseCatalog.getInstance().getPageSize();
+		int[] pageMinimums = new int[numColumns];
+		int[] pageMaximums = new int[numColumns];
+		try (FileInputStream fin = new FileInputStream(dataFile)) {
+			FileChannel fc = fin.getChannel();
+			ByteBuffer page = ByteBuffer.allocate(pageSize);
+			long position = 0;
+			while (true) {
+				page.clear();
+				if (fc.read(page, position) <= 0) {
+					break;
+				}
+				position += pageSize;
+				int tupleLength = Math.abs(page.getInt(0));
+				int tupleCount = page.getInt(4);
+				int[] decoded = CompressedPage.isCompressed(page) ? CompressedPage.decode(page) : null;
+				for (int column = 0; column < numColumns; column++) {
+					pageMinimums[column] = Integer.MAX_VALUE;
+					pageMaximums[column] = Integer.MIN_VALUE;
+				}
+				for (int tuple = 0; tuple < tupleCount; tuple++) {
+					int tupleStart = TupleReaderBinary.METADATA_SIZE + tuple * tupleLength * TupleReaderBinary.BYTE_SIZE;
+					for (int column = 0; column < numColumns && column < tupleLength; column++) {
+						int value = decoded != null ? decoded[tuple * tupleLength + column]
+								: page.getInt(tupleStart + column * TupleReaderBinary.BYTE_SIZE);
+						pageMinimums[column] = Math.min(pageMinimums[column], value);
+						pageMaximums[column] = Math.max(pageMaximums[column], value);
+					}
+				}
+				zoneMap.addPage(pageMinimums, pageMaximums);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		zoneMap.write(dataFile);
+		return zoneMap;
+	}
+
+}
@@ -6,6 +6,7 @@ import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Set;
 
 import DBMS.UnionFind;
 import PhysicalOperator.Operator;
@@ -24,6 +25,7 @@ public class LogicalJoinOperator extends LogicalOperator {
 	private int bufferCount;
 	private UnionFind UnionFindDatabase;
 	public List<Expression> residualJoins;
+	public Set<String> outputColumns;
 	
 	/**
 	 * Constructor for LogicalJoinOperator.
@@ -45,6 +47,7 @@ public class LogicalJoinOperator extends LogicalOperator {
 		childOperators = new ArrayList<LogicalJoinChild>();
 		UnionFindDatabase = null;
 		residualJoins = null;
+		outputColumns = null;
 		
 		// TODO HARDCODING FOR NOW. HAVE TO REMOVE**********************
 		// WARNING: GET RID OF THIS LATER! *****************************
@@ -79,6 +82,17 @@ public class LogicalJoinOperator extends LogicalOperator {
 		}
 	}
 
+	/**
+	 * Setter for the columns the operators above the join read.
+	 * 
+	 * @param outputColumns
+	 *            the qualified columns read above the join, or null if every
+	 *            column is.
+	 */
+	public void setOutputColumns(Set<String> outputColumns) {
+		this.outputColumns = outputColumns;
+	}
+
 	/**
 	 * Getter for joinMethod.
 	 * 
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
 
 import net.sf.jsqlparser.expression.Expression;
@@ -33,6 +34,8 @@ public class LogicalQueryPlanner {
 	private Expression whereClause;
 	private List orderByList;
 	private List<String> outputOrder;
+	private Set<String> referencedColumns;
+	private Set<String> outputColumns;
 
 	private boolean distinct;
 	private boolean joinRequired;
@@ -83,6 +86,8 @@ public class LogicalQueryPlanner {
 
 		catalog = DatabaseCatalog.getInstance();
 		utils = new JavaUtils();
+		outputColumns = collectReferencedColumns(false);
+		referencedColumns = collectReferencedColumns(true);
 
 		rootOperator = null;
 	}
@@ -138,7 +143,8 @@ public class LogicalQueryPlanner {
 		if (usingAliases)
 			aliasname = parsedRelationExp[2];
 
-		LogicalOperator scanOperator = new LogicalScanOperator(tablename, aliasname);
+		LogicalScanOperator scanOperator = new LogicalScanOperator(tablename, aliasname);
+		scanOperator.setRequiredAttributes(requiredAttributes(tablename, aliasname));
 		return scanOperator;
 	}
 
@@ -157,11 +163,64 @@ public class LogicalQueryPlanner {
 		if (usingAliases)
 			aliasname = parsedRelationExp[2];
 		LogicalScanOperator scanOperator = new LogicalScanOperator(tablename, aliasname);
+		scanOperator.setRequiredAttributes(requiredAttributes(tablename, aliasname));
 		LogicalSelectionOperator selectionOperator = new LogicalSelectionOperator(tablename, selectionExp, aliasname,
 				scanOperator);
 		return selectionOperator;
 	}
 
+	/**
+	 * Method to collect the qualified columns the query references in its
+	 * SELECT and ORDER BY clauses and, optionally, its WHERE clause.
+	 * 
+	 * @param includeWhere
+	 *            true to include the columns of the WHERE clause.
+	 * @return the referenced columns, or null if the query selects every
+	 *         column.
+	 */
+	private Set<String> collectReferencedColumns(boolean includeWhere) {
+		if (selectClause.get(0).toString().equals("*")) {
+			return null;
+		}
+		StringBuilder clauses = new StringBuilder();
+		for (Object item : selectClause) {
+			clauses.append(item.toString()).append(" ");
+		}
+		if (includeWhere && whereClause != null) {
+			clauses.append(whereClause.toString()).append(" ");
+		}
+		if (orderByList != null) {
+			for (Object item : orderByList) {
+				clauses.append(item.toString()).append(" ");
+			}
+		}
+		return utils.columnReferences(clauses.toString());
+	}
+
+	/**
+	 * Method to find the attributes of a relation the query references.
+	 * 
+	 * @param tablename
+	 *            the name of the relation.
+	 * @param aliasname
+	 *            the alias of the relation, or null.
+	 * @return the referenced attributes, without prefix, or null if the query
+	 *         needs all of them.
+	 */
+	private List<String> requiredAttributes(String tablename, String aliasname) {
+		if (referencedColumns == null) {
+			return null;
+		}
+		String prefix = aliasname != null ? aliasname : tablename;
+		List<String> attributes = new ArrayList<String>();
+		for (String field : catalog.GetTable(tablename).getFields()) {
+			if (referencedColumns.contains(prefix + "." + field)) {
+				attributes.add(field);
+			}
+		}
+		return attributes;
+	}
+
 	/**
 	 * Method to nest a logical operator with a ProjectionOperator.
 	 * 
@@ -188,6 +247,7 @@ public class LogicalQueryPlanner {
 	 */
 	private LogicalOperator constructJoinTree() {
 		LogicalJoinOperator joinOperator = new LogicalJoinOperator();
+		joinOperator.setOutputColumns(outputColumns);
 
 		// Case #1: not a null join.
 		if (whereClause != null) {
@@ -1,5 +1,7 @@
 package LogicalOperator;
 
+import java.util.List;
+
 /**
  * Logical scan operator class.
  *
@@ -10,6 +12,7 @@ public class LogicalScanOperator extends LogicalOperator {
 
 	public String tableName;
 	public String aliasName;
+	public List<String> requiredAttributes;
 
 	/**
 	 * Constructor for ScanOperator.
@@ -23,6 +26,19 @@ public class LogicalScanOperator extends LogicalOperator {
 	public LogicalScanOperator(String tableName, String aliasName) {
 		this.tableName = tableName;
 		this.aliasName = aliasName;
+		requiredAttributes = null;
+	}
+
+	/**
+	 * Method to restrict the attributes the query needs from this table.
+	 * Only columnar tables make use of it.
+	 * 
+	 * @param requiredAttributes
+	 *            the attributes the query references, without their table or
+	 *            alias prefix, or null if it needs all of them.
+	 */
+	public void setRequiredAttributes(List<String> requiredAttributes) {
+		this.requiredAttributes = requiredAttributes;
 	}
 
 	/**
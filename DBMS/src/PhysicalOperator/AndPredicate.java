@@ -0,0 +1,41 @@
+package PhysicalOperator;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * A compiled conjunction. The right operand is only evaluated if the left
+ * operand holds.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public final class AndPredicate implements TuplePredicate {
+
+	private final TuplePredicate leftPredicate;
+	private final TuplePredicate rightPredicate;
+
+	/**
+	 * Constructor for AndPredicate.
+	 * 
+	 * @param leftPredicate
+	 *            the left operand of the conjunction.
+	 * @param rightPredicate
+	 *            the right operand of the conjunction.
+	 */
+	public AndPredicate(TuplePredicate leftPredicate, TuplePredicate rightPredicate) {
+		this.leftPredicate = leftPredicate;
+		this.rightPredicate = rightPredicate;
+	}
+
+	@Override
+	public boolean test(Tuple left, Tuple right) {
+		return leftPredicate.test(left, right) && rightPredicate.test(left, right);
+	}
+
+	@Override
+	public int select(int[] left, TupleBatch right, int[] selection, int count) {
+		count = leftPredicate.select(left, right, selection, count);
+		return count == 0 ? 0 : rightPredicate.select(left, right, selection, count);
+	}
+
+}
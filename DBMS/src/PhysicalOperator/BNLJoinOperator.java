@@ -1,13 +1,17 @@
 package PhysicalOperator;
 
+import DBMS.DatabaseCatalog;
 import DBMS.Tuple;
+import DBMS.TupleBatch;
 import DBMS.TupleReaderBinary;
+import DBMS.TupleSchema;
+import DBMS.TupleWriterBinary;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.sf.jsqlparser.expression.Expression;
 
@@ -15,6 +19,13 @@ import net.sf.jsqlparser.expression.Expression;
  * This class is responsible for joining (or taking the cross product) of two
  * tables. If no join condition exists, the operator joins on everything.
  *
+ * In parallel mode the inner child is read once into memory, and each block
+ * of outer tuples is joined against it by whichever worker loads it; the
+ * workers' output batches are handed back through a bounded queue, in no
+ * particular order. If the inner child takes up more pages than it may, it
+ * is written to a file in the temp directory instead, which every worker
+ * reads once per block.
+ *
  * @author Daniel Park (dp435) & Michael Neborak (mln45)
  */
 
@@ -27,6 +38,26 @@ public class BNLJoinOperator extends Operator {
 	private int bufferCount = 1;
 	private Queue<Tuple> buffer;
 	private int bufferSize;
+	private TupleSchema joinedSchema;
+	private TuplePredicate joinPredicate;
+	private boolean initialized;
+	private TupleBatch rightBatch;
+	private int[] matches;
+	private int matchCount;
+	private int matchIndex;
+
+	private int numWorkers = 1;
+	private int innerBufferCount;
+	private TupleSchema innerSchema;
+	private List<TupleBatch> innerBatches;
+	private String innerFile;
+	private ArrayBlockingQueue<TupleBatch> outputQueue;
+	private AtomicInteger runningWorkers;
+	private volatile boolean cancelled;
+	private boolean outerExhausted;
+	private volatile Throwable failure;
+	private TupleBatchCursor cursor;
+	private static final TupleBatch END = new TupleBatch(new TupleSchema(new ArrayList<String>()), 0);
 
 	/**
 	 * Constructor for BNLJoinOperator.
@@ -43,23 +74,51 @@ public class BNLJoinOperator extends Operator {
 		this.exp = exp;
 		this.leftChild = leftChild;
 		this.rightChild = rightChild;
-		leftTuple = leftChild.getNextTuple();
-
 		this.bufferCount = bufferCount;
-		if (leftTuple != null) {
-			bufferSize = bufferCount * (TupleReaderBinary.BUFFER_SIZE / (4 * leftTuple.size()));
-			buffer = new ArrayBlockingQueue<Tuple>(bufferSize);
-		} else {
-			bufferSize = 0;
-			buffer = new ArrayBlockingQueue<Tuple>(1);
-		}
+		initialized = false;
+	}
 
-		if (leftTuple != null) {
-			buffer.add(leftTuple);
-		}
-		FillBuffer();
-		leftTuple = buffer.poll();
+	/**
+	 * Method to get the number of pages the operator may keep in memory.
+	 */
+	public int getBufferCount() {
+		return bufferCount;
+	}
+
+	/**
+	 * Method to run the join in parallel mode on the given number of
+	 * workers. Each worker keeps its own block of outer tuples in memory,
+	 * besides the inner child's tuples, which all workers share as long as
+	 * they fit in the given number of pages.
+	 * 
+	 * @param numWorkers
+	 *            the number of workers; 1 runs the join serially.
+	 * @param innerBufferCount
+	 *            the number of pages the shared inner tuples may take up.
+	 */
+	public void setWorkers(int numWorkers, int innerBufferCount) {
+		this.numWorkers = numWorkers;
+		this.innerBufferCount = innerBufferCount;
+		cursor = new TupleBatchCursor(this, "JoinedTuple");
+	}
 
+	/**
+	 * Method to size the outer buffer and compile the join condition against
+	 * the schema of the joined tuples at plan time.
+	 * 
+	 * @param leftSchema
+	 *            the schema of the tuples produced by the left child.
+	 * @param rightSchema
+	 *            the schema of the tuples produced by the right child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema leftSchema, TupleSchema rightSchema) {
+		bufferSize = bufferCount * (DatabaseCatalog.getInstance().getPageSize() / (4 * leftSchema.size()));
+		buffer = new ArrayBlockingQueue<Tuple>(bufferSize);
+		innerSchema = rightSchema;
+		joinedSchema = leftSchema.concat(rightSchema);
+		joinPredicate = PredicateCompiler.compile(BindColumnVisitor.bind(exp, joinedSchema), leftSchema.size());
+		return joinedSchema;
 	}
 
 	/**
@@ -70,8 +129,16 @@ public class BNLJoinOperator extends Operator {
 	 */
 	@Override
 	public Tuple getNextTuple() {
+		if (numWorkers > 1) {
+			return cursor.getNextTuple();
+		}
 		Tuple rightTuple = null;
-		Tuple joinedTuple = null;
+
+		if (!initialized) {
+			FillBuffer();
+			leftTuple = buffer.poll();
+			initialized = true;
+		}
 
 		while (true) {
 			if (leftTuple == null) {
@@ -83,22 +150,238 @@ public class BNLJoinOperator extends Operator {
 				leftTuple = GetTupleFromBuffer();
 				continue;
 			}
-			List<String> ordering = new ArrayList<>();
-			ordering.addAll(leftTuple.ordering);
-			ordering.addAll(rightTuple.ordering);
-			joinedTuple = new Tuple("JoinedTuple", new Hashtable<String, String>(), ordering);
-			joinedTuple.getHashtable().putAll(leftTuple.getHashtable());
-			joinedTuple.getHashtable().putAll(rightTuple.getHashtable());
-			if (exp == null) {
-				return joinedTuple;
-			} else {
-				EvaluateExpressionVisitor EV = new EvaluateExpressionVisitor(joinedTuple);
-				exp.accept(EV);
-				if (EV.getResult() == true) {
-					return joinedTuple;
+			if (joinPredicate.test(leftTuple, rightTuple)) {
+				return Tuple.join("JoinedTuple", leftTuple, rightTuple, joinedSchema);
+			}
+		}
+	}
+
+	/**
+	 * Method to get the next batch of joined tuples satisfying the join
+	 * condition. The inner child is read by batches, and the join condition
+	 * is evaluated for each outer tuple against a whole inner batch at once.
+	 * 
+	 * @return batch of joined tuples satisfying the join condition.
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		if (numWorkers > 1) {
+			return takeParallelBatch();
+		}
+		if (!initialized) {
+			FillBuffer();
+			leftTuple = buffer.poll();
+			initialized = true;
+		}
+
+		TupleBatch output = null;
+		while (leftTuple != null) {
+			if (matchIndex < matchCount) {
+				if (output == null) {
+					output = new TupleBatch(joinedSchema, TupleBatch.DEFAULT_CAPACITY);
+				}
+				int[] leftValues = leftTuple.getValues();
+				while (matchIndex < matchCount && !output.isFull()) {
+					output.addJoinedRow(leftValues, rightBatch, matches[matchIndex++]);
+				}
+				if (output.isFull()) {
+					return output;
 				}
 			}
+			rightBatch = rightChild.getNextBatch();
+			if (rightBatch == null) {
+				rightChild.reset();
+				leftTuple = GetTupleFromBuffer();
+				continue;
+			}
+			matchCount = rightBatch.getSelectedCount();
+			if (matches == null || matches.length < matchCount) {
+				matches = new int[rightBatch.capacity()];
+			}
+			System.arraycopy(rightBatch.getSelection(), 0, matches, 0, matchCount);
+			matchCount = joinPredicate.select(leftTuple.getValues(), rightBatch, matches, matchCount);
+			matchIndex = 0;
+		}
+		return output;
+	}
+
+	/**
+	 * Takes the next batch joined by the workers, reading the inner child
+	 * and starting the workers on the first call.
+	 * 
+	 * @return batch of joined tuples, or null once every block is joined.
+	 */
+	private TupleBatch takeParallelBatch() {
+		if (!initialized) {
+			startWorkers();
+			initialized = true;
+		}
+		TupleBatch batch;
+		try {
+			batch = outputQueue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		if (batch != END) {
+			return batch;
+		}
+		// The end marker stays in the queue, so that further takes see it too.
+		outputQueue.offer(END);
+		if (failure != null) {
+			throw new RuntimeException("A join worker failed.", failure);
 		}
+		return null;
+	}
+
+	/**
+	 * Reads the inner child into memory, or into a file once it takes up more
+	 * than innerBufferCount pages, unless it already is, and submits the
+	 * workers to the exchange worker pool.
+	 */
+	private void startWorkers() {
+		if (innerBatches == null && innerFile == null) {
+			innerBatches = new ArrayList<TupleBatch>();
+			long capacity = (long) innerBufferCount * (DatabaseCatalog.getInstance().getPageSize() / 4);
+			long used = 0;
+			TupleWriterBinary innerWriter = null;
+			TupleBatch batch;
+			while ((batch = rightChild.getNextBatch()) != null) {
+				if (innerWriter != null) {
+					writeBatch(innerWriter, batch);
+					continue;
+				}
+				innerBatches.add(batch);
+				used += (long) batch.getSelectedCount() * innerSchema.size();
+				if (used > capacity) {
+					innerFile = DatabaseCatalog.getInstance().getTempDirectory() + "/" + hashCode() + "_bnl_inner";
+					innerWriter = new TupleWriterBinary(innerFile);
+					for (TupleBatch resident : innerBatches) {
+						writeBatch(innerWriter, resident);
+					}
+					innerBatches = null;
+				}
+			}
+			if (innerWriter != null) {
+				innerWriter.flush();
+				innerWriter.close();
+			}
+		}
+		outputQueue = new ArrayBlockingQueue<TupleBatch>(Exchange.QUEUE_BATCHES * numWorkers);
+		cancelled = false;
+		outerExhausted = false;
+		failure = null;
+		runningWorkers = new AtomicInteger(numWorkers);
+		for (int i = 0; i < numWorkers; i++) {
+			Exchange.workers.submit(() -> joinBlocks());
+		}
+	}
+
+	/**
+	 * Writes the selected rows of a batch of the inner child to its file.
+	 */
+	private static void writeBatch(TupleWriterBinary writer, TupleBatch batch) {
+		int[] selection = batch.getSelection();
+		for (int i = 0; i < batch.getSelectedCount(); i++) {
+			writer.writeTuple(batch.getValues(selection[i]));
+		}
+	}
+
+	/**
+	 * Runs one worker: loads blocks of outer tuples until none is left, and
+	 * joins every inner batch against each tuple of the block, reading the
+	 * inner batches from the inner child's file if it was written to one.
+	 * The last worker to finish puts the end marker in the output queue.
+	 */
+	private void joinBlocks() {
+		TupleReaderBinary innerReader = null;
+		try {
+			if (innerFile != null) {
+				innerReader = new TupleReaderBinary(innerFile);
+				innerReader.setSchema(innerSchema);
+			}
+			int[] matches = new int[TupleBatch.DEFAULT_CAPACITY];
+			List<Tuple> block;
+			while (!cancelled && !(block = loadBlock()).isEmpty()) {
+				TupleBatch output = new TupleBatch(joinedSchema, TupleBatch.DEFAULT_CAPACITY);
+				if (innerReader != null) {
+					innerReader.reset();
+				}
+				TupleBatch inner;
+				for (int innerIndex = 0; !cancelled
+						&& (inner = innerBatch(innerReader, innerIndex)) != null; innerIndex++) {
+					int selected = inner.getSelectedCount();
+					if (matches.length < selected) {
+						matches = new int[inner.capacity()];
+					}
+					for (Tuple outerTuple : block) {
+						int[] leftValues = outerTuple.getValues();
+						System.arraycopy(inner.getSelection(), 0, matches, 0, selected);
+						int count = joinPredicate.select(leftValues, inner, matches, selected);
+						for (int i = 0; i < count; i++) {
+							output.addJoinedRow(leftValues, inner, matches[i]);
+							if (output.isFull()) {
+								outputQueue.put(output);
+								output = new TupleBatch(joinedSchema, TupleBatch.DEFAULT_CAPACITY);
+							}
+						}
+					}
+				}
+				if (output.size() > 0) {
+					outputQueue.put(output);
+				}
+			}
+		} catch (Throwable e) {
+			failure = e;
+		} finally {
+			if (innerReader != null) {
+				innerReader.close();
+			}
+			if (runningWorkers.decrementAndGet() == 0) {
+				try {
+					outputQueue.put(END);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the next inner batch of a worker, reading it from the inner
+	 * child's file if it was written to one.
+	 * 
+	 * @param innerReader
+	 *            the worker's reader of the file; null if the inner tuples
+	 *            are in memory.
+	 * @param index
+	 *            the index of the batch among the inner batches in memory.
+	 * @return the inner batch, or null once every inner batch is joined.
+	 */
+	private TupleBatch innerBatch(TupleReaderBinary innerReader, int index) {
+		if (innerReader != null) {
+			return innerReader.readBatch(true, TupleBatch.DEFAULT_CAPACITY);
+		}
+		return (index < innerBatches.size()) ? innerBatches.get(index) : null;
+	}
+
+	/**
+	 * Loads the next block of outer tuples for a worker.
+	 * 
+	 * @return up to a buffer's worth of outer tuples; empty once the outer
+	 *         child is exhausted.
+	 */
+	private synchronized List<Tuple> loadBlock() {
+		List<Tuple> block = new ArrayList<Tuple>(bufferSize);
+		while (!outerExhausted && block.size() < bufferSize) {
+			Tuple temp = leftChild.getNextTuple();
+			if (temp == null) {
+				outerExhausted = true;
+			} else {
+				block.add(temp);
+			}
+		}
+		return block;
 	}
 
 	/**
@@ -143,11 +426,38 @@ public class BNLJoinOperator extends Operator {
 	 */
 	@Override
 	public void reset() {
+		if (numWorkers > 1) {
+			stopWorkers();
+			leftChild.reset();
+			initialized = false;
+			cursor.reset();
+			return;
+		}
 		leftChild.reset();
 		rightChild.reset();
-		leftTuple = leftChild.getNextTuple();
 		buffer.clear();
-		buffer.add(leftTuple);
+		initialized = false;
+		rightBatch = null;
+		matchCount = 0;
+		matchIndex = 0;
+	}
+
+	/**
+	 * Makes the workers stop after their current inner batch and waits for
+	 * them to finish. The inner tuples read into memory or into the file are
+	 * kept.
+	 */
+	private void stopWorkers() {
+		if (!initialized) {
+			return;
+		}
+		cancelled = true;
+		try {
+			while (outputQueue.take() != END) {
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	/**
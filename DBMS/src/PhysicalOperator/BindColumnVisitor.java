@@ -0,0 +1,409 @@
+package PhysicalOperator;
+
+import java.util.Stack;
+
+import DBMS.TupleSchema;
+import net.sf.jsqlparser.expression.AllComparisonExpression;
+import net.sf.jsqlparser.expression.AnyComparisonExpression;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.DateValue;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitor;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.InverseExpression;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.TimeValue;
+import net.sf.jsqlparser.expression.TimestampValue;
+import net.sf.jsqlparser.expression.WhenClause;
+import net.sf.jsqlparser.expression.operators.arithmetic.Addition;
+import net.sf.jsqlparser.expression.operators.arithmetic.BitwiseAnd;
+import net.sf.jsqlparser.expression.operators.arithmetic.BitwiseOr;
+import net.sf.jsqlparser.expression.operators.arithmetic.BitwiseXor;
+import net.sf.jsqlparser.expression.operators.arithmetic.Concat;
+import net.sf.jsqlparser.expression.operators.arithmetic.Division;
+import net.sf.jsqlparser.expression.operators.arithmetic.Multiplication;
+import net.sf.jsqlparser.expression.operators.arithmetic.Subtraction;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExistsExpression;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.Matches;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.SubSelect;
+
+/**
+ * Visitor to produce a copy of an expression in which every column reference
+ * is replaced by a BoundColumn resolved against a given tuple schema. The
+ * original expression is left untouched, so it can still be printed or bound
+ * against a different schema.
+ * 
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class BindColumnVisitor implements ExpressionVisitor {
+
+	private Stack<Expression> expressionStack; // bound expressions generated
+												// from postorder tree
+												// traversal
+	private TupleSchema schema; // schema the columns are resolved against.
+	private BindColumnVisitor BV;
+
+	/**
+	 * Constructor for BindColumnVisitor.
+	 * 
+	 * @param schema
+	 *            schema of the tuples the expression will be evaluated on.
+	 */
+	public BindColumnVisitor(TupleSchema schema) {
+		expressionStack = new Stack<Expression>();
+		this.schema = schema;
+		BV = this;
+	}
+
+	/**
+	 * Convenience method to bind an expression against a schema.
+	 * 
+	 * @param exp
+	 *            the expression to be bound; may be null.
+	 * @param schema
+	 *            schema of the tuples the expression will be evaluated on.
+	 * @return the bound copy of the expression, or null if exp is null.
+	 */
+	public static Expression bind(Expression exp, TupleSchema schema) {
+		if (exp == null) {
+			return null;
+		}
+		BindColumnVisitor BV = new BindColumnVisitor(schema);
+		exp.accept(BV);
+		return BV.getResult();
+	}
+
+	/**
+	 * Method to get the bound expression when visitor is done.
+	 * 
+	 * @return the bound copy of the visited expression.
+	 */
+	public Expression getResult() {
+		return expressionStack.pop();
+	}
+
+	/**
+	 * One of the visit method for leaf node.
+	 * 
+	 * Constants need no binding; this method pushes the node itself.
+	 * 
+	 * @param arg
+	 *            the node of type LongValue to be visited
+	 */
+	@Override
+	public void visit(LongValue arg) {
+		expressionStack.push(arg);
+	}
+
+	/**
+	 * One of the visit method for leaf node.
+	 * 
+	 * This method looks up the slot of the referenced field and pushes a
+	 * BoundColumn carrying it.
+	 * 
+	 * @param arg
+	 *            the node of type Column to be visited
+	 */
+	@Override
+	public void visit(Column arg) {
+		int slot = schema.getSlot(arg.toString());
+		if (slot < 0) {
+			throw new IllegalArgumentException("Column " + arg + " is not in schema " + schema);
+		}
+		expressionStack.push(new BoundColumn(arg, slot));
+	}
+
+	/**
+	 * Visit method for AndExpression node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(AndExpression arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new AndExpression(left, right));
+	}
+
+	/**
+	 * Visit method for GreaterThan node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(GreaterThan arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new GreaterThan(left, right));
+	}
+
+	/**
+	 * Visit method for GreaterThanEqual node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(GreaterThanEquals arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new GreaterThanEquals(left, right));
+	}
+
+	/**
+	 * Visit method for MinorThan node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(MinorThan arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new MinorThan(left, right));
+	}
+
+	/**
+	 * Visit method for MinorThanEqual node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(MinorThanEquals arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new MinorThanEquals(left, right));
+	}
+
+	/**
+	 * Visit method for EqualsTo node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(EqualsTo arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new EqualsTo(left, right));
+	}
+
+	/**
+	 * Visit method for NotEqualsTo node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(NotEqualsTo arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new NotEqualsTo(left, right));
+	}
+
+	/**
+	 * Visit method for OrExpression node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(OrExpression arg) {
+		arg.getLeftExpression().accept(BV);
+		arg.getRightExpression().accept(BV);
+		Expression right = expressionStack.pop();
+		Expression left = expressionStack.pop();
+		expressionStack.push(new OrExpression(left, right));
+	}
+
+	/**
+	 * Visit method for Parenthesis node. The grouping is already captured by
+	 * the shape of the tree, so only the enclosed expression is kept.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(Parenthesis arg) {
+		arg.getExpression().accept(BV);
+	}
+
+	// ********** UNSUPPORTED OPERATIONS BELOW: DO NOT SUPPORT! **********
+
+	@Override
+	public void visit(NullValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(DateValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(TimeValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(TimestampValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(StringValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Addition arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Division arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Multiplication arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Subtraction arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Between arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(InExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(IsNullExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(LikeExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Function arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(InverseExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(JdbcParameter arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(DoubleValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(SubSelect arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(CaseExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(WhenClause arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(ExistsExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(AllComparisonExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(AnyComparisonExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Concat arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Matches arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(BitwiseAnd arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(BitwiseOr arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(BitwiseXor arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+}
@@ -0,0 +1,39 @@
+package PhysicalOperator;
+
+import net.sf.jsqlparser.schema.Column;
+
+/**
+ * A column reference that has been resolved against the schema of the tuples
+ * it will be evaluated on. It prints exactly like the original column, but
+ * carries the slot of the referenced field so it can be read positionally.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class BoundColumn extends Column {
+
+	private int slot;
+
+	/**
+	 * Constructor for BoundColumn.
+	 * 
+	 * @param column
+	 *            the column being resolved.
+	 * @param slot
+	 *            the slot of the column in the bound schema.
+	 */
+	public BoundColumn(Column column, int slot) {
+		super(column.getTable(), column.getColumnName());
+		this.slot = slot;
+	}
+
+	/**
+	 * Getter for slot.
+	 * 
+	 * @return the slot of the referenced field in the bound schema.
+	 */
+	public int getSlot() {
+		return slot;
+	}
+
+}
@@ -5,6 +5,7 @@ import java.util.Stack;
 import DBMS.Tuple;
 import net.sf.jsqlparser.expression.AllComparisonExpression;
 import net.sf.jsqlparser.expression.AnyComparisonExpression;
+import net.sf.jsqlparser.expression.BinaryExpression;
 import net.sf.jsqlparser.expression.CaseExpression;
 import net.sf.jsqlparser.expression.DateValue;
 import net.sf.jsqlparser.expression.DoubleValue;
@@ -46,13 +47,15 @@ import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.select.SubSelect;
 
 /**
- * Visitor to check if expression only contains equality expressions.
+ * Visitor to check if expression only contains equality expressions, and
+ * whether it compares two columns with <, <=, > or >=.
  * 
  * @author Daniel Park (dp435) & Michael Neborak (mln45)
  */
 
 public class CheckEqualityVisitor implements ExpressionVisitor {
 	private boolean onlyEqualityExp;
+	private boolean columnInequality;
 	private CheckEqualityVisitor CEV;
 
 	/**
@@ -60,6 +63,7 @@ public class CheckEqualityVisitor implements ExpressionVisitor {
 	 */
 	public CheckEqualityVisitor() {
 		onlyEqualityExp = true;
+		columnInequality = false;
 		CEV = this;
 	}
 
@@ -74,6 +78,25 @@ public class CheckEqualityVisitor implements ExpressionVisitor {
 		return onlyEqualityExp;
 	}
 
+	/**
+	 * Method to check if the expression tree compares two columns with <, <=,
+	 * > or >=, so that it can be evaluated by an inequality join.
+	 * 
+	 * @return true if the expression tree has such an inequality.
+	 */
+	public boolean hasColumnInequality() {
+		return columnInequality;
+	}
+
+	/**
+	 * Records whether the given inequality compares two columns.
+	 */
+	private void checkColumnInequality(BinaryExpression arg) {
+		if (arg.getLeftExpression() instanceof Column && arg.getRightExpression() instanceof Column) {
+			columnInequality = true;
+		}
+	}
+
 	/**
 	 * Visit method for AndExpression node based on postorder tree traversal.
 	 * 
@@ -92,7 +115,8 @@ public class CheckEqualityVisitor implements ExpressionVisitor {
 	/**
 	 * Visit method for GreaterThan node based on postorder tree traversal.
 	 * 
-	 * This method sets onlyEqualityExp to false.
+	 * This method sets onlyEqualityExp to false, and records whether it
+	 * compares two columns.
 	 * 
 	 * @param arg
 	 *            the node to be visited
@@ -100,12 +124,14 @@ public class CheckEqualityVisitor implements ExpressionVisitor {
 	@Override
 	public void visit(GreaterThan arg) {
 		onlyEqualityExp = false;
+		checkColumnInequality(arg);
 	}
 
 	/**
 	 * Visit method for GreaterThanEqual node based on postorder tree traversal.
 	 * 
-	 * This method sets onlyEqualityExp to false.
+	 * This method sets onlyEqualityExp to false, and records whether it
+	 * compares two columns.
 	 * 
 	 * @param arg
 	 *            the node to be visited
@@ -113,12 +139,14 @@ public class CheckEqualityVisitor implements ExpressionVisitor {
 	@Override
 	public void visit(GreaterThanEquals arg) {
 		onlyEqualityExp = false;
+		checkColumnInequality(arg);
 	}
 
 	/**
 	 * Visit method for MinorThan node based on postorder tree traversal.
 	 * 
-	 * This method sets onlyEqualityExp to false.
+	 * This method sets onlyEqualityExp to false, and records whether it
+	 * compares two columns.
 	 * 
 	 * @param arg
 	 *            the node to be visited
@@ -126,12 +154,14 @@ public class CheckEqualityVisitor implements ExpressionVisitor {
 	@Override
 	public void visit(MinorThan arg) {
 		onlyEqualityExp = false;
+		checkColumnInequality(arg);
 	}
 
 	/**
 	 * Visit method for MinorThanEqual node based on postorder tree traversal.
 	 * 
-	 * This method sets onlyEqualityExp to false.
+	 * This method sets onlyEqualityExp to false, and records whether it
+	 * compares two columns.
 	 * 
 	 * @param arg
 	 *            the node to be visited
@@ -139,6 +169,7 @@ public class CheckEqualityVisitor implements ExpressionVisitor {
 	@Override
 	public void visit(MinorThanEquals arg) {
 		onlyEqualityExp = false;
+		checkColumnInequality(arg);
 	}
 
 	/**
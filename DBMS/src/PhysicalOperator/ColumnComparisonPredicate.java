@@ -0,0 +1,65 @@
+package PhysicalOperator;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * A compiled comparison between two columns. Each column has been resolved to
+ * a slot of either the left or the right tuple of the candidate.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public final class ColumnComparisonPredicate implements TuplePredicate {
+
+	private final int op;
+	private final boolean leftColumnOnRight;
+	private final int leftColumnSlot;
+	private final boolean rightColumnOnRight;
+	private final int rightColumnSlot;
+
+	/**
+	 * Constructor for ColumnComparisonPredicate.
+	 * 
+	 * @param op
+	 *            one of the ComparisonOperator constants.
+	 * @param leftColumnOnRight
+	 *            whether the left-hand column is read from the right tuple.
+	 * @param leftColumnSlot
+	 *            the slot of the left-hand column within its tuple.
+	 * @param rightColumnOnRight
+	 *            whether the right-hand column is read from the right tuple.
+	 * @param rightColumnSlot
+	 *            the slot of the right-hand column within its tuple.
+	 */
+	public ColumnComparisonPredicate(int op, boolean leftColumnOnRight, int leftColumnSlot,
+			boolean rightColumnOnRight, int rightColumnSlot) {
+		this.op = op;
+		this.leftColumnOnRight = leftColumnOnRight;
+		this.leftColumnSlot = leftColumnSlot;
+		this.rightColumnOnRight = rightColumnOnRight;
+		this.rightColumnSlot = rightColumnSlot;
+	}
+
+	@Override
+	public boolean test(Tuple left, Tuple right) {
+		int leftValue = (leftColumnOnRight ? right : left).getValue(leftColumnSlot);
+		int rightValue = (rightColumnOnRight ? right : left).getValue(rightColumnSlot);
+		return ComparisonOperator.evaluate(op, leftValue, rightValue);
+	}
+
+	@Override
+	public int select(int[] left, TupleBatch right, int[] selection, int count) {
+		if (leftColumnOnRight && rightColumnOnRight) {
+			return ComparisonOperator.select(op, right.getColumn(leftColumnSlot), right.getColumn(rightColumnSlot),
+					selection, count);
+		} else if (leftColumnOnRight) {
+			return ComparisonOperator.select(op, right.getColumn(leftColumnSlot), left[rightColumnSlot], selection,
+					count);
+		} else if (rightColumnOnRight) {
+			return ComparisonOperator.select(ComparisonOperator.mirror(op), right.getColumn(rightColumnSlot),
+					left[leftColumnSlot], selection, count);
+		}
+		return ComparisonOperator.evaluate(op, left[leftColumnSlot], left[rightColumnSlot]) ? count : 0;
+	}
+
+}
@@ -0,0 +1,139 @@
+package PhysicalOperator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import DBMS.*;
+
+/**
+ * This class is responsible for scanning a table stored one file per column.
+ * Only the columns the query references are read; the tuples returned hold
+ * those columns alone, in the order of the table's fields.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class ColumnarScanOperator extends Operator {
+
+	private TupleReaderBinary[] columnReaders;
+	private TupleSchema schema;
+	private TupleBatchCursor cursor;
+	public String tableName;
+	public List<String> attributes;
+
+	/**
+	 * Constructor for ColumnarScanOperator.
+	 *
+	 * @param tableName
+	 *            name of current table being scanned.
+	 * @param aliasName
+	 *            The alias name for the current table. If none exists, then it
+	 *            is set to null.
+	 * @param requiredAttributes
+	 *            the attributes to read, without their table or alias prefix,
+	 *            or null to read every attribute. At least one column is read
+	 *            so that the rows can be counted.
+	 */
+	public ColumnarScanOperator(String tableName, String aliasName, List<String> requiredAttributes) {
+		DatabaseCatalog catalog = DatabaseCatalog.getInstance();
+		TableInfo currentTable = catalog.GetTable(tableName);
+		this.tableName = tableName;
+
+		attributes = new ArrayList<String>();
+		for (String field : currentTable.getFields()) {
+			if (requiredAttributes == null || requiredAttributes.contains(field)) {
+				attributes.add(field);
+			}
+		}
+		if (attributes.isEmpty()) {
+			attributes.add(currentTable.getFields().get(0));
+		}
+
+		String prefix = (aliasName != null && !aliasName.equals("")) ? aliasName : tableName;
+		List<String> fieldNames = new ArrayList<String>();
+		columnReaders = new TupleReaderBinary[attributes.size()];
+		for (int i = 0; i < columnReaders.length; i++) {
+			fieldNames.add(prefix + "." + attributes.get(i));
+			columnReaders[i] = new TupleReaderBinary(currentTable.getColumnLocation(attributes.get(i)));
+			columnReaders[i].setReadAhead(catalog.getReadAheadPages());
+			columnReaders[i].setSchema(new TupleSchema(Collections.singletonList(fieldNames.get(i))));
+		}
+		schema = new TupleSchema(fieldNames);
+		cursor = new TupleBatchCursor(this, tableName);
+	}
+
+	/**
+	 * Method to bind this operator at plan time.
+	 *
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind() {
+		return schema;
+	}
+
+	/**
+	 * Method to get a tuple holding the next row of the columns read. The
+	 * columns are read a batch at a time and the rows handed out from it.
+	 *
+	 * @return tuple representing the next row of the data table.
+	 */
+	@Override
+	public Tuple getNextTuple() {
+		return cursor.getNextTuple();
+	}
+
+	/**
+	 * Method to get a batch holding the next rows of the columns read. Each
+	 * column file is read straight into one column vector of the batch.
+	 *
+	 * @return batch representing the next rows of the data table.
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		int[][] columns = new int[columnReaders.length][];
+		TupleBatch columnBatch = null;
+		for (int i = 0; i < columnReaders.length; i++) {
+			columnBatch = columnReaders[i].readBatch(false, TupleBatch.DEFAULT_CAPACITY);
+			if (columnBatch == null) {
+				return null;
+			}
+			columns[i] = columnBatch.getColumn(0);
+		}
+		return new TupleBatch(schema, columns, columnBatch.size(), columnBatch.getSelection(),
+				columnBatch.getSelectedCount());
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * again from the beginning.
+	 */
+	@Override
+	public void reset() {
+		for (TupleReaderBinary columnReader : columnReaders) {
+			columnReader.reset();
+		}
+		cursor.reset();
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * from the specified index. If the Operator is not a sort operator, this
+	 * function does nothing.
+	 */
+	@Override
+	public void reset(int index) {
+	}
+
+	/**
+	 * Method for accepting visitor; just calls back visitor. Visitor method
+	 * uses postorder traversal.
+	 *
+	 * @param visitor
+	 *            visitor to be accepted
+	 */
+	public void accept(PhysicalPlanVisitor visitor) {
+		visitor.visit(this);
+	}
+
+}
@@ -0,0 +1,162 @@
+package PhysicalOperator;
+
+/**
+ * The comparison operators a compiled condition can apply, and the logic to
+ * apply them to a pair of values.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public final class ComparisonOperator {
+
+	public static final int EQUALS = 0;
+	public static final int NOT_EQUALS = 1;
+	public static final int LESS_THAN = 2;
+	public static final int LESS_THAN_EQUALS = 3;
+	public static final int GREATER_THAN = 4;
+	public static final int GREATER_THAN_EQUALS = 5;
+
+	private ComparisonOperator() {
+	}
+
+	/**
+	 * Applies the given comparison operator to a pair of values.
+	 * 
+	 * @param op
+	 *            one of the operator constants of this class.
+	 * @param leftValue
+	 *            the value on the left-hand side of the operator.
+	 * @param rightValue
+	 *            the value on the right-hand side of the operator.
+	 * @return the result of the comparison.
+	 */
+	public static boolean evaluate(int op, long leftValue, long rightValue) {
+		switch (op) {
+		case EQUALS:
+			return leftValue == rightValue;
+		case NOT_EQUALS:
+			return leftValue != rightValue;
+		case LESS_THAN:
+			return leftValue < rightValue;
+		case LESS_THAN_EQUALS:
+			return leftValue <= rightValue;
+		case GREATER_THAN:
+			return leftValue > rightValue;
+		case GREATER_THAN_EQUALS:
+			return leftValue >= rightValue;
+		default:
+			throw new UnsupportedOperationException("An unsupported operation was called.");
+		}
+	}
+
+	/**
+	 * Applies the given comparison operator between a column vector and a
+	 * constant for each of the selected rows, keeping the rows for which it
+	 * holds at the front of the selection vector.
+	 *
+	 * @param op
+	 *            one of the operator constants of this class.
+	 * @param column
+	 *            the left-hand values, indexed by row.
+	 * @param constant
+	 *            the right-hand value.
+	 * @param selection
+	 *            the selected rows, in ascending order.
+	 * @param count
+	 *            the number of selected rows.
+	 * @return the number of rows for which the comparison holds.
+	 */
+	public static int select(int op, int[] column, long constant, int[] selection, int count) {
+		int kept = 0;
+		switch (op) {
+		case EQUALS:
+			for (int i = 0; i < count; i++) {
+				if (column[selection[i]] == constant)
+					selection[kept++] = selection[i];
+			}
+			return kept;
+		case NOT_EQUALS:
+			for (int i = 0; i < count; i++) {
+				if (column[selection[i]] != constant)
+					selection[kept++] = selection[i];
+			}
+			return kept;
+		case LESS_THAN:
+			for (int i = 0; i < count; i++) {
+				if (column[selection[i]] < constant)
+					selection[kept++] = selection[i];
+			}
+			return kept;
+		case LESS_THAN_EQUALS:
+			for (int i = 0; i < count; i++) {
+				if (column[selection[i]] <= constant)
+					selection[kept++] = selection[i];
+			}
+			return kept;
+		case GREATER_THAN:
+			for (int i = 0; i < count; i++) {
+				if (column[selection[i]] > constant)
+					selection[kept++] = selection[i];
+			}
+			return kept;
+		case GREATER_THAN_EQUALS:
+			for (int i = 0; i < count; i++) {
+				if (column[selection[i]] >= constant)
+					selection[kept++] = selection[i];
+			}
+			return kept;
+		default:
+			throw new UnsupportedOperationException("An unsupported operation was called.");
+		}
+	}
+
+	/**
+	 * Applies the given comparison operator between two column vectors for
+	 * each of the selected rows, keeping the rows for which it holds at the
+	 * front of the selection vector.
+	 *
+	 * @param op
+	 *            one of the operator constants of this class.
+	 * @param leftColumn
+	 *            the left-hand values, indexed by row.
+	 * @param rightColumn
+	 *            the right-hand values, indexed by row.
+	 * @param selection
+	 *            the selected rows, in ascending order.
+	 * @param count
+	 *            the number of selected rows.
+	 * @return the number of rows for which the comparison holds.
+	 */
+	public static int select(int op, int[] leftColumn, int[] rightColumn, int[] selection, int count) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			int row = selection[i];
+			if (evaluate(op, leftColumn[row], rightColumn[row]))
+				selection[kept++] = row;
+		}
+		return kept;
+	}
+
+	/**
+	 * Returns the operator that gives the same result once its operands are
+	 * swapped, e.g. "a < b" is "b > a".
+	 * 
+	 * @param op
+	 *            one of the operator constants of this class.
+	 * @return the mirrored operator.
+	 */
+	public static int mirror(int op) {
+		switch (op) {
+		case LESS_THAN:
+			return GREATER_THAN;
+		case LESS_THAN_EQUALS:
+			return GREATER_THAN_EQUALS;
+		case GREATER_THAN:
+			return LESS_THAN;
+		case GREATER_THAN_EQUALS:
+			return LESS_THAN_EQUALS;
+		default:
+			return op;
+		}
+	}
+
+}
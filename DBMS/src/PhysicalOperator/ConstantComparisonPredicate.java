@@ -0,0 +1,51 @@
+package PhysicalOperator;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * A compiled comparison between a column and a constant. The column is always
+ * the left-hand operand; "5 < S.A" is compiled as "S.A > 5".
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public final class ConstantComparisonPredicate implements TuplePredicate {
+
+	private final int op;
+	private final boolean columnOnRight;
+	private final int columnSlot;
+	private final long constant;
+
+	/**
+	 * Constructor for ConstantComparisonPredicate.
+	 * 
+	 * @param op
+	 *            one of the ComparisonOperator constants.
+	 * @param columnOnRight
+	 *            whether the column is read from the right tuple.
+	 * @param columnSlot
+	 *            the slot of the column within its tuple.
+	 * @param constant
+	 *            the right-hand constant.
+	 */
+	public ConstantComparisonPredicate(int op, boolean columnOnRight, int columnSlot, long constant) {
+		this.op = op;
+		this.columnOnRight = columnOnRight;
+		this.columnSlot = columnSlot;
+		this.constant = constant;
+	}
+
+	@Override
+	public boolean test(Tuple left, Tuple right) {
+		return ComparisonOperator.evaluate(op, (columnOnRight ? right : left).getValue(columnSlot), constant);
+	}
+
+	@Override
+	public int select(int[] left, TupleBatch right, int[] selection, int count) {
+		if (!columnOnRight) {
+			return ComparisonOperator.evaluate(op, left[columnSlot], constant) ? count : 0;
+		}
+		return ComparisonOperator.select(op, right.getColumn(columnSlot), constant, selection, count);
+	}
+
+}
@@ -0,0 +1,33 @@
+package PhysicalOperator;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * A compiled condition with a fixed outcome, used for a missing condition and
+ * for comparisons between two constants.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public final class ConstantPredicate implements TuplePredicate {
+
+	public static final ConstantPredicate TRUE = new ConstantPredicate(true);
+	public static final ConstantPredicate FALSE = new ConstantPredicate(false);
+
+	private final boolean result;
+
+	private ConstantPredicate(boolean result) {
+		this.result = result;
+	}
+
+	@Override
+	public boolean test(Tuple left, Tuple right) {
+		return result;
+	}
+
+	@Override
+	public int select(int[] left, TupleBatch right, int[] selection, int count) {
+		return result ? count : 0;
+	}
+
+}
@@ -31,6 +31,7 @@ public class ConstructJoinTree {
 	private JavaUtils utils;
 	ArrayList<Expression> joinList;
 	ArrayList<LogicalJoinChild> joinOrder;
+	ArrayList<Integer> joinSizes;
 
 	/**
 	 * The constructor for the ConstructJoinTree.
@@ -105,18 +106,49 @@ public class ConstructJoinTree {
 		// Build the join-order list
 		IntermediateJoinOperator current = best;
 		joinOrder = new ArrayList<>();
+		joinSizes = new ArrayList<>();
 		while (current.leftChild instanceof IntermediateJoinOperator) {
 			joinOrder.add(0, ((LogicalJoinChild) current.rightChild));
+			joinSizes.add(0, current.size);
 			current = (IntermediateJoinOperator) current.leftChild;
 		}
 		joinOrder.add(0, ((LogicalJoinChild) current.rightChild));
 		joinOrder.add(0, ((LogicalJoinChild) current.leftChild));
+		joinSizes.add(0, current.size);
 	}
 
 	public ArrayList<LogicalJoinChild> getJoinOrderList() {
 		return joinOrder;
 	}
 
+	/**
+	 * Returns the estimated number of tuples produced by joining the first
+	 * relations of the join order.
+	 * 
+	 * @param numRelations
+	 *            the number of relations joined, at least 2.
+	 * @return the estimated size of the intermediate join result.
+	 */
+	public int getEstimatedJoinSize(int numRelations) {
+		return joinSizes.get(numRelations - 2);
+	}
+
+	/**
+	 * Returns the estimated number of tuples a base relation produces once
+	 * its pushed-down selection is applied.
+	 * 
+	 * @param jc
+	 *            the base relation.
+	 * @return the estimated number of tuples, at least 1.
+	 */
+	public int getEstimatedTuples(LogicalJoinChild jc) {
+		double fullReductionFactor = 1;
+		for (String att : jc.getAllAttributes()) {
+			fullReductionFactor *= calculateReductionFactor(jc, att);
+		}
+		return (int) Math.max(1, (fullReductionFactor * jc.getNumTuples()));
+	}
+
 	/**
 	 * This function is to be called when joining two "base" tables i.e.
 	 * LogicalJoinChild in this case.
@@ -134,11 +166,7 @@ public class ConstructJoinTree {
 		int vDenominator = 1;
 
 		// First table
-		double fullReductionFactor = 1;
-		for (String att : d1.getAllAttributes()) {
-			fullReductionFactor *= calculateReductionFactor(d1, att);
-		}
-		int maxSize = (int) Math.max(1, (fullReductionFactor * d1.getNumTuples()));
+		int maxSize = getEstimatedTuples(d1);
 		for (String att : d1.getAllAttributes()) {
 			int getMin = d1.getMin(att);
 			int getMax = d1.getMax(att);
@@ -146,11 +174,7 @@ public class ConstructJoinTree {
 		}
 
 		// Second table
-		fullReductionFactor = 1;
-		for (String att : d2.getAllAttributes()) {
-			fullReductionFactor *= calculateReductionFactor(d2, att);
-		}
-		maxSize = (int) Math.max(1, (fullReductionFactor * d2.getNumTuples()));
+		maxSize = getEstimatedTuples(d2);
 		for (String att : d2.getAllAttributes()) {
 			ijo.addToVHT(d2.getARName() + "." + att, Math.min(computeVTable(d2, att), maxSize));
 		}
@@ -233,12 +257,7 @@ public class ConstructJoinTree {
 		ijo.joinHTable = (Hashtable<String, Integer>) d1.joinHTable.clone();
 
 		// Joining table
-		double fullReductionFactor = 1;
-		fullReductionFactor = 1;
-		for (String att : d2.getAllAttributes()) {
-			fullReductionFactor *= calculateReductionFactor(d2, att);
-		}
-		int maxSize = (int) Math.max(1, (fullReductionFactor * d2.getNumTuples()));
+		int maxSize = getEstimatedTuples(d2);
 		for (String att : d2.getAllAttributes()) {
 			ijo.addToVHT(d2.getARName() + "." + att, Math.min(computeVTable(d2, att), maxSize));
 			ijo.addToJHT(d2.getARName() + "." + att, Math.min(computeVTable(d2, att), maxSize));
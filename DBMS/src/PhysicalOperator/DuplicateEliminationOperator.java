@@ -1,6 +1,8 @@
 package PhysicalOperator;
 
 import DBMS.Tuple;
+import DBMS.TupleBatch;
+import DBMS.TupleSchema;
 
 /**
  * This class is responsible for eliminating all duplicates. The
@@ -15,6 +17,7 @@ public class DuplicateEliminationOperator extends Operator {
 	Operator sorter;
 	Tuple previousTuple;
 	boolean fetchedFirstTuple;
+	int[] previousRow;
 
 	/**
 	 * Constructor for SortOperator.
@@ -28,6 +31,18 @@ public class DuplicateEliminationOperator extends Operator {
 		sorter = sortOperator;
 		previousTuple = null;
 		fetchedFirstTuple = false;
+		previousRow = null;
+	}
+
+	/**
+	 * Method to bind this operator at plan time.
+	 * 
+	 * @param childSchema
+	 *            the schema of the tuples produced by the child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema childSchema) {
+		return childSchema;
 	}
 
 	/**
@@ -44,7 +59,7 @@ public class DuplicateEliminationOperator extends Operator {
 				fetchedFirstTuple = true;
 				return currentTuple;
 
-			} else if (!(previousTuple.getHashtable()).equals(currentTuple.getHashtable())) {
+			} else if (!previousTuple.equals(currentTuple)) {
 				previousTuple = currentTuple;
 				return currentTuple;
 			}
@@ -52,11 +67,78 @@ public class DuplicateEliminationOperator extends Operator {
 		return null;
 	}
 
+	/**
+	 * Method to get the next batch of non-duplicate tuples. Each live row is
+	 * compared with the last row kept, and the duplicates are dropped from
+	 * the selection vector.
+	 * 
+	 * @return next batch of non-duplicate tuples
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		TupleBatch currentBatch;
+		while ((currentBatch = sorter.getNextBatch()) != null) {
+			int[][] columns = currentBatch.getColumns();
+			int[] selection = currentBatch.getSelection();
+			int count = currentBatch.getSelectedCount();
+			if (previousRow == null) {
+				previousRow = new int[columns.length];
+				int row = selection[0];
+				for (int slot = 0; slot < columns.length; slot++) {
+					previousRow[slot] = columns[slot][row];
+				}
+				count = dropDuplicates(columns, selection, count, 1);
+			} else {
+				count = dropDuplicates(columns, selection, count, 0);
+			}
+			if (count > 0) {
+				currentBatch.setSelectedCount(count);
+				return currentBatch;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Method to drop the selected rows of a batch that equal the last row
+	 * kept, updating the last row kept as it goes.
+	 * 
+	 * @param columns
+	 *            the column vectors of the batch.
+	 * @param selection
+	 *            the selection vector of the batch.
+	 * @param count
+	 *            the number of selected rows.
+	 * @param kept
+	 *            the number of leading selected rows already kept.
+	 * @return the number of rows kept.
+	 */
+	private int dropDuplicates(int[][] columns, int[] selection, int count, int kept) {
+		for (int i = kept; i < count; i++) {
+			int row = selection[i];
+			boolean duplicate = true;
+			for (int slot = 0; slot < columns.length; slot++) {
+				if (columns[slot][row] != previousRow[slot]) {
+					duplicate = false;
+					break;
+				}
+			}
+			if (!duplicate) {
+				for (int slot = 0; slot < columns.length; slot++) {
+					previousRow[slot] = columns[slot][row];
+				}
+				selection[kept++] = row;
+			}
+		}
+		return kept;
+	}
+
 	@Override
 	public void reset() {
 		sorter.reset();
 		previousTuple = null;
 		fetchedFirstTuple = false;
+		previousRow = null;
 	}
 
 	/**
@@ -103,15 +103,19 @@ public class EvaluateExpressionVisitor implements ExpressionVisitor {
 	 * One of the visit method for leaf node.
 	 * 
 	 * This method looks up the the value referenced by the column and pushes
-	 * its numeric value to the numberStack.
+	 * its numeric value to the numberStack. Columns bound at plan time are read
+	 * by slot; any other column is looked up by name.
 	 * 
 	 * @param arg
 	 *            the node of type Column to be visited
 	 */
 	@Override
 	public void visit(Column arg) {
-		String columnRef = arg.toString();
-		numberStack.push(new LongValue(tuple.getField(columnRef)));
+		if (arg instanceof BoundColumn) {
+			numberStack.push(new LongValue(tuple.getValue(((BoundColumn) arg).getSlot())));
+		} else {
+			numberStack.push(new LongValue(tuple.getValue(arg.toString())));
+		}
 	}
 
 	/**
@@ -0,0 +1,506 @@
+package PhysicalOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import DBMS.TupleBatch;
+import DBMS.TupleSchema;
+
+/**
+ * This class connects the partitions of a subtree, each run on a worker
+ * thread, to the operators consuming them, in the manner of a Volcano
+ * exchange. Every producer pushes its batches through a bounded queue per
+ * consumer, so producers block once their consumers fall behind. A GATHER
+ * exchange merges all producers into a single consumer; a HASH exchange
+ * routes each row to the consumer given by the hash of its key columns; a
+ * BROADCAST exchange hands every batch to every consumer. Rows are routed by
+ * giving each consumer its own selection vector over the shared column
+ * vectors, so no values are copied; a BROADCAST consumer copies the
+ * selection vector of each batch it hands out instead.
+ *
+ * The HASH exchanges below a hash join route the rows of the join's heavy
+ * keys, see HeavyHitters, apart from the others, so that a few frequent keys
+ * do not leave one consumer with most of the rows.
+ *
+ * The producers are started on the first batch asked of any consumer. If a
+ * producer fails, the consumers rethrow its failure once they have read
+ * everything that was produced. The exchange starts over once every one of
+ * its consumers has been reset; a consumer that is read again before then
+ * waits for the others.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class Exchange {
+
+	public static final int GATHER = 0;
+	public static final int HASH = 1;
+	public static final int BROADCAST = 2;
+	public static final int QUEUE_BATCHES = 8;
+
+	static final ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "exchange-worker");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private static final TupleBatch END = new TupleBatch(new TupleSchema(new ArrayList<String>()), 0);
+
+	public final int kind;
+	public final List<Operator> producers;
+	private List<String[]> keyPairs;
+	private List<ArrayBlockingQueue<TupleBatch>> queues;
+	private List<ExchangeOperator> consumers;
+	private boolean[] restartRequested;
+
+	private TupleSchema schema;
+	private int[] keySlots;
+	private List<String> keyNames;
+	private boolean bound;
+	private volatile boolean started;
+	private AtomicInteger runningProducers;
+	private volatile Throwable failure;
+
+	private HeavyHitters skew;
+	private boolean replicateHeavy;
+	private int[][] heavyKeys;
+	private TupleBatch[] sampledBatches;
+	private AtomicInteger nextSpread;
+
+	/**
+	 * Constructor for Exchange.
+	 *
+	 * @param kind
+	 *            GATHER, HASH or BROADCAST.
+	 * @param producers
+	 *            the partitions of the subtree below the exchange; all of
+	 *            them produce tuples of the same schema.
+	 * @param keyPairs
+	 *            for a HASH exchange, the pairs of columns equated by the join
+	 *            above it; of each pair, the column found in the producers'
+	 *            schema is hashed. Ignored by the other kinds.
+	 * @param numConsumers
+	 *            the number of consumers; a GATHER exchange has one.
+	 */
+	public Exchange(int kind, List<Operator> producers, List<String[]> keyPairs, int numConsumers) {
+		this.kind = kind;
+		this.producers = producers;
+		this.keyPairs = (keyPairs == null) ? new ArrayList<String[]>() : keyPairs;
+		queues = new ArrayList<ArrayBlockingQueue<TupleBatch>>();
+		consumers = new ArrayList<ExchangeOperator>();
+		for (int i = 0; i < numConsumers; i++) {
+			queues.add(new ArrayBlockingQueue<TupleBatch>(QUEUE_BATCHES));
+			consumers.add(new ExchangeOperator(this, i));
+		}
+		restartRequested = new boolean[numConsumers];
+		bound = false;
+		started = false;
+		heavyKeys = new int[0][];
+		nextSpread = new AtomicInteger(0);
+	}
+
+	/**
+	 * Method to make a HASH exchange below a hash join route the rows of the
+	 * join's heavy keys apart from the others: spread over all consumers on
+	 * the probe side, and to every consumer on the build side.
+	 *
+	 * @param skew
+	 *            the heavy keys of the join.
+	 * @param replicateHeavy
+	 *            true on the build side; false on the probe side.
+	 */
+	public void setSkew(HeavyHitters skew, boolean replicateHeavy) {
+		this.skew = skew;
+		this.replicateHeavy = replicateHeavy;
+	}
+
+	/**
+	 * Method to get one of the consumers of this exchange.
+	 *
+	 * @param index
+	 *            the index of the consumer.
+	 * @return the operator reading the consumer's queue.
+	 */
+	public ExchangeOperator getConsumer(int index) {
+		return consumers.get(index);
+	}
+
+	/**
+	 * Method to get the number of consumers of this exchange.
+	 */
+	public int getNumConsumers() {
+		return consumers.size();
+	}
+
+	/**
+	 * Method to check whether the producers have already been bound, since
+	 * every consumer of the exchange is visited by the binder.
+	 */
+	public boolean isBound() {
+		return bound;
+	}
+
+	/**
+	 * Method to resolve the key columns of a HASH exchange against the schema
+	 * of its producers at plan time. A pair of which neither or both columns
+	 * are in the schema is not used as a key; since the exchanges on both
+	 * sides of a join drop the same pairs, their keys still line up.
+	 *
+	 * @param producerSchema
+	 *            the schema of the tuples produced by the producers.
+	 * @return the schema of the tuples produced by the consumers.
+	 */
+	public TupleSchema bind(TupleSchema producerSchema) {
+		schema = producerSchema;
+		keyNames = new ArrayList<String>();
+		for (String[] pair : keyPairs) {
+			boolean hasFirst = schema.contains(pair[0]);
+			boolean hasSecond = schema.contains(pair[1]);
+			if (hasFirst != hasSecond) {
+				keyNames.add(hasFirst ? pair[0] : pair[1]);
+			}
+		}
+		keySlots = new int[keyNames.size()];
+		for (int i = 0; i < keySlots.length; i++) {
+			keySlots[i] = schema.getSlot(keyNames.get(i));
+		}
+		bound = true;
+		return schema;
+	}
+
+	/**
+	 * Method to get the schema of the tuples passing through the exchange.
+	 */
+	public TupleSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Method to get the columns a HASH exchange routes rows by.
+	 */
+	public List<String> getKeyNames() {
+		return keyNames;
+	}
+
+	/**
+	 * Method to take the next batch from a consumer's queue, starting the
+	 * producers if they are not running yet.
+	 *
+	 * @param consumer
+	 *            the index of the consumer.
+	 * @return the next batch of the consumer, or null once every producer has
+	 *         finished.
+	 */
+	TupleBatch take(int consumer) {
+		TupleBatch batch;
+		try {
+			awaitRestart(consumer);
+			start();
+			batch = queues.get(consumer).take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		if (batch != END) {
+			return batch;
+		}
+		// The end marker stays in the queue, so that further takes see it too.
+		queues.get(consumer).offer(END);
+		if (failure != null) {
+			throw new RuntimeException("An exchange producer failed.", failure);
+		}
+		return null;
+	}
+
+	/**
+	 * Method to ask for the exchange to start over on behalf of a consumer
+	 * that is reset. Since the consumers share the producers, the exchange
+	 * only starts over once all of them have asked: the rest of the output is
+	 * drained, the producers are reset, and they are started again on the
+	 * next take. The parents of the consumers of a HASH exchange are
+	 * partitions of one operator, which are always reset together.
+	 *
+	 * @param consumer
+	 *            the index of the consumer being reset.
+	 */
+	synchronized void restart(int consumer) {
+		restartRequested[consumer] = true;
+		for (boolean requested : restartRequested) {
+			if (!requested) {
+				return;
+			}
+		}
+		if (started) {
+			drain();
+		}
+		if (started || sampledBatches != null) {
+			for (Operator producer : producers) {
+				producer.reset();
+			}
+			sampledBatches = null;
+			started = false;
+		}
+		Arrays.fill(restartRequested, false);
+		notifyAll();
+		if (failure != null) {
+			throw new RuntimeException("An exchange producer failed.", failure);
+		}
+	}
+
+	/**
+	 * Method to wait until the exchange has started over if the consumer has
+	 * asked for it, so that the consumer does not read the previous output.
+	 *
+	 * @param consumer
+	 *            the index of the consumer.
+	 * @throws InterruptedException
+	 */
+	private synchronized void awaitRestart(int consumer) throws InterruptedException {
+		while (restartRequested[consumer]) {
+			wait();
+		}
+	}
+
+	/**
+	 * Method to discard the output the consumers have not read, until every
+	 * producer has finished. All queues are polled in turn, since a producer
+	 * may be waiting for room in any of them.
+	 */
+	private void drain() {
+		boolean[] ended = new boolean[queues.size()];
+		int open = queues.size();
+		try {
+			while (open > 0) {
+				for (int i = 0; i < queues.size(); i++) {
+					if (!ended[i] && queues.get(i).poll(1, TimeUnit.MILLISECONDS) == END) {
+						ended[i] = true;
+						open--;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		for (ArrayBlockingQueue<TupleBatch> queue : queues) {
+			queue.clear();
+		}
+	}
+
+	/**
+	 * Method to take the first batch of every producer, before the producers
+	 * are started, so that the keys of the rows can be sampled. The batches
+	 * are taken on the worker pool, since producers below another exchange
+	 * may only get their first batch once their siblings consume theirs too;
+	 * they are routed first once the producers run.
+	 *
+	 * @return the first batches of the producers.
+	 */
+	synchronized List<TupleBatch> sample() {
+		List<TupleBatch> sample = new ArrayList<TupleBatch>();
+		if (sampledBatches != null || started || keySlots.length == 0) {
+			return sample;
+		}
+		List<Future<TupleBatch>> firstBatches = new ArrayList<Future<TupleBatch>>();
+		for (final Operator producer : producers) {
+			firstBatches.add(workers.submit(() -> producer.getNextBatch()));
+		}
+		sampledBatches = new TupleBatch[producers.size()];
+		for (int i = 0; i < producers.size(); i++) {
+			try {
+				sampledBatches[i] = firstBatches.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("An exchange producer failed.", e.getCause());
+			}
+			if (sampledBatches[i] != null) {
+				sample.add(sampledBatches[i]);
+			}
+		}
+		return sample;
+	}
+
+	/**
+	 * Method to get the key of a row, as the values of its key columns.
+	 *
+	 * @param batch
+	 *            the batch holding the row.
+	 * @param row
+	 *            the row whose key is read.
+	 * @return the key of the row.
+	 */
+	List<Integer> keyOf(TupleBatch batch, int row) {
+		List<Integer> key = new ArrayList<Integer>(keySlots.length);
+		for (int slot : keySlots) {
+			key.add(batch.getColumn(slot)[row]);
+		}
+		return key;
+	}
+
+	/**
+	 * Submits one task per producer to the worker pool, the first time a
+	 * batch is asked of any consumer. A HASH exchange below a hash join
+	 * first gets the heavy keys of the join, outside of its own lock since
+	 * finding them locks the probe side's exchange.
+	 */
+	private void start() {
+		if (started) {
+			return;
+		}
+		int[][] keys = (skew != null) ? skew.getKeys() : heavyKeys;
+		synchronized (this) {
+			if (started) {
+				return;
+			}
+			heavyKeys = keys;
+			started = true;
+			failure = null;
+			runningProducers = new AtomicInteger(producers.size());
+			for (int i = 0; i < producers.size(); i++) {
+				final int producer = i;
+				workers.submit(() -> produce(producer));
+			}
+		}
+	}
+
+	/**
+	 * Runs one producer to the end of its output, routing each batch to the
+	 * consumers, starting with the batch taken from it for sampling if any.
+	 * The last producer to finish puts the end marker in every queue.
+	 *
+	 * @param index
+	 *            the index of the producer to run.
+	 */
+	private void produce(int index) {
+		try {
+			Operator producer = producers.get(index);
+			TupleBatch batch = (sampledBatches != null) ? sampledBatches[index] : producer.getNextBatch();
+			while (batch != null) {
+				route(batch);
+				batch = producer.getNextBatch();
+			}
+		} catch (Throwable e) {
+			failure = e;
+		} finally {
+			if (runningProducers.decrementAndGet() == 0) {
+				for (ArrayBlockingQueue<TupleBatch> queue : queues) {
+					put(queue, END);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Hands a batch to the consumers that should see its rows.
+	 *
+	 * @param batch
+	 *            the batch to be routed.
+	 * @throws InterruptedException
+	 */
+	private void route(TupleBatch batch) throws InterruptedException {
+		if (kind == GATHER) {
+			queues.get(0).put(batch);
+			return;
+		}
+		if (kind == BROADCAST) {
+			for (ArrayBlockingQueue<TupleBatch> queue : queues) {
+				queue.put(batch);
+			}
+			return;
+		}
+		int numConsumers = queues.size();
+		int[][] selections = new int[numConsumers][];
+		int[] counts = new int[numConsumers];
+		int[] selection = batch.getSelection();
+		int spread = nextSpread.getAndIncrement();
+		for (int i = 0; i < batch.getSelectedCount(); i++) {
+			int row = selection[i];
+			if (heavyKeys.length > 0 && isHeavy(batch, row)) {
+				if (replicateHeavy) {
+					for (int consumer = 0; consumer < numConsumers; consumer++) {
+						addRow(selections, counts, consumer, row, batch.getSelectedCount());
+					}
+				} else {
+					addRow(selections, counts, spread++ % numConsumers, row, batch.getSelectedCount());
+				}
+				continue;
+			}
+			addRow(selections, counts, consumerOf(batch, row), row, batch.getSelectedCount());
+		}
+		for (int consumer = 0; consumer < numConsumers; consumer++) {
+			if (counts[consumer] > 0) {
+				queues.get(consumer).put(new TupleBatch(batch.getSchema(), batch.getColumns(), batch.size(),
+						selections[consumer], counts[consumer]));
+			}
+		}
+	}
+
+	/**
+	 * Adds a row to the selection vector of a consumer.
+	 */
+	private static void addRow(int[][] selections, int[] counts, int consumer, int row, int maxRows) {
+		if (selections[consumer] == null) {
+			selections[consumer] = new int[maxRows];
+		}
+		selections[consumer][counts[consumer]++] = row;
+	}
+
+	/**
+	 * Checks whether the key of a row is one of the heavy keys of the join.
+	 */
+	private boolean isHeavy(TupleBatch batch, int row) {
+		for (int[] heavyKey : heavyKeys) {
+			int slot = 0;
+			while (slot < keySlots.length && batch.getColumn(keySlots[slot])[row] == heavyKey[slot]) {
+				slot++;
+			}
+			if (slot == keySlots.length) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the consumer of a row of a HASH exchange. The key hash is
+	 * scrambled with a different function than the one the hash join
+	 * partitions by, so that the rows a consumer receives still spread over
+	 * all of the join's partitions.
+	 *
+	 * @param batch
+	 *            the batch holding the row.
+	 * @param row
+	 *            the row to be routed.
+	 * @return the index of the consumer.
+	 */
+	private int consumerOf(TupleBatch batch, int row) {
+		long hash = 0;
+		for (int slot : keySlots) {
+			hash = 31 * hash + batch.getColumn(slot)[row];
+		}
+		hash *= 0x9E3779B97F4A7C15L;
+		return (int) ((hash >>> 33) % queues.size());
+	}
+
+	/**
+	 * Puts a batch in a queue, waiting for room.
+	 */
+	private static void put(ArrayBlockingQueue<TupleBatch> queue, TupleBatch batch) {
+		try {
+			queue.put(batch);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+package PhysicalOperator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * This class is responsible for reading one consumer's share of an exchange:
+ * all rows of a GATHER exchange, the rows of a HASH exchange whose key hashes
+ * to this consumer, or every row of a BROADCAST exchange. A BROADCAST
+ * consumer keeps the batches it has read, so that it can be reset, e.g. as
+ * the inner child of a block nested loop join, without running its
+ * producers again.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class ExchangeOperator extends Operator {
+
+	public Exchange exchange;
+	private int consumer;
+	private TupleBatchCursor cursor;
+	private List<TupleBatch> received;
+	private int replayIndex;
+	private boolean complete;
+
+	/**
+	 * Constructor for ExchangeOperator.
+	 *
+	 * @param exchange
+	 *            the exchange this operator reads from.
+	 * @param consumer
+	 *            the index of this consumer in the exchange.
+	 */
+	public ExchangeOperator(Exchange exchange, int consumer) {
+		this.exchange = exchange;
+		this.consumer = consumer;
+		cursor = new TupleBatchCursor(this, "ExchangedTuple");
+		received = new ArrayList<TupleBatch>();
+		replayIndex = 0;
+		complete = false;
+	}
+
+	/**
+	 * Method to get the next tuple of this consumer's share of the exchange.
+	 *
+	 * @return the next tuple, or null once every producer has finished.
+	 */
+	@Override
+	public Tuple getNextTuple() {
+		return cursor.getNextTuple();
+	}
+
+	/**
+	 * Method to get the next batch of this consumer's share of the exchange,
+	 * waiting for the producers if none is queued.
+	 *
+	 * @return the next batch, or null once every producer has finished.
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		if (exchange.kind != Exchange.BROADCAST) {
+			return exchange.take(consumer);
+		}
+		if (replayIndex == received.size()) {
+			if (complete) {
+				return null;
+			}
+			TupleBatch batch = exchange.take(consumer);
+			if (batch == null) {
+				complete = true;
+				return null;
+			}
+			received.add(batch);
+		}
+		// Consumers may narrow the selection vector, so each read gets its own.
+		TupleBatch batch = received.get(replayIndex++);
+		return new TupleBatch(batch.getSchema(), batch.getColumns(), batch.size(), batch.getSelection().clone(),
+				batch.getSelectedCount());
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * again from the beginning. A BROADCAST consumer replays the batches it
+	 * has kept; the other consumers make the exchange run its producers again
+	 * once all of them have been reset.
+	 */
+	@Override
+	public void reset() {
+		if (exchange.kind == Exchange.BROADCAST) {
+			replayIndex = 0;
+		} else {
+			exchange.restart(consumer);
+		}
+		cursor.reset();
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * from the specified index. If the Operator is not a sort operator, this
+	 * function does nothing.
+	 */
+	@Override
+	public void reset(int index) {
+	}
+
+	/**
+	 * Method for accepting visitor; just calls back visitor. Visitor method
+	 * uses postorder traversal.
+	 *
+	 * @param visitor
+	 *            visitor to be accepted
+	 */
+	public void accept(PhysicalPlanVisitor visitor) {
+		visitor.visit(this);
+	}
+
+}
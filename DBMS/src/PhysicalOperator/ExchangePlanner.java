@@ -0,0 +1,364 @@
+package PhysicalOperator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import DBMS.DatabaseCatalog;
+import DBMS.JavaUtils;
+import DBMS.MorselCursor;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.schema.Column;
+
+/**
+ * Visitor to traverse through a physical operator tree once, after it is
+ * built and before it is bound, splitting it into partitions that run on the
+ * exchange workers. Post-order tree traversal is used: each operator is
+ * visited after its children have been split, and leaves the list of its own
+ * partitions on the stack.
+ *
+ * Table scans over more than one morsel are split into one scan per worker,
+ * each claiming morsels of the table from a shared cursor until none is
+ * left, and selections and projections are copied onto every partition of
+ * their child, so each worker filters and projects the morsels it scans.
+ * A hash join over partitioned input repartitions both children by their
+ * join keys through HASH exchanges and runs one join per worker, and a
+ * block nested loop join runs in parallel mode over the GATHER of each
+ * child. Every other operator runs serially over the GATHER of its
+ * children's partitions, and so does the root.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public class ExchangePlanner implements PhysicalPlanVisitor {
+
+	private Stack<List<Operator>> partitionStack;
+	private int numWorkers;
+
+	/**
+	 * Constructor for ExchangePlanner.
+	 *
+	 * @param numWorkers
+	 *            the number of workers a partitioned operator is split over.
+	 */
+	public ExchangePlanner(int numWorkers) {
+		this.numWorkers = numWorkers;
+		partitionStack = new Stack<List<Operator>>();
+	}
+
+	/**
+	 * Method to split the given operator tree over the workers.
+	 *
+	 * @param root
+	 *            the root of the operator tree.
+	 * @param numWorkers
+	 *            the number of workers.
+	 * @return the root of the parallel operator tree.
+	 */
+	public static Operator parallelize(Operator root, int numWorkers) {
+		ExchangePlanner planner = new ExchangePlanner(numWorkers);
+		root.accept(planner);
+		return gather(planner.partitionStack.pop());
+	}
+
+	/**
+	 * Returns the single operator reading all of the given partitions.
+	 */
+	private static Operator gather(List<Operator> partitions) {
+		if (partitions.size() == 1) {
+			return partitions.get(0);
+		}
+		return new Exchange(Exchange.GATHER, partitions, null, 1).getConsumer(0);
+	}
+
+	/**
+	 * Returns the single operator reading every tuple of the given
+	 * partitions, which keeps what it has read so that it can be reset.
+	 */
+	private static Operator gatherResettable(List<Operator> partitions) {
+		if (partitions.size() == 1) {
+			return partitions.get(0);
+		}
+		return new Exchange(Exchange.BROADCAST, partitions, null, 1).getConsumer(0);
+	}
+
+	/**
+	 * Returns a list holding only the given operator.
+	 */
+	private static List<Operator> single(Operator operator) {
+		List<Operator> partitions = new ArrayList<Operator>();
+		partitions.add(operator);
+		return partitions;
+	}
+
+	/**
+	 * Returns the pairs of column names equated by the conjuncts of a join
+	 * condition.
+	 */
+	private static List<String[]> keyPairs(Expression exp) {
+		List<String[]> pairs = new ArrayList<String[]>();
+		for (Expression conjunct : new JavaUtils().expressionToList(exp)) {
+			if (conjunct instanceof EqualsTo) {
+				Expression first = ((EqualsTo) conjunct).getLeftExpression();
+				Expression second = ((EqualsTo) conjunct).getRightExpression();
+				if (first instanceof Column && second instanceof Column) {
+					pairs.add(new String[] { first.toString(), second.toString() });
+				}
+			}
+		}
+		return pairs;
+	}
+
+	/**
+	 * Visit method for BNLJoinOperator node. The join runs in parallel mode,
+	 * its workers sharing one in-memory copy of the inner child.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(BNLJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		node.rightChild = gather(partitionStack.pop());
+		node.leftChild = gather(partitionStack.pop());
+		node.setWorkers(numWorkers, DatabaseCatalog.getInstance().getNestedLoopJoinBuffer());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for DuplicateEliminationOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(DuplicateEliminationOperator node) {
+		node.sorter.accept(this);
+		node.sorter = gather(partitionStack.pop());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for ExternalSortOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ExternalSortOperator node) {
+		node.childOperator.accept(this);
+		node.childOperator = gather(partitionStack.pop());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for IndexScanOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IndexScanOperator node) {
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for ScanOperator node. The scan is split into one scan per
+	 * worker, or per morsel if there are fewer morsels than workers.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ScanOperator node) {
+		MorselCursor morsels = new MorselCursor(node.getNumPages(),
+				DatabaseCatalog.getInstance().getMorselPages());
+		int numPartitions = Math.min(numWorkers, morsels.getNumMorsels());
+		if (numPartitions < 2) {
+			partitionStack.push(single(node));
+			return;
+		}
+		List<Operator> scans = new ArrayList<Operator>();
+		for (int i = 0; i < numPartitions; i++) {
+			scans.add(node.partition(morsels));
+		}
+		partitionStack.push(scans);
+	}
+
+	/**
+	 * Visit method for ColumnarScanOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ColumnarScanOperator node) {
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for SelectionOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(SelectionOperator node) {
+		node.scanner.accept(this);
+		List<Operator> childParts = partitionStack.pop();
+		if (childParts.size() == 1) {
+			node.scanner = childParts.get(0);
+			partitionStack.push(single(node));
+			return;
+		}
+		List<Operator> selections = new ArrayList<Operator>();
+		for (Operator part : childParts) {
+			selections.add(new SelectionOperator(node.getFromClause(), node.selectionCondition, null, part));
+		}
+		partitionStack.push(selections);
+	}
+
+	/**
+	 * Visit method for SMJOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(SMJOperator node) {
+		node.outerChild.accept(this);
+		node.innerChild.accept(this);
+		node.innerChild = gather(partitionStack.pop());
+		node.outerChild = gather(partitionStack.pop());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for SortOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(SortOperator node) {
+		node.childOperator.accept(this);
+		node.childOperator = gather(partitionStack.pop());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for TNLJoinOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(TNLJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		node.rightChild = gatherResettable(partitionStack.pop());
+		node.leftChild = gather(partitionStack.pop());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for HashJoinOperator node. Each worker's join gets the
+	 * rows of both children whose keys hash to it, and splits the memory of
+	 * the serial join with the others. The rows of heavy keys are spread over
+	 * the workers on the probe side and copied to every worker on the build
+	 * side.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(HashJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		List<Operator> rightParts = partitionStack.pop();
+		List<Operator> leftParts = partitionStack.pop();
+		if (leftParts.size() == 1 && rightParts.size() == 1) {
+			node.leftChild = leftParts.get(0);
+			node.rightChild = rightParts.get(0);
+			partitionStack.push(single(node));
+			return;
+		}
+		List<String[]> keys = keyPairs(node.exp);
+		Exchange left = new Exchange(Exchange.HASH, leftParts, keys, numWorkers);
+		Exchange right = new Exchange(Exchange.HASH, rightParts, keys, numWorkers);
+		HeavyHitters skew = new HeavyHitters(node.buildLeft ? right : left);
+		left.setSkew(skew, node.buildLeft);
+		right.setSkew(skew, !node.buildLeft);
+		int bufferCount = Math.max(2, node.getBufferCount() / numWorkers);
+		List<Operator> joins = new ArrayList<Operator>();
+		for (int i = 0; i < numWorkers; i++) {
+			joins.add(new HashJoinOperator(node.exp, left.getConsumer(i), right.getConsumer(i), node.buildLeft,
+					bufferCount));
+		}
+		partitionStack.push(joins);
+	}
+
+	/**
+	 * Visit method for IEJoinOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IEJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		node.rightChild = gather(partitionStack.pop());
+		node.leftChild = gather(partitionStack.pop());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for IndexNestedLoopJoinOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IndexNestedLoopJoinOperator node) {
+		node.outerChild.accept(this);
+		node.outerChild = gather(partitionStack.pop());
+		partitionStack.push(single(node));
+	}
+
+	/**
+	 * Visit method for ProjectionOperator node.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ProjectionOperator node) {
+		node.child.accept(this);
+		List<Operator> childParts = partitionStack.pop();
+		if (childParts.size() == 1) {
+			node.child = childParts.get(0);
+			partitionStack.push(single(node));
+			return;
+		}
+		List<Operator> projections = new ArrayList<Operator>();
+		for (Operator part : childParts) {
+			projections.add(new ProjectionOperator(node.selectClause, part));
+		}
+		partitionStack.push(projections);
+	}
+
+	/**
+	 * Visit method for ExchangeOperator node. The plan has no exchanges
+	 * before this pass, so there is nothing to split.
+	 *
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ExchangeOperator node) {
+		partitionStack.push(single(node));
+	}
+
+}
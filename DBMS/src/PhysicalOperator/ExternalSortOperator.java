@@ -2,14 +2,23 @@ package PhysicalOperator;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import DBMS.DatabaseCatalog;
+import DBMS.NormalizedKeySorter;
 import DBMS.RecordComparator;
 import DBMS.Tuple;
-import DBMS.TupleConverter;
+import DBMS.TupleBatch;
 import DBMS.TupleReaderBinary;
+import DBMS.TupleSchema;
 import DBMS.TupleWriterBinary;
 
 /**
@@ -23,32 +32,37 @@ public class ExternalSortOperator extends Operator {
 
 	private int numInputBuffers;
 	private List<String> sortOrder;
-	public static final int BUFFER_SIZE = TupleReaderBinary.BUFFER_SIZE;
 	public static final int METADATA_SIZE = 8;
 
-	private int prevTotalBuckets = 0;
-	private int prevPrevTotalBuckets = 0;
+	private int totalRuns = 0;
 	private int passNumber;
 	public Operator childOperator;
 
 	private int bufferCapacity;
+	private int pageSize;
+	private boolean replacementSelection;
+	private boolean compressedRuns;
+	private int sortThreads;
+	private ExecutorService workerPool;
+	private static final int SAMPLES_PER_PARTITION = 8;
 
 	private boolean sorted;
-	private TupleReaderBinary sortedReader;
+	private TupleReaderBinary[] sortedReaders;
+	private int[] partitionStarts;
+	private int finalPartitions;
+	private int currentPartition;
 
 	private List<String> outputOrderList;
-	private List<String> ordering;
+	private TupleSchema schema;
 	public List<String> printOrder;
 	RecordComparator theComparator;
+	private NormalizedKeySorter keySorter;
 
 	private List<Tuple> outputBuffer;
 	TupleWriterBinary outputWriter;
 	int instanceHashcode;
 	int writerBucketID = 0;
-	int readerBucketID = 0;
-	int writerFlushes = 0;
 	boolean invalid = false;
-	int currentGroup = 1;
 	Tuple childTuple;
 
 	/**
@@ -81,32 +95,41 @@ public class ExternalSortOperator extends Operator {
 
 		passNumber = 0;
 		this.childOperator = childOperator;
-		childTuple = childOperator.getNextTuple();
 		outputBuffer = new ArrayList<Tuple>();
 
-		if (childTuple != null) {
-			bufferCapacity = (TupleReaderBinary.BUFFER_SIZE / (4 * childTuple.size()));
-			outputBuffer.add(childTuple);
-			ordering = childTuple.ordering;
-		} else {
-			invalid = true;
-			bufferCapacity = 0;
-		}
-
 		sorted = false;
-		sortedReader = null;
+		sortedReaders = null;
+		pageSize = DatabaseCatalog.getInstance().getPageSize();
+		replacementSelection = DatabaseCatalog.getInstance().useReplacementSelection();
+		compressedRuns = DatabaseCatalog.getInstance().useCompressedSortRuns();
+		sortThreads = Math.max(1, DatabaseCatalog.getInstance().getSortThreads());
 		instanceHashcode = this.hashCode() + randomHelper();
+	}
+
+	/**
+	 * Method to size the sort buffer and resolve the sort order to slots of
+	 * the child's tuples at plan time.
+	 * 
+	 * @param childSchema
+	 *            the schema of the tuples produced by the child operator.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema childSchema) {
+		schema = childSchema;
+		bufferCapacity = (pageSize / (4 * schema.size()));
 		String[] comparisons = sortOrder.toArray(new String[0]);
-		theComparator = new RecordComparator(comparisons);
+		theComparator = new RecordComparator(comparisons, schema);
+		keySorter = new NormalizedKeySorter(theComparator);
+		return schema;
 	}
 
 	private void sortOutputBuffer() {
-		outputBuffer.sort(theComparator);
+		keySorter.sort(outputBuffer);
 	}
 
 	private void flushOutputBuffer() {
 		while (!outputBuffer.isEmpty()) {
-			outputWriter.writeTuple(outputBuffer.remove(0).convertToFOT());
+			outputWriter.writeTuple(outputBuffer.remove(0).getValues());
 		}
 		outputWriter.flush();
 	}
@@ -117,8 +140,7 @@ public class ExternalSortOperator extends Operator {
 	private void runPassZero() {
 		writerBucketID = 0;
 		passNumber = 0;
-		outputWriter = new TupleWriterBinary(DatabaseCatalog.getInstance().getTempDirectory() + "/" + instanceHashcode
-				+ "_" + passNumber + "_" + writerBucketID);
+		outputWriter = newRunWriter(runFile(passNumber, writerBucketID));
 
 		while (true) {
 			while (outputBuffer.size() < bufferCapacity) {
@@ -129,208 +151,430 @@ public class ExternalSortOperator extends Operator {
 					sortOutputBuffer();
 					flushOutputBuffer();
 					outputWriter.close();
-					prevTotalBuckets = writerBucketID + 1;
+					totalRuns = writerBucketID + 1;
 					writerBucketID = 0;
-					passNumber = 1;
 					return;
 				}
 			}
 			sortOutputBuffer();
 			flushOutputBuffer();
+			outputWriter.close();
 			writerBucketID++;
-			outputWriter = new TupleWriterBinary(DatabaseCatalog.getInstance().getTempDirectory() + "/"
-					+ instanceHashcode + "_" + passNumber + "_" + writerBucketID);
+			outputWriter = newRunWriter(runFile(passNumber, writerBucketID));
 
 		}
 	}
 
 	/**
-	 * Run the main sort pass (passes 1-N) of the ES algorithm
+	 * Run pass 0 of the ES algorithm by replacement selection. The buffer is
+	 * kept as a binary heap of tuples, each tagged with the run it belongs
+	 * to. The smallest tuple of the current run is written out and replaced
+	 * by the next child tuple, which joins the current run if it does not sort
+	 * before the tuple just written, and the next run otherwise. On random
+	 * input the runs average twice the buffer size; already sorted input
+	 * produces a single run.
 	 */
-	private void sort() {
-		runPassZero();
-		List<TupleReaderBinary> buffers = new ArrayList<>();
-		List<Tuple> sortStage = new ArrayList<>();
-		assert (readerBucketID == 0);
-		assert (writerBucketID == 0);
-		assert (passNumber == 1);
-		assert (currentGroup == 1);
-		outputBuffer.clear();
+	private void runPassZeroReplacementSelection() {
+		passNumber = 0;
+		int capacity = Math.max(bufferCapacity, 1);
+		final Tuple[] heapTuples = new Tuple[capacity];
+		final int[] heapRuns = new int[capacity];
+		PriorityQueue<Integer> heap = new PriorityQueue<Integer>(capacity, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer left, Integer right) {
+				if (heapRuns[left] != heapRuns[right]) {
+					return heapRuns[left] - heapRuns[right];
+				}
+				return theComparator.compare(heapTuples[left], heapTuples[right]);
+			}
+		});
 
-		// assign buffers
-		for (int i = 0; i < numInputBuffers; i++) {
-			buffers.add(null);
-			assignBuffer(buffers, i);
-			sortStage.add(null);
+		int filled = 0;
+		while (!outputBuffer.isEmpty()) {
+			heapTuples[filled] = outputBuffer.remove(0);
+			heap.add(filled++);
+		}
+		while (filled < capacity) {
+			Tuple temp = childOperator.getNextTuple();
+			if (temp == null) {
+				break;
+			}
+			heapTuples[filled] = temp;
+			heap.add(filled++);
 		}
 
-		assert (buffers.size() == numInputBuffers);
-		assert (sortStage.size() == numInputBuffers);
+		int currentRun = 0;
+		outputWriter = newRunWriter(runFile(passNumber, currentRun));
+		while (!heap.isEmpty()) {
+			int smallest = heap.poll();
+			if (heapRuns[smallest] != currentRun) {
+				outputWriter.flush();
+				outputWriter.close();
+				currentRun = heapRuns[smallest];
+				outputWriter = newRunWriter(runFile(passNumber, currentRun));
+			}
+			Tuple written = heapTuples[smallest];
+			outputWriter.writeTuple(written.getValues());
 
-		// read from buffers into list of size numInputBuffers
-		for (int i = 0; i < numInputBuffers; i++) {
-			sortStage.set(i, readFromBuffer(buffers, i));
+			Tuple temp = childOperator.getNextTuple();
+			heapTuples[smallest] = temp;
+			if (temp != null) {
+				heapRuns[smallest] = (theComparator.compare(temp, written) < 0) ? currentRun + 1 : currentRun;
+				heap.add(smallest);
+			}
 		}
+		outputWriter.flush();
+		outputWriter.close();
+		totalRuns = currentRun + 1;
+	}
 
-		outputWriter = new TupleWriterBinary(DatabaseCatalog.getInstance().getTempDirectory() + "/" + instanceHashcode
-				+ "_" + passNumber + "_" + writerBucketID);
+	/**
+	 * Run pass 0 of the ES algorithm on the worker pool. Buffer-loads are
+	 * still pulled from the child one at a time, but each full buffer is
+	 * sorted and written out by a worker while the next one is filled. At most
+	 * sortThreads buffers are being sorted at any time. The runs produced are
+	 * the same as those of runPassZero.
+	 */
+	private void runParallelPassZero() {
+		passNumber = 0;
+		List<Future<?>> pending = new ArrayList<Future<?>>();
+		List<Tuple> buffer = new ArrayList<Tuple>(outputBuffer);
+		outputBuffer.clear();
+		int run = 0;
 
 		while (true) {
-			if (!findAndReplaceSmallest(buffers, sortStage)) {
-				prevPrevTotalBuckets = prevTotalBuckets;
-				prevTotalBuckets = writerBucketID + 1;
-				flushOutputBuffer();
-				outputWriter.close();
-
-				// We are done! Return
-				if (prevTotalBuckets == 1) {
-					deleteTempFiles();
-					return;
+			Tuple temp;
+			while (buffer.size() < bufferCapacity && (temp = childOperator.getNextTuple()) != null) {
+				buffer.add(temp);
+			}
+			boolean full = buffer.size() >= bufferCapacity;
+			if (!buffer.isEmpty()) {
+				if (pending.size() >= sortThreads) {
+					awaitTask(pending.remove(0));
 				}
-				writerBucketID = 0;
-				readerBucketID = 0;
-				writerFlushes = 0;
-				deleteTempFiles();
-				passNumber++;
-				currentGroup = 1;
+				final List<Tuple> runBuffer = buffer;
+				final int runID = run;
+				pending.add(workerPool.submit(new Runnable() {
+					@Override
+					public void run() {
+						keySorter.sort(runBuffer);
+						TupleWriterBinary runWriter = newRunWriter(runFile(0, runID));
+						for (Tuple tuple : runBuffer) {
+							runWriter.writeTuple(tuple.getValues());
+						}
+						runWriter.flush();
+						runWriter.close();
+					}
+				}));
+				run++;
+			}
+			if (!full) {
+				break;
+			}
+			buffer = new ArrayList<Tuple>(bufferCapacity);
+		}
+		for (Future<?> task : pending) {
+			awaitTask(task);
+		}
+		totalRuns = run;
+	}
 
-				for (int i = 0; i < numInputBuffers; i++) {
-					assignBuffer(buffers, i);
-					sortStage.add(null);
+	/**
+	 * Run the main sort pass (passes 1-N) of the ES algorithm. Each pass merges
+	 * the runs of the previous pass in groups of numInputBuffers, until a
+	 * single run is left. In parallel mode the groups of a pass are merged
+	 * concurrently, and the final merge is split into key ranges that are
+	 * merged concurrently into consecutive output partitions.
+	 * 
+	 * Replacement selection generates the initial runs from a single heap, so
+	 * when it is enabled pass 0 runs serially even in parallel mode; only the
+	 * merge passes use the worker pool.
+	 */
+	private void sort() {
+		workerPool = (sortThreads > 1) ? Executors.newFixedThreadPool(sortThreads) : null;
+		try {
+			if (replacementSelection) {
+				runPassZeroReplacementSelection();
+			} else if (workerPool != null) {
+				runParallelPassZero();
+			} else {
+				runPassZero();
+			}
+			finalPartitions = 1;
+			while (totalRuns > numInputBuffers) {
+				passNumber++;
+				List<Future<?>> pending = new ArrayList<Future<?>>();
+				int mergedRuns = 0;
+				for (int firstRun = 0; firstRun < totalRuns; firstRun += numInputBuffers) {
+					final int groupStart = firstRun;
+					final int groupEnd = Math.min(firstRun + numInputBuffers, totalRuns);
+					final int outputRun = mergedRuns;
+					if (workerPool == null) {
+						mergeRuns(groupStart, groupEnd, null, null, outputRun);
+					} else {
+						pending.add(workerPool.submit(new Runnable() {
+							@Override
+							public void run() {
+								mergeRuns(groupStart, groupEnd, null, null, outputRun);
+							}
+						}));
+					}
+					mergedRuns++;
 				}
-				for (int i = 0; i < numInputBuffers; i++) {
-					sortStage.set(i, readFromBuffer(buffers, i));
+				for (Future<?> task : pending) {
+					awaitTask(task);
 				}
-
-				outputWriter = new TupleWriterBinary(DatabaseCatalog.getInstance().getTempDirectory() + "/"
-						+ instanceHashcode + "_" + passNumber + "_" + writerBucketID);
+				deleteRuns(passNumber - 1, totalRuns);
+				totalRuns = mergedRuns;
+			}
+			if (totalRuns > 1) {
+				passNumber++;
+				if (workerPool == null) {
+					mergeRuns(0, totalRuns, null, null, 0);
+				} else {
+					runPartitionedMerge();
+				}
+				deleteRuns(passNumber - 1, totalRuns);
+				totalRuns = 1;
+			}
+		} finally {
+			if (workerPool != null) {
+				workerPool.shutdown();
+				workerPool = null;
 			}
 		}
+	}
 
+	/**
+	 * Run the final merge of the ES algorithm on the worker pool. Splitter
+	 * keys sampled from the runs divide the key space into sortThreads
+	 * ranges, and each range is merged from every run into its own output
+	 * partition. Tuples that compare equal always fall in the same range, so
+	 * reading the partitions in order gives the same output as a single
+	 * merge.
+	 */
+	private void runPartitionedMerge() {
+		Tuple[] splitters = chooseSplitters();
+		finalPartitions = splitters.length + 1;
+		List<Future<Integer>> pending = new ArrayList<Future<Integer>>();
+		for (int i = 0; i < finalPartitions; i++) {
+			final Tuple lower = (i == 0) ? null : splitters[i - 1];
+			final Tuple upper = (i == finalPartitions - 1) ? null : splitters[i];
+			final int outputRun = i;
+			pending.add(workerPool.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					return mergeRuns(0, totalRuns, lower, upper, outputRun);
+				}
+			}));
+		}
+		partitionStarts = new int[finalPartitions + 1];
+		for (int i = 0; i < finalPartitions; i++) {
+			partitionStarts[i + 1] = partitionStarts[i] + awaitTask(pending.get(i));
+		}
+		partitionStarts[finalPartitions] = Integer.MAX_VALUE;
 	}
 
 	/**
-	 * Find smallest tuple; replace tuple from buffer at that position
+	 * Picks the keys dividing the final merge into key ranges, by sampling
+	 * the first tuple of evenly spaced pages of every run of the previous
+	 * pass.
 	 * 
-	 * @param buffers
-	 *            Buffers to query for next tuple.
-	 * @param sortStage
-	 *            List of tuples to query for smallest tuple.
-	 * @return True if more tuples in buffers, false otherwise
+	 * @return the sorted splitter tuples; range i holds the tuples from
+	 *         splitter i - 1 (inclusive) up to splitter i (exclusive).
 	 */
-	private boolean findAndReplaceSmallest(List<TupleReaderBinary> buffers, List<Tuple> sortStage) {
-		// assert(buffers.size() == sortStage.size()) && buffers.size() ==
-		// numInputBuffers);
-		Tuple smallest = null;
-		int smallestIndex = 0;
-		for (int i = 0; i < numInputBuffers; i++) {
-			if (theComparator.compare(smallest, sortStage.get(i)) > 0) {
-				smallest = sortStage.get(i);
-				smallestIndex = i;
+	private Tuple[] chooseSplitters() {
+		List<Tuple> samples = new ArrayList<Tuple>();
+		int samplesPerRun = SAMPLES_PER_PARTITION * sortThreads;
+		for (int run = 0; run < totalRuns; run++) {
+			String path = runFile(passNumber - 1, run);
+			int pages = (int) (new File(path).length() / pageSize);
+			int stride = Math.max(1, pages / samplesPerRun);
+			TupleReaderBinary reader = new TupleReaderBinary(path);
+			reader.setSchema(schema);
+			for (int page = 0; page < pages; page += stride) {
+				reader.SetPageTuplePointer(page, 0);
+				Tuple sample = reader.readTuple(true);
+				if (sample != null) {
+					samples.add(sample);
+				}
 			}
+			reader.close();
 		}
-		if (smallest != null) {
-			placeInOutput(smallest);
-		} else {
-			if (readerBucketID < prevTotalBuckets) {
-				currentGroup++;
-				for (int i = 0; i < numInputBuffers; i++) {
-					assignBuffer(buffers, i);
-					sortStage.add(null);
-				}
-				for (int i = 0; i < numInputBuffers; i++) {
-					sortStage.set(i, readFromBuffer(buffers, i));
-				}
-				return true;
+		samples.sort(theComparator);
+
+		Tuple[] splitters = new Tuple[sortThreads - 1];
+		for (int i = 1; i < sortThreads; i++) {
+			splitters[i - 1] = samples.get(i * samples.size() / sortThreads);
+		}
+		return splitters;
+	}
+
+	/**
+	 * Positions a reader of a sorted run at the first tuple that does not
+	 * sort before the given key. The page holding that tuple is found by a
+	 * binary search over the first tuple of each page.
+	 * 
+	 * @param reader
+	 *            A reader on the run.
+	 * @param path
+	 *            The path of the run.
+	 * @param key
+	 *            The key to seek to.
+	 * @return the first tuple of the run not sorting before key, or null if
+	 *         there is none.
+	 */
+	private Tuple seekRun(TupleReaderBinary reader, String path, Tuple key) {
+		int low = 0;
+		int high = (int) (new File(path).length() / pageSize) - 1;
+		int startPage = 0;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			reader.SetPageTuplePointer(mid, 0);
+			Tuple first = reader.readTuple(true);
+			if (first != null && theComparator.compare(first, key) < 0) {
+				startPage = mid;
+				low = mid + 1;
 			} else {
-				// kill switch - NO MORE TUPLES TO SORT!
-				return false;
+				high = mid - 1;
 			}
 		}
-		sortStage.set(smallestIndex, readFromBuffer(buffers, smallestIndex));
-		return true;
+		reader.SetPageTuplePointer(startPage, 0);
+		Tuple head = reader.readTuple(true);
+		while (head != null && theComparator.compare(head, key) < 0) {
+			head = reader.readTuple(true);
+		}
+		return head;
 	}
 
 	/**
-	 * Places the given tuple into the output buffer.
+	 * Merge a group of sorted runs of the previous pass into a single run of
+	 * the current pass. The run heads are kept in a binary heap ordered by the
+	 * sort order, so each output tuple costs O(log k) comparisons for a fan-in
+	 * of k. Ties are broken by run number, which keeps the merge stable.
 	 * 
-	 * @param tuple
-	 *            Tuple to be put in the output buffer
+	 * @param firstRun
+	 *            The first run of the previous pass to merge (inclusive).
+	 * @param lastRun
+	 *            The last run of the previous pass to merge (exclusive).
+	 * @param lower
+	 *            If not null, only tuples not sorting before lower are merged.
+	 * @param upper
+	 *            If not null, only tuples sorting before upper are merged.
+	 * @param outputRun
+	 *            The number of the run to write in the current pass.
+	 * @return the number of tuples written.
 	 */
-	private void placeInOutput(Tuple tuple) {
-		if (outputBuffer.size() < bufferCapacity) {
-			outputBuffer.add(tuple);
-		} else {
-			flushOutputBuffer();
-			if (outputBuffer.size() < bufferCapacity) {
-				outputBuffer.add(tuple);
-			} else {
-				System.out.println("MAJOR ERROR IN WRITING TO ES OUTPUT BUFFER");
+	private int mergeRuns(int firstRun, int lastRun, Tuple lower, Tuple upper, int outputRun) {
+		int fanIn = lastRun - firstRun;
+		TupleReaderBinary[] runReaders = new TupleReaderBinary[fanIn];
+		final Tuple[] runHeads = new Tuple[fanIn];
+		PriorityQueue<Integer> heap = new PriorityQueue<Integer>(fanIn, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer left, Integer right) {
+				int result = theComparator.compare(runHeads[left], runHeads[right]);
+				return (result != 0) ? result : left - right;
 			}
-			writerFlushes++;
-			// next bucket when we have written numInputBuffers^passNumber
-			if (writerFlushes % Math.pow(numInputBuffers, passNumber) == 0) {
-				writerBucketID++;
-				outputWriter = new TupleWriterBinary(DatabaseCatalog.getInstance().getTempDirectory() + "/"
-						+ instanceHashcode + "_" + passNumber + "_" + writerBucketID);
+		});
+
+		for (int i = 0; i < fanIn; i++) {
+			String path = runFile(passNumber - 1, firstRun + i);
+			runReaders[i] = new TupleReaderBinary(path);
+			runReaders[i].setSchema(schema);
+			runReaders[i].setReadAhead(DatabaseCatalog.getInstance().getReadAheadPages());
+			runHeads[i] = (lower == null) ? runReaders[i].readTuple(true) : seekRun(runReaders[i], path, lower);
+			if (runHeads[i] != null && (upper == null || theComparator.compare(runHeads[i], upper) < 0)) {
+				heap.add(i);
 			}
 		}
+
+		TupleWriterBinary runWriter = newRunWriter(runFile(passNumber, outputRun));
+		int written = 0;
+		while (!heap.isEmpty()) {
+			int smallest = heap.poll();
+			runWriter.writeTuple(runHeads[smallest].getValues());
+			written++;
+			runHeads[smallest] = runReaders[smallest].readTuple(true);
+			if (runHeads[smallest] != null
+					&& (upper == null || theComparator.compare(runHeads[smallest], upper) < 0)) {
+				heap.add(smallest);
+			}
+		}
+		runWriter.flush();
+		runWriter.close();
+
+		for (int i = 0; i < fanIn; i++) {
+			runReaders[i].close();
+		}
+		return written;
 	}
 
 	/**
-	 * Assign a new TupleReaderBinary to the given buffer.
+	 * Deletes the runs written in the given pass.
 	 * 
-	 * @param buffers
-	 *            The list of TupleReaderBinary to assign to
-	 * @param bufferID
-	 *            The specific buffer in buffers to assign
+	 * @param pass
+	 *            The pass whose runs are deleted.
+	 * @param runs
+	 *            The number of runs written in the pass.
 	 */
-	// reassign buffer x
-	private void assignBuffer(List<TupleReaderBinary> buffers, int bufferID) {
-		if (readerBucketID < prevTotalBuckets && readerBucketID < numInputBuffers * currentGroup) {
-			TupleReaderBinary readerBinary = new TupleReaderBinary(DatabaseCatalog.getInstance().getTempDirectory()
-					+ "/" + instanceHashcode + "_" + (passNumber - 1) + "_" + readerBucketID);
-			readerBinary.keyNames = ordering;
-			buffers.set(bufferID, readerBinary);
-			readerBucketID++;
-		} else {
-			buffers.set(bufferID, null);
+	private void deleteRuns(int pass, int runs) {
+		for (int run = 0; run < runs; run++) {
+			try {
+				File file = new File(runFile(pass, run));
+				file.delete();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
 		}
 	}
 
 	/**
-	 * Read from given buffer; if buffer is empty, try reading next
+	 * Waits for a task submitted to the worker pool to complete, rethrowing
+	 * the failure of a worker so that the sort is not continued on missing
+	 * runs.
 	 * 
-	 * @param buffers
-	 *            The list of TupleReaderBinary to read from
-	 * @param bufferID
-	 *            The specific buffer in buffers to read
-	 * @return If no next tuple in bufferID exists, return null, otherwise
-	 *         return next tuple
+	 * @param task
+	 *            The task to wait for.
+	 * @return the result of the task.
 	 */
-	private Tuple readFromBuffer(List<TupleReaderBinary> buffers, int bufferID) {
-		if (buffers.get(bufferID) == null) {
-			return null;
+	private <T> T awaitTask(Future<T> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("A sort worker failed.", e.getCause());
 		}
-		Tuple temp = buffers.get(bufferID).readTuple(true);
+	}
 
-		if (temp != null) {
-			temp.ordering = ordering;
-			return temp;
-		} else {
-			assignBuffer(buffers, bufferID);
-			if (buffers.get(bufferID) == null) {
-				return null;
-			}
-			temp = buffers.get(bufferID).readTuple(true);
+	/**
+	 * Returns the path of the temp file holding a run.
+	 * 
+	 * @param pass
+	 *            The pass the run was written in.
+	 * @param run
+	 *            The number of the run within its pass.
+	 * @return the path of the run's temp file.
+	 */
+	private String runFile(int pass, int run) {
+		return DatabaseCatalog.getInstance().getTempDirectory() + "/" + instanceHashcode + "_" + pass + "_" + run;
+	}
 
-			if (temp != null) {
-				temp.ordering = ordering;
-				return temp;
-			} else {
-				return null;
-			}
+	/**
+	 * Returns a writer for a run, writing compressed pages if compressed
+	 * sort runs are enabled.
+	 * 
+	 * @param path
+	 *            The path of the run's temp file.
+	 * @return the writer of the run.
+	 */
+	private TupleWriterBinary newRunWriter(String path) {
+		TupleWriterBinary writer = new TupleWriterBinary(path);
+		if (compressedRuns) {
+			writer.compressPages();
 		}
+		return writer;
 	}
 
 	/**
@@ -338,31 +582,68 @@ public class ExternalSortOperator extends Operator {
 	 */
 	@Override
 	public Tuple getNextTuple() {
-		if (invalid) {
+		if (!prepareSortedOutput()) {
 			return null;
 		}
+		while (true) {
+			Tuple next = sortedReaders[currentPartition].readTuple(true);
+			if (next != null || currentPartition == finalPartitions - 1) {
+				return next;
+			}
+			currentPartition++;
+			sortedReaders[currentPartition].reset();
+		}
+	}
+
+	/**
+	 * @return The next batch from the sorted input, read straight from the
+	 *         pages of the sorted runs.
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		if (!prepareSortedOutput()) {
+			return null;
+		}
+		while (true) {
+			TupleBatch next = sortedReaders[currentPartition].readBatch(true, TupleBatch.DEFAULT_CAPACITY);
+			if (next != null || currentPartition == finalPartitions - 1) {
+				return next;
+			}
+			currentPartition++;
+			sortedReaders[currentPartition].reset();
+		}
+	}
+
+	/**
+	 * Sorts the input on the first request for output and opens the readers
+	 * of the sorted runs.
+	 * 
+	 * @return false if the input is empty.
+	 */
+	private boolean prepareSortedOutput() {
+		if (invalid) {
+			return false;
+		}
 		if (sorted == false) {
+			childTuple = childOperator.getNextTuple();
+			if (childTuple == null) {
+				invalid = true;
+				return false;
+			}
+			outputBuffer.add(childTuple);
 			this.sort();
-			String tempDirectory = DatabaseCatalog.getInstance().getTempDirectory();
-			String filepath = tempDirectory + "/" + instanceHashcode + "_" + (passNumber) + "_" + 0;
-			TupleConverter tc = new TupleConverter();
-			tc.compress(filepath);
-			sortedReader = new TupleReaderBinary(filepath);
-			sortedReader.keyNames = ordering;
+			if (finalPartitions == 1) {
+				partitionStarts = new int[] { 0, Integer.MAX_VALUE };
+			}
+			sortedReaders = new TupleReaderBinary[finalPartitions];
+			for (int i = 0; i < finalPartitions; i++) {
+				sortedReaders[i] = new TupleReaderBinary(runFile(passNumber, i));
+				sortedReaders[i].setSchema(schema);
+			}
+			currentPartition = 0;
 			sorted = true;
 		}
-		Tuple ret = sortedReader.readTuple(true);
-		if (ret == null) {
-			/*
-			 * try { File file = new
-			 * File(DatabaseCatalog.getInstance().getTempDirectory() + "/" +
-			 * instanceHashcode + "_" + (passNumber) + "_" + 0); file.delete();
-			 * } catch (Exception e) { e.printStackTrace(); }
-			 */
-		} else {
-			ret.ordering = ordering;
-		}
-		return ret;
+		return true;
 	}
 
 	@Override
@@ -375,8 +656,13 @@ public class ExternalSortOperator extends Operator {
 	 */
 	@Override
 	public void reset(int index) {
-		if (sorted) {
-			sortedReader.reset(index);
+		if (sorted && !invalid) {
+			int partition = 0;
+			while (index >= partitionStarts[partition + 1]) {
+				partition++;
+			}
+			currentPartition = partition;
+			sortedReaders[partition].reset(index - partitionStarts[partition]);
 		}
 	}
 
@@ -391,22 +677,6 @@ public class ExternalSortOperator extends Operator {
 		return randomNum;
 	}
 
-	/**
-	 * Remove temp files used by the ES algorithm.
-	 */
-	private void deleteTempFiles() {
-		for (int i = 0; i < prevPrevTotalBuckets; i++) {
-			try {
-				String filename = DatabaseCatalog.getInstance().getTempDirectory() + "/" + instanceHashcode + "_"
-						+ (passNumber - 1) + "_" + i;
-				File file = new File(filename);
-				file.delete();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-	}
-
 	/**
 	 * Method for accepting visitor; just calls back visitor. Visitor method
 	 * uses postorder traversal.
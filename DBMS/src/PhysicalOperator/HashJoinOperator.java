@@ -0,0 +1,442 @@
+package PhysicalOperator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import DBMS.DatabaseCatalog;
+import DBMS.JavaUtils;
+import DBMS.Tuple;
+import DBMS.TupleCompare;
+import DBMS.TupleReaderBinary;
+import DBMS.TupleSchema;
+import DBMS.TupleWriterBinary;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.schema.Column;
+
+/**
+ * This class is responsible for joining two tables on one or more equality
+ * conditions with a hybrid hash join. The build child is hash partitioned on
+ * its join columns and as many partitions as the buffer allows are kept in an
+ * in-memory hash table; the rest are spilled to the temp directory. The probe
+ * child is then streamed once: tuples of resident partitions are matched
+ * against the hash table immediately, and tuples of spilled partitions are
+ * spilled alongside them. Each pair of spilled partitions is then joined the
+ * same way, repartitioning with a new hash seed if it still does not fit. Any
+ * non-equality part of the join condition is applied to the matches as a
+ * residual condition.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class HashJoinOperator extends Operator {
+
+	public Expression exp;
+	public Operator leftChild;
+	public Operator rightChild;
+	public boolean buildLeft;
+
+	private TupleSchema joinedSchema;
+	private int[] leftKeySlots;
+	private int[] rightKeySlots;
+	private TupleCompare keyComparator;
+	private TuplePredicate residualPredicate;
+
+	private TupleSchema buildSchema;
+	private TupleSchema probeSchema;
+	private int bufferCount;
+	private int numPartitions;
+	private int memoryCapacity;
+	private int instanceHashcode;
+	public static final int MAX_PARTITIONS = 64;
+	public static final int MAX_DEPTH = 8;
+
+	private HashMap<Integer, ArrayList<Tuple>> hashTable;
+	private Tuple probeTuple;
+	private ArrayList<Tuple> bucket;
+	private int bucketIndex;
+
+	private int passDepth;
+	private int passPartitionId;
+	private int[] spilledIds;
+	private TupleWriterBinary[] buildWriters;
+	private TupleWriterBinary[] probeWriters;
+	private TupleReaderBinary probeReader;
+	private Queue<int[]> pendingPartitions;
+	private int nextPartitionId;
+	private boolean spilled;
+	private boolean finished;
+
+	/**
+	 * Constructor for HashJoinOperator.
+	 * 
+	 * @param exp
+	 *            The join condition; it must contain at least one equality
+	 *            between a column of each child.
+	 * @param leftChild
+	 *            The left child operator.
+	 * @param rightChild
+	 *            The right child operator.
+	 * @param buildLeft
+	 *            true to build the hash table on the left child and probe with
+	 *            the right child; false for the reverse.
+	 * @param bufferCount
+	 *            the number of pages the operator may keep in memory.
+	 */
+	public HashJoinOperator(Expression exp, Operator leftChild, Operator rightChild, boolean buildLeft,
+			int bufferCount) {
+		this.exp = exp;
+		this.leftChild = leftChild;
+		this.rightChild = rightChild;
+		this.buildLeft = buildLeft;
+		this.bufferCount = bufferCount;
+		pendingPartitions = new LinkedList<int[]>();
+		instanceHashcode = this.hashCode();
+	}
+
+	/**
+	 * Method to get the number of pages the operator may keep in memory.
+	 */
+	public int getBufferCount() {
+		return bufferCount;
+	}
+
+	/**
+	 * Method to split the join condition into the equality keys and the
+	 * residual condition, and resolve both against the children's schemas at
+	 * plan time.
+	 * 
+	 * @param leftSchema
+	 *            the schema of the tuples produced by the left child.
+	 * @param rightSchema
+	 *            the schema of the tuples produced by the right child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema leftSchema, TupleSchema rightSchema) {
+		List<Expression> conjuncts = new JavaUtils().expressionToList(exp);
+
+		List<Integer> leftKeys = new ArrayList<Integer>();
+		List<Integer> rightKeys = new ArrayList<Integer>();
+		Expression residual = null;
+		for (Expression conjunct : conjuncts) {
+			if (!addKey(conjunct, leftSchema, rightSchema, leftKeys, rightKeys)) {
+				residual = (residual == null) ? conjunct : new AndExpression(residual, conjunct);
+			}
+		}
+		if (leftKeys.isEmpty()) {
+			throw new IllegalArgumentException("Hash join condition " + exp + " has no equality key.");
+		}
+
+		leftKeySlots = new int[leftKeys.size()];
+		rightKeySlots = new int[rightKeys.size()];
+		for (int i = 0; i < leftKeySlots.length; i++) {
+			leftKeySlots[i] = leftKeys.get(i);
+			rightKeySlots[i] = rightKeys.get(i);
+		}
+		keyComparator = new TupleCompare(leftKeySlots, rightKeySlots);
+
+		buildSchema = buildLeft ? leftSchema : rightSchema;
+		probeSchema = buildLeft ? rightSchema : leftSchema;
+		// one output page is reserved for each partition that may be spilled
+		numPartitions = Math.max(2, Math.min(MAX_PARTITIONS, bufferCount / 2));
+		int tuplesPerPage = (DatabaseCatalog.getInstance().getPageSize() - TupleReaderBinary.METADATA_SIZE)
+				/ (TupleReaderBinary.BYTE_SIZE * buildSchema.size());
+		memoryCapacity = Math.max(1, (bufferCount - numPartitions) * tuplesPerPage);
+
+		joinedSchema = leftSchema.concat(rightSchema);
+		residualPredicate = PredicateCompiler.compile(BindColumnVisitor.bind(residual, joinedSchema),
+				leftSchema.size());
+		return joinedSchema;
+	}
+
+	/**
+	 * Records the given conjunct as a hash key if it equates a column of the
+	 * left child with a column of the right child.
+	 * 
+	 * @return true if the conjunct was used as a key; false otherwise.
+	 */
+	private boolean addKey(Expression conjunct, TupleSchema leftSchema, TupleSchema rightSchema,
+			List<Integer> leftKeys, List<Integer> rightKeys) {
+		if (!(conjunct instanceof EqualsTo)) {
+			return false;
+		}
+		Expression first = ((EqualsTo) conjunct).getLeftExpression();
+		Expression second = ((EqualsTo) conjunct).getRightExpression();
+		if (!(first instanceof Column) || !(second instanceof Column)) {
+			return false;
+		}
+		String firstName = first.toString();
+		String secondName = second.toString();
+		if (leftSchema.contains(firstName) && rightSchema.contains(secondName)) {
+			leftKeys.add(leftSchema.getSlot(firstName));
+			rightKeys.add(rightSchema.getSlot(secondName));
+			return true;
+		}
+		if (leftSchema.contains(secondName) && rightSchema.contains(firstName)) {
+			leftKeys.add(leftSchema.getSlot(secondName));
+			rightKeys.add(rightSchema.getSlot(firstName));
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the hash of the join key of a tuple.
+	 * 
+	 * @param tuple
+	 *            the tuple to be hashed.
+	 * @param keySlots
+	 *            the slots of the join key within the tuple.
+	 * @return the hash of the join key.
+	 */
+	private static int hashKey(Tuple tuple, int[] keySlots) {
+		int hash = 0;
+		for (int slot : keySlots) {
+			hash = 31 * hash + tuple.getValue(slot);
+		}
+		return hash;
+	}
+
+	/**
+	 * Computes the partition of a tuple in the current pass. Each level of
+	 * recursion mixes the key hash with a different seed, so a partition that
+	 * was too big is split differently when it is repartitioned.
+	 * 
+	 * @param tuple
+	 *            the tuple to be partitioned.
+	 * @param keySlots
+	 *            the slots of the join key within the tuple.
+	 * @return the partition index.
+	 */
+	private int partitionOf(Tuple tuple, int[] keySlots) {
+		int hash = hashKey(tuple, keySlots) ^ (passDepth * 0x9E3779B9);
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		hash *= 0xC2B2AE35;
+		hash ^= hash >>> 16;
+		return (hash & 0x7fffffff) % numPartitions;
+	}
+
+	/**
+	 * Returns the path of the temp file holding one side of a spilled
+	 * partition.
+	 */
+	private String partitionFile(int partitionId, boolean build) {
+		return DatabaseCatalog.getInstance().getTempDirectory() + "/" + instanceHashcode + "_hj_" + partitionId
+				+ (build ? "_build" : "_probe");
+	}
+
+	/**
+	 * Runs the build phase of one pass. At the top level the build tuples come
+	 * from the build child; for a spilled partition they are read back from
+	 * its temp file. Tuples are kept in memory partition by partition; whenever
+	 * the buffer overflows, the largest resident partition is written out to
+	 * the temp directory and the rest of its tuples follow it there. Once the
+	 * recursion is MAX_DEPTH deep, nothing is spilled any more.
+	 * 
+	 * @param partitionId
+	 *            the spilled partition to be joined, or -1 for the children.
+	 * @param depth
+	 *            the recursion depth of the pass.
+	 */
+	private void startPass(int partitionId, int depth) {
+		passDepth = depth;
+		passPartitionId = partitionId;
+		int[] buildKeySlots = buildLeft ? leftKeySlots : rightKeySlots;
+		Operator buildChild = buildLeft ? leftChild : rightChild;
+		TupleReaderBinary buildReader = null;
+		if (partitionId >= 0) {
+			buildReader = new TupleReaderBinary(partitionFile(partitionId, true));
+			buildReader.setSchema(buildSchema);
+			probeReader = new TupleReaderBinary(partitionFile(partitionId, false));
+			probeReader.setSchema(probeSchema);
+		} else {
+			probeReader = null;
+		}
+
+		List<ArrayList<Tuple>> partitions = new ArrayList<ArrayList<Tuple>>();
+		for (int i = 0; i < numPartitions; i++) {
+			partitions.add(new ArrayList<Tuple>());
+		}
+		spilledIds = new int[numPartitions];
+		buildWriters = new TupleWriterBinary[numPartitions];
+		probeWriters = new TupleWriterBinary[numPartitions];
+		int residentTuples = 0;
+
+		Tuple tuple;
+		while ((tuple = (buildReader != null) ? buildReader.readTuple(true) : buildChild.getNextTuple()) != null) {
+			int partition = partitionOf(tuple, buildKeySlots);
+			if (buildWriters[partition] != null) {
+				buildWriters[partition].writeTuple(tuple.getValues());
+				continue;
+			}
+			partitions.get(partition).add(tuple);
+			residentTuples++;
+			if (residentTuples > memoryCapacity && depth < MAX_DEPTH) {
+				int largest = -1;
+				for (int i = 0; i < numPartitions; i++) {
+					if (buildWriters[i] == null
+							&& (largest < 0 || partitions.get(i).size() > partitions.get(largest).size())) {
+						largest = i;
+					}
+				}
+				spilledIds[largest] = nextPartitionId++;
+				buildWriters[largest] = new TupleWriterBinary(partitionFile(spilledIds[largest], true));
+				probeWriters[largest] = new TupleWriterBinary(partitionFile(spilledIds[largest], false));
+				for (Tuple spilledTuple : partitions.get(largest)) {
+					buildWriters[largest].writeTuple(spilledTuple.getValues());
+				}
+				residentTuples -= partitions.get(largest).size();
+				partitions.set(largest, new ArrayList<Tuple>());
+				spilled = true;
+			}
+		}
+
+		for (TupleWriterBinary writer : buildWriters) {
+			if (writer != null) {
+				writer.flush();
+				writer.close();
+			}
+		}
+		if (partitionId >= 0) {
+			new File(partitionFile(partitionId, true)).delete();
+		}
+
+		hashTable = new HashMap<Integer, ArrayList<Tuple>>();
+		for (ArrayList<Tuple> partition : partitions) {
+			for (Tuple resident : partition) {
+				int hash = hashKey(resident, buildKeySlots);
+				ArrayList<Tuple> entries = hashTable.get(hash);
+				if (entries == null) {
+					entries = new ArrayList<Tuple>();
+					hashTable.put(hash, entries);
+				}
+				entries.add(resident);
+			}
+		}
+	}
+
+	/**
+	 * Ends the probe phase of the current pass and queues the partitions it
+	 * spilled, to be joined one level deeper.
+	 */
+	private void finishPass() {
+		for (int i = 0; i < numPartitions; i++) {
+			if (probeWriters[i] != null) {
+				probeWriters[i].flush();
+				probeWriters[i].close();
+				pendingPartitions.add(new int[] { spilledIds[i], passDepth + 1 });
+			}
+		}
+		if (passPartitionId >= 0) {
+			new File(partitionFile(passPartitionId, false)).delete();
+		}
+		hashTable = null;
+		bucket = null;
+	}
+
+	/**
+	 * Method to get the next joined tuple satisfying the join condition if such
+	 * exists.
+	 * 
+	 * @return joined tuple satisfying the join condition.
+	 */
+	@Override
+	public Tuple getNextTuple() {
+		if (hashTable == null) {
+			if (finished) {
+				return null;
+			}
+			startPass(-1, 0);
+		}
+		Operator probeChild = buildLeft ? rightChild : leftChild;
+		int[] probeKeySlots = buildLeft ? rightKeySlots : leftKeySlots;
+
+		while (true) {
+			if (bucket != null) {
+				while (bucketIndex < bucket.size()) {
+					Tuple buildTuple = bucket.get(bucketIndex++);
+					Tuple leftTuple = buildLeft ? buildTuple : probeTuple;
+					Tuple rightTuple = buildLeft ? probeTuple : buildTuple;
+					if (keyComparator.equals(leftTuple, rightTuple)
+							&& residualPredicate.test(leftTuple, rightTuple)) {
+						return Tuple.join("JoinedTuple", leftTuple, rightTuple, joinedSchema);
+					}
+				}
+			}
+			probeTuple = (probeReader != null) ? probeReader.readTuple(true) : probeChild.getNextTuple();
+			if (probeTuple == null) {
+				finishPass();
+				int[] next = pendingPartitions.poll();
+				if (next == null) {
+					finished = true;
+					return null;
+				}
+				startPass(next[0], next[1]);
+				continue;
+			}
+			int partition = partitionOf(probeTuple, probeKeySlots);
+			if (probeWriters[partition] != null) {
+				probeWriters[partition].writeTuple(probeTuple.getValues());
+				bucket = null;
+				continue;
+			}
+			bucket = hashTable.get(hashKey(probeTuple, probeKeySlots));
+			bucketIndex = 0;
+		}
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * again from the beginning. If the whole build input fit in memory, the
+	 * hash table is kept and only the probe child is read again; otherwise
+	 * both children are read again. Both children are reset either way, since
+	 * the consumers of an exchange below the join only start over once all
+	 * partitions of the join have reset them; resetting the build child does
+	 * not read it.
+	 */
+	@Override
+	public void reset() {
+		if (!spilled && hashTable != null) {
+			leftChild.reset();
+			rightChild.reset();
+		} else {
+			if (hashTable != null) {
+				finishPass();
+			}
+			int[] pending;
+			while ((pending = pendingPartitions.poll()) != null) {
+				new File(partitionFile(pending[0], true)).delete();
+				new File(partitionFile(pending[0], false)).delete();
+			}
+			leftChild.reset();
+			rightChild.reset();
+			hashTable = null;
+			spilled = false;
+		}
+		finished = false;
+		bucket = null;
+		probeTuple = null;
+	}
+
+	@Override
+	public void reset(int index) {
+	}
+
+	/**
+	 * Method for accepting visitor; just calls back visitor. Visitor method
+	 * uses postorder traversal.
+	 * 
+	 * @param visitor
+	 *            visitor to be accepted
+	 */
+	public void accept(PhysicalPlanVisitor visitor) {
+		visitor.visit(this);
+	}
+
+}
@@ -0,0 +1,80 @@
+package PhysicalOperator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import DBMS.TupleBatch;
+
+/**
+ * This class finds the join keys that are too frequent on the probe side of
+ * a parallel hash join for hash routing to balance, by sampling the first
+ * batch of every producer of the probe side's HASH exchange. A key is heavy
+ * if it makes up more than half of a consumer's fair share of the sample.
+ * The probe exchange then spreads the rows of heavy keys over all consumers,
+ * and the build exchange hands the rows of heavy keys to every consumer, so
+ * each probe row still meets all of its matches exactly once.
+ *
+ * The keys are found once, when either exchange of the join is started.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public class HeavyHitters {
+
+	public static final int MIN_HEAVY_ROWS = 16;
+
+	private Exchange probeExchange;
+	private int[][] keys;
+
+	/**
+	 * Constructor for HeavyHitters.
+	 *
+	 * @param probeExchange
+	 *            the HASH exchange of the probe side of the join.
+	 */
+	public HeavyHitters(Exchange probeExchange) {
+		this.probeExchange = probeExchange;
+	}
+
+	/**
+	 * Method to get the heavy keys, sampling the probe side the first time.
+	 *
+	 * @return the heavy keys, in the order of the exchanges' key columns.
+	 */
+	public synchronized int[][] getKeys() {
+		if (keys == null) {
+			keys = detect();
+		}
+		return keys;
+	}
+
+	/**
+	 * Counts the keys of the sampled rows and keeps the heavy ones.
+	 */
+	private int[][] detect() {
+		int numConsumers = probeExchange.getNumConsumers();
+		Map<List<Integer>, Integer> counts = new HashMap<List<Integer>, Integer>();
+		int sampleRows = 0;
+		for (TupleBatch batch : probeExchange.sample()) {
+			int[] selection = batch.getSelection();
+			for (int i = 0; i < batch.getSelectedCount(); i++) {
+				counts.merge(probeExchange.keyOf(batch, selection[i]), 1, Integer::sum);
+				sampleRows++;
+			}
+		}
+		List<int[]> heavy = new ArrayList<int[]>();
+		for (Map.Entry<List<Integer>, Integer> entry : counts.entrySet()) {
+			int count = entry.getValue();
+			if (count >= MIN_HEAVY_ROWS && 2L * numConsumers * count > sampleRows) {
+				int[] key = new int[entry.getKey().size()];
+				for (int i = 0; i < key.length; i++) {
+					key[i] = entry.getKey().get(i);
+				}
+				heavy.add(key);
+			}
+		}
+		return heavy.toArray(new int[heavy.size()][]);
+	}
+
+}
@@ -0,0 +1,549 @@
+package PhysicalOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import DBMS.DatabaseCatalog;
+import DBMS.JavaUtils;
+import DBMS.Tuple;
+import DBMS.TupleReaderBinary;
+import DBMS.TupleSchema;
+import DBMS.TupleWriterBinary;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.schema.Column;
+
+/**
+ * This class is responsible for joining two tables on a condition comparing
+ * a column of each with <, <=, > or >=, without testing the condition on
+ * every pair of tuples. Both children are read into memory once and sorted
+ * on the compared columns.
+ *
+ * With one such inequality, the join sweeps the sorted inputs: as the tuples
+ * of one input are visited in increasing order of their column, the tuples
+ * of the other input satisfying the inequality form a growing prefix of its
+ * sorted order, and each of them is a match. With two inequalities, the join
+ * is an IEJoin: the left tuples are visited in the order of the second
+ * inequality's column, the right tuples satisfying the second inequality are
+ * marked as they start to in a bit array ordered by the first inequality's
+ * column, and the marked tuples in the range satisfying the first inequality
+ * are the matches. Any other part of the join condition is applied to the
+ * matches as a residual condition.
+ *
+ * The inputs may take up at most bufferCount pages in memory. The planner
+ * only chooses this join when both inputs are estimated to fit. If they turn
+ * out not to, the tuples read so far and the rest of both children are
+ * written to files in the temp directory, and the join is run as a block
+ * nested loop join over the files: every block of the left file is joined
+ * with every block of the right file, each of half the pages, by the sweep
+ * or the IEJoin above. The children are read only once either way.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class IEJoinOperator extends Operator {
+
+	public Expression exp;
+	public Operator leftChild;
+	public Operator rightChild;
+
+	private int bufferCount;
+	private TupleSchema leftSchema;
+	private TupleSchema rightSchema;
+	private TupleSchema joinedSchema;
+	private int[] leftSlots;
+	private int[] ops;
+	private int[] rightSlots;
+	private TuplePredicate residualPredicate;
+
+	private Tuple[] leftTuples;
+	private Tuple[] rightTuples;
+	private TupleReaderBinary leftSpill;
+	private TupleReaderBinary rightSpill;
+	private long blockCapacity;
+
+	private Tuple[] prefixTuples;
+	private int[] prefixOrder;
+	private int prefixSlot;
+	private Tuple[] streamTuples;
+	private int[] streamOrder;
+	private int streamSlot;
+	private boolean prefixIsLeft;
+	private boolean strict;
+	private int streamIndex;
+	private int prefixEnd;
+	private int prefixIndex;
+
+	private int[] leftOrder;
+	private int[] rightByY;
+	private int[] rightByX;
+	private int[] rightRanks;
+	private int[] sortedX;
+	private BitSet marked;
+	private int markIndex;
+	private int leftIndex;
+	private int scanPosition;
+	private int scanEnd;
+
+	/**
+	 * Constructor for IEJoinOperator.
+	 *
+	 * @param exp
+	 *            The join condition; it must contain at least one inequality
+	 *            between a column of each child.
+	 * @param leftChild
+	 *            The left child operator.
+	 * @param rightChild
+	 *            The right child operator.
+	 * @param bufferCount
+	 *            The number of pages both inputs may take up in memory.
+	 */
+	public IEJoinOperator(Expression exp, Operator leftChild, Operator rightChild, int bufferCount) {
+		this.exp = exp;
+		this.leftChild = leftChild;
+		this.rightChild = rightChild;
+		this.bufferCount = bufferCount;
+	}
+
+	/**
+	 * Method to get the number of pages the operator may keep in memory.
+	 */
+	public int getBufferCount() {
+		return bufferCount;
+	}
+
+	/**
+	 * Method to split the join condition into at most two inequalities and
+	 * the residual condition, and resolve both against the children's schemas
+	 * at plan time.
+	 *
+	 * @param leftSchema
+	 *            the schema of the tuples produced by the left child.
+	 * @param rightSchema
+	 *            the schema of the tuples produced by the right child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema leftSchema, TupleSchema rightSchema) {
+		List<Expression> conjuncts = new JavaUtils().expressionToList(exp);
+
+		List<int[]> inequalities = new ArrayList<int[]>();
+		Expression residual = null;
+		for (Expression conjunct : conjuncts) {
+			int[] inequality = (inequalities.size() < 2) ? toInequality(conjunct, leftSchema, rightSchema) : null;
+			if (inequality != null) {
+				inequalities.add(inequality);
+			} else {
+				residual = (residual == null) ? conjunct : new AndExpression(residual, conjunct);
+			}
+		}
+		if (inequalities.isEmpty()) {
+			throw new IllegalArgumentException("Inequality join condition " + exp + " has no inequality key.");
+		}
+
+		leftSlots = new int[inequalities.size()];
+		ops = new int[inequalities.size()];
+		rightSlots = new int[inequalities.size()];
+		for (int i = 0; i < ops.length; i++) {
+			leftSlots[i] = inequalities.get(i)[0];
+			ops[i] = inequalities.get(i)[1];
+			rightSlots[i] = inequalities.get(i)[2];
+		}
+
+		this.leftSchema = leftSchema;
+		this.rightSchema = rightSchema;
+		joinedSchema = leftSchema.concat(rightSchema);
+		residualPredicate = PredicateCompiler.compile(BindColumnVisitor.bind(residual, joinedSchema),
+				leftSchema.size());
+		return joinedSchema;
+	}
+
+	/**
+	 * Reads the given conjunct as an inequality between a column of the left
+	 * child and a column of the right child, in that order.
+	 *
+	 * @return the left slot, the comparison operator and the right slot; null
+	 *         if the conjunct is no such inequality.
+	 */
+	private static int[] toInequality(Expression conjunct, TupleSchema leftSchema, TupleSchema rightSchema) {
+		int op;
+		if (conjunct instanceof MinorThan) {
+			op = ComparisonOperator.LESS_THAN;
+		} else if (conjunct instanceof MinorThanEquals) {
+			op = ComparisonOperator.LESS_THAN_EQUALS;
+		} else if (conjunct instanceof GreaterThan) {
+			op = ComparisonOperator.GREATER_THAN;
+		} else if (conjunct instanceof GreaterThanEquals) {
+			op = ComparisonOperator.GREATER_THAN_EQUALS;
+		} else {
+			return null;
+		}
+		Expression first = ((BinaryExpression) conjunct).getLeftExpression();
+		Expression second = ((BinaryExpression) conjunct).getRightExpression();
+		if (!(first instanceof Column) || !(second instanceof Column)) {
+			return null;
+		}
+		String firstName = first.toString();
+		String secondName = second.toString();
+		if (leftSchema.contains(firstName) && rightSchema.contains(secondName)) {
+			return new int[] { leftSchema.getSlot(firstName), op, rightSchema.getSlot(secondName) };
+		}
+		if (leftSchema.contains(secondName) && rightSchema.contains(firstName)) {
+			return new int[] { leftSchema.getSlot(secondName), ComparisonOperator.mirror(op),
+					rightSchema.getSlot(firstName) };
+		}
+		return null;
+	}
+
+	/**
+	 * Method to get the next joined tuple satisfying the join condition if such
+	 * exists.
+	 *
+	 * @return joined tuple satisfying the join condition.
+	 */
+	@Override
+	public Tuple getNextTuple() {
+		if (leftTuples == null) {
+			readInputs();
+		}
+		while (true) {
+			Tuple match = (ops.length == 1) ? nextSweepMatch() : nextIEJoinMatch();
+			if (match != null || leftSpill == null || !nextBlocks()) {
+				return match;
+			}
+		}
+	}
+
+	/**
+	 * Reads both children into memory, or, once they turn out to take up more
+	 * than bufferCount pages, writes them to files in the temp directory and
+	 * loads the first block of each file.
+	 */
+	private void readInputs() {
+		long capacity = (long) bufferCount * (DatabaseCatalog.getInstance().getPageSize() / 4);
+		List<Tuple> left = new ArrayList<Tuple>();
+		List<Tuple> right = new ArrayList<Tuple>();
+		boolean leftRead = readInto(leftChild, left, leftSchema.size(), capacity);
+		boolean rightRead = leftRead
+				&& readInto(rightChild, right, rightSchema.size(), capacity - (long) left.size() * leftSchema.size());
+		if (leftRead && rightRead) {
+			leftTuples = left.toArray(new Tuple[left.size()]);
+			rightTuples = right.toArray(new Tuple[right.size()]);
+			startJoin();
+			return;
+		}
+		leftSpill = spill(leftChild, left, leftRead, leftSchema, "left");
+		rightSpill = spill(rightChild, right, rightRead, rightSchema, "right");
+		blockCapacity = capacity / 2;
+		firstBlocks();
+	}
+
+	/**
+	 * Reads the tuples of a child into the given list until the child is
+	 * exhausted or the tuples take up more than the given number of values.
+	 *
+	 * @return true if the child is exhausted within the capacity.
+	 */
+	private static boolean readInto(Operator child, List<Tuple> tuples, int width, long capacity) {
+		long used = 0;
+		Tuple tuple;
+		while ((tuple = child.getNextTuple()) != null) {
+			tuples.add(tuple);
+			used += width;
+			if (used > capacity) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the tuples read from a child, followed by the rest of the child
+	 * unless it is exhausted, to a file in the temp directory.
+	 *
+	 * @return a reader of the file.
+	 */
+	private TupleReaderBinary spill(Operator child, List<Tuple> tuples, boolean exhausted, TupleSchema schema,
+			String side) {
+		String file = DatabaseCatalog.getInstance().getTempDirectory() + "/" + hashCode() + "_iej_" + side;
+		TupleWriterBinary writer = new TupleWriterBinary(file);
+		for (Tuple tuple : tuples) {
+			writer.writeTuple(tuple.getValues());
+		}
+		tuples.clear();
+		Tuple tuple;
+		while (!exhausted && (tuple = child.getNextTuple()) != null) {
+			writer.writeTuple(tuple.getValues());
+		}
+		writer.flush();
+		writer.close();
+		TupleReaderBinary reader = new TupleReaderBinary(file);
+		reader.setSchema(schema);
+		return reader;
+	}
+
+	/**
+	 * Loads the first block of each spilled input and sets the join back to
+	 * its first match.
+	 */
+	private void firstBlocks() {
+		leftSpill.reset();
+		rightSpill.reset();
+		leftTuples = readBlock(leftSpill, leftSchema.size());
+		rightTuples = readBlock(rightSpill, rightSchema.size());
+		startJoin();
+	}
+
+	/**
+	 * Moves the join on to the next block of the right input, or, once the
+	 * right input is exhausted, to the next block of the left input and the
+	 * first block of the right input.
+	 *
+	 * @return false once every pair of blocks has been joined.
+	 */
+	private boolean nextBlocks() {
+		rightTuples = readBlock(rightSpill, rightSchema.size());
+		if (rightTuples.length == 0) {
+			leftTuples = readBlock(leftSpill, leftSchema.size());
+			if (leftTuples.length == 0) {
+				return false;
+			}
+			rightSpill.reset();
+			rightTuples = readBlock(rightSpill, rightSchema.size());
+		}
+		startJoin();
+		return true;
+	}
+
+	/**
+	 * Reads the next block of a spilled input: at least one tuple, and as many
+	 * more as fit in half of the values the join may keep in memory.
+	 *
+	 * @return the tuples of the block; empty once the input is exhausted.
+	 */
+	private Tuple[] readBlock(TupleReaderBinary reader, int width) {
+		List<Tuple> tuples = new ArrayList<Tuple>();
+		long used = 0;
+		Tuple tuple;
+		while ((tuples.isEmpty() || used + width <= blockCapacity) && (tuple = reader.readTuple(true)) != null) {
+			tuples.add(tuple);
+			used += width;
+		}
+		return tuples.toArray(new Tuple[tuples.size()]);
+	}
+
+	/**
+	 * Returns the positions of the given tuples in increasing order of the
+	 * value in the given slot.
+	 */
+	private static int[] sortedOrder(Tuple[] tuples, int slot) {
+		long[] keys = new long[tuples.length];
+		for (int i = 0; i < tuples.length; i++) {
+			keys[i] = ((long) tuples[i].getValue(slot) << 32) | i;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[tuples.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = (int) keys[i];
+		}
+		return order;
+	}
+
+	/**
+	 * Reverses an order in place.
+	 */
+	private static void reverse(int[] order) {
+		for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+			int temp = order[i];
+			order[i] = order[j];
+			order[j] = temp;
+		}
+	}
+
+	/**
+	 * Sorts the inputs held in memory and sets the join back to its first
+	 * match.
+	 */
+	private void startJoin() {
+		if (ops.length == 1) {
+			// "left < right" is swept with the left input as the prefix, and
+			// "left > right", i.e. "right < left", with the right input.
+			prefixIsLeft = ops[0] == ComparisonOperator.LESS_THAN || ops[0] == ComparisonOperator.LESS_THAN_EQUALS;
+			strict = ops[0] == ComparisonOperator.LESS_THAN || ops[0] == ComparisonOperator.GREATER_THAN;
+			prefixTuples = prefixIsLeft ? leftTuples : rightTuples;
+			prefixSlot = prefixIsLeft ? leftSlots[0] : rightSlots[0];
+			streamTuples = prefixIsLeft ? rightTuples : leftTuples;
+			streamSlot = prefixIsLeft ? rightSlots[0] : leftSlots[0];
+			prefixOrder = sortedOrder(prefixTuples, prefixSlot);
+			streamOrder = sortedOrder(streamTuples, streamSlot);
+			streamIndex = -1;
+			prefixEnd = 0;
+			prefixIndex = 0;
+			return;
+		}
+
+		// The right tuples satisfying "left.y op right.y" only grow if the
+		// left tuples are visited by decreasing y for < and <=, and by
+		// increasing y for > and >=; the right tuples are marked in the same
+		// order.
+		boolean descending = ops[1] == ComparisonOperator.LESS_THAN
+				|| ops[1] == ComparisonOperator.LESS_THAN_EQUALS;
+		leftOrder = sortedOrder(leftTuples, leftSlots[1]);
+		rightByY = sortedOrder(rightTuples, rightSlots[1]);
+		if (descending) {
+			reverse(leftOrder);
+			reverse(rightByY);
+		}
+		rightByX = sortedOrder(rightTuples, rightSlots[0]);
+		rightRanks = new int[rightTuples.length];
+		sortedX = new int[rightTuples.length];
+		for (int rank = 0; rank < rightByX.length; rank++) {
+			rightRanks[rightByX[rank]] = rank;
+			sortedX[rank] = rightTuples[rightByX[rank]].getValue(rightSlots[0]);
+		}
+		marked = new BitSet(rightTuples.length);
+		markIndex = 0;
+		leftIndex = -1;
+		scanPosition = 0;
+		scanEnd = 0;
+	}
+
+	/**
+	 * Returns the next match of a join on one inequality.
+	 */
+	private Tuple nextSweepMatch() {
+		while (true) {
+			while (prefixIndex < prefixEnd) {
+				Tuple prefixTuple = prefixTuples[prefixOrder[prefixIndex++]];
+				Tuple streamTuple = streamTuples[streamOrder[streamIndex]];
+				Tuple leftTuple = prefixIsLeft ? prefixTuple : streamTuple;
+				Tuple rightTuple = prefixIsLeft ? streamTuple : prefixTuple;
+				if (residualPredicate.test(leftTuple, rightTuple)) {
+					return Tuple.join("JoinedTuple", leftTuple, rightTuple, joinedSchema);
+				}
+			}
+			if (streamIndex + 1 >= streamTuples.length) {
+				return null;
+			}
+			streamIndex++;
+			int streamValue = streamTuples[streamOrder[streamIndex]].getValue(streamSlot);
+			while (prefixEnd < prefixTuples.length) {
+				int prefixValue = prefixTuples[prefixOrder[prefixEnd]].getValue(prefixSlot);
+				if (strict ? prefixValue >= streamValue : prefixValue > streamValue) {
+					break;
+				}
+				prefixEnd++;
+			}
+			prefixIndex = 0;
+		}
+	}
+
+	/**
+	 * Returns the next match of a join on two inequalities.
+	 */
+	private Tuple nextIEJoinMatch() {
+		while (true) {
+			if (scanPosition < scanEnd) {
+				int rank = marked.nextSetBit(scanPosition);
+				if (rank >= 0 && rank < scanEnd) {
+					scanPosition = rank + 1;
+					Tuple leftTuple = leftTuples[leftOrder[leftIndex]];
+					Tuple rightTuple = rightTuples[rightByX[rank]];
+					if (residualPredicate.test(leftTuple, rightTuple)) {
+						return Tuple.join("JoinedTuple", leftTuple, rightTuple, joinedSchema);
+					}
+					continue;
+				}
+			}
+			if (leftIndex + 1 >= leftTuples.length) {
+				return null;
+			}
+			leftIndex++;
+			Tuple leftTuple = leftTuples[leftOrder[leftIndex]];
+			int y = leftTuple.getValue(leftSlots[1]);
+			while (markIndex < rightByY.length && ComparisonOperator.evaluate(ops[1], y,
+					rightTuples[rightByY[markIndex]].getValue(rightSlots[1]))) {
+				marked.set(rightRanks[rightByY[markIndex]]);
+				markIndex++;
+			}
+			int x = leftTuple.getValue(leftSlots[0]);
+			switch (ops[0]) {
+			case ComparisonOperator.LESS_THAN:
+				scanPosition = firstAbove(x);
+				scanEnd = sortedX.length;
+				break;
+			case ComparisonOperator.LESS_THAN_EQUALS:
+				scanPosition = firstAbove(x - 1L);
+				scanEnd = sortedX.length;
+				break;
+			case ComparisonOperator.GREATER_THAN:
+				scanPosition = 0;
+				scanEnd = firstAbove(x - 1L);
+				break;
+			default:
+				scanPosition = 0;
+				scanEnd = firstAbove(x);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the rank of the first right tuple whose value of the first
+	 * inequality's column is above the given value.
+	 */
+	private int firstAbove(long value) {
+		int low = 0;
+		int high = sortedX.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedX[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * again from the beginning. The inputs stay in memory, or in the files
+	 * they were written to, so the children are not read again.
+	 */
+	@Override
+	public void reset() {
+		if (leftSpill != null) {
+			firstBlocks();
+		} else if (leftTuples != null) {
+			startJoin();
+		}
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * from the specified index. If the Operator is not a sort operator, this
+	 * function does nothing.
+	 */
+	@Override
+	public void reset(int index) {
+	}
+
+	/**
+	 * Method for accepting visitor; just calls back visitor. Visitor method
+	 * uses postorder traversal.
+	 *
+	 * @param visitor
+	 *            visitor to be accepted
+	 */
+	public void accept(PhysicalPlanVisitor visitor) {
+		visitor.visit(this);
+	}
+
+}
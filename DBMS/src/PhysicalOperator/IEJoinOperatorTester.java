@@ -0,0 +1,142 @@
+package PhysicalOperator;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import DBMS.DatabaseCatalog;
+import DBMS.Interpreter;
+import DBMS.TupleBatch;
+import LogicalOperator.LogicalQueryPlanner;
+
+/**
+ * Regression test for an inequality join whose inputs turn out to take up
+ * more pages than it may use. The join key 7 is frequent in both Sailors and
+ * Reserves, so the planner underestimates the hash join below the inequality
+ * join; with small morsels the hash join runs on the exchange workers, whose
+ * hash exchanges the inequality join must not rewind.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class IEJoinOperatorTester {
+
+	private static final int NUM_ROWS = 2000;
+	private static final int SKEWED_ROWS = 300;
+	private static final int NUM_BOATS = 20;
+
+	@Test
+	public void testUnderestimatedInputs() throws IOException {
+		File root = Files.createTempDirectory("iejoin").toFile();
+		File input = new File(root, "input");
+		File data = new File(input, "db/data");
+		File output = new File(root, "output");
+		File temp = new File(root, "temp");
+		data.mkdirs();
+		output.mkdirs();
+		temp.mkdirs();
+
+		Random random = new Random(25);
+		int[][] sailors = new int[NUM_ROWS][];
+		int[][] reserves = new int[NUM_ROWS][];
+		int[][] boats = new int[NUM_BOATS][];
+		for (int i = 0; i < NUM_ROWS; i++) {
+			sailors[i] = new int[] { i < SKEWED_ROWS ? 7 : random.nextInt(NUM_ROWS), random.nextInt(1000),
+					random.nextInt(100) };
+			reserves[i] = new int[] { i < SKEWED_ROWS ? 7 : random.nextInt(NUM_ROWS), random.nextInt(1000) };
+		}
+		for (int i = 0; i < NUM_BOATS; i++) {
+			boats[i] = new int[] { i, random.nextInt(1000), random.nextInt(100) };
+		}
+		writeTable(new File(data, "Sailors"), sailors);
+		writeTable(new File(data, "Reserves"), reserves);
+		writeTable(new File(data, "Boats"), boats);
+		writeFile(new File(input, "db/schema.txt"), "Sailors A B C\nReserves G H\nBoats D E F\n");
+		writeFile(new File(input, "db/index_info.txt"), "");
+		writeFile(new File(input, "plan_builder_config.txt"), "0\n0\n1\n");
+		writeFile(new File(input, "queries.sql"),
+				"SELECT * FROM Sailors, Reserves, Boats WHERE Sailors.A = Reserves.G AND Reserves.H < Boats.E;\n");
+
+		Interpreter interpreter = new Interpreter(input.getPath(), output.getPath(), temp.getPath(), true, true);
+		DatabaseCatalog.getInstance().setMorselPages(1);
+		DatabaseCatalog.getInstance().setInequalityJoinBuffer(16);
+		interpreter.readline();
+		LogicalQueryPlanner logicalPlan = new LogicalQueryPlanner(interpreter);
+		logicalPlan.constructLogicalQueryPlan();
+		Operator plan = new PhysicalQueryPlanner(logicalPlan).getPhysicalPlan();
+
+		PhysicalPlanPrinter printer = new PhysicalPlanPrinter();
+		plan.accept(printer);
+		String printedPlan = printer.printPhysicalTree();
+		assertTrue(printedPlan, printedPlan.startsWith("IEJoin"));
+		assertTrue(printedPlan, printedPlan.contains("HashExchange"));
+
+		long matches = 0;
+		TupleBatch batch;
+		while ((batch = plan.getNextBatch()) != null) {
+			matches += batch.getSelectedCount();
+		}
+		assertEquals(expectedMatches(sailors, reserves, boats), matches);
+	}
+
+	/**
+	 * Counts the matches of the query by joining the tables in memory.
+	 */
+	private static long expectedMatches(int[][] sailors, int[][] reserves, int[][] boats) {
+		Map<Integer, Integer> sailorsPerKey = new HashMap<Integer, Integer>();
+		for (int[] sailor : sailors) {
+			sailorsPerKey.merge(sailor[0], 1, Integer::sum);
+		}
+		long matches = 0;
+		for (int[] reserve : reserves) {
+			int boatMatches = 0;
+			for (int[] boat : boats) {
+				if (reserve[1] < boat[1]) {
+					boatMatches++;
+				}
+			}
+			matches += (long) sailorsPerKey.getOrDefault(reserve[0], 0) * boatMatches;
+		}
+		return matches;
+	}
+
+	/**
+	 * Writes a table in the binary format, with 4096 byte pages.
+	 */
+	private static void writeTable(File file, int[][] rows) throws IOException {
+		int numColumns = rows[0].length;
+		int tuplesPerPage = (DatabaseCatalog.DEFAULT_PAGE_SIZE - 8) / (4 * numColumns);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			for (int start = 0; start < rows.length; start += tuplesPerPage) {
+				int count = Math.min(tuplesPerPage, rows.length - start);
+				out.writeInt(numColumns);
+				out.writeInt(count);
+				for (int i = start; i < start + count; i++) {
+					for (int value : rows[i]) {
+						out.writeInt(value);
+					}
+				}
+				out.write(new byte[DatabaseCatalog.DEFAULT_PAGE_SIZE - 8 - 4 * numColumns * count]);
+			}
+		}
+	}
+
+	private static void writeFile(File file, String contents) throws IOException {
+		try (Writer writer = new FileWriter(file)) {
+			writer.write(contents);
+		}
+	}
+
+}
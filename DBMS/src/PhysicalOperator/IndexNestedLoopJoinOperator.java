@@ -0,0 +1,192 @@
+package PhysicalOperator;
+
+import DBMS.BPlusTreeReader;
+import DBMS.DatabaseCatalog;
+import DBMS.RID;
+import DBMS.TableInfo;
+import DBMS.Tuple;
+import DBMS.TupleReaderBinary;
+import DBMS.TupleSchema;
+import net.sf.jsqlparser.expression.Expression;
+
+/**
+ * This class is responsible for joining an outer input with a base table that
+ * has a B+ tree index on its join column. For every outer tuple, the index is
+ * probed for the outer tuple's join key, and only the matching inner tuples
+ * are fetched from the data file. The rest of the join condition, including
+ * any selection on the inner table, is applied to the matches as a residual
+ * condition.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class IndexNestedLoopJoinOperator extends Operator {
+
+	public Expression exp;
+	public Operator outerChild;
+	public String tableName;
+	public String indexedAttribute;
+	public String outerKeyColumn;
+
+	private String fieldPrefix;
+	private boolean isClustered;
+	private String indexLocation;
+	private TupleReaderBinary tupleReaderBinary;
+	private BPlusTreeReader bPlusTreeReader;
+
+	private TupleSchema joinedSchema;
+	private int outerKeySlot;
+	private int indexedSlot;
+	private TuplePredicate residualPredicate;
+
+	private Tuple outerTuple;
+	private int probeKey;
+	private boolean probeStarted;
+
+	/**
+	 * Constructor for IndexNestedLoopJoinOperator.
+	 * 
+	 * @param exp
+	 *            The residual condition applied to each pair of an outer tuple
+	 *            and an inner tuple with a matching key; may be null.
+	 * @param outerChild
+	 *            The outer child operator.
+	 * @param tableName
+	 *            The name of the inner base table.
+	 * @param aliasName
+	 *            The alias name for the inner table. If none exists, then it
+	 *            is set to null.
+	 * @param indexedAttribute
+	 *            The indexed attribute of the inner table the join is on.
+	 * @param isClustered
+	 *            whether the index is clustered.
+	 * @param outerKeyColumn
+	 *            The column of the outer input equated with the indexed
+	 *            attribute.
+	 */
+	public IndexNestedLoopJoinOperator(Expression exp, Operator outerChild, String tableName, String aliasName,
+			String indexedAttribute, boolean isClustered, String outerKeyColumn) {
+		this.exp = exp;
+		this.outerChild = outerChild;
+		this.tableName = tableName;
+		this.indexedAttribute = indexedAttribute;
+		this.isClustered = isClustered;
+		this.outerKeyColumn = outerKeyColumn;
+
+		DatabaseCatalog catalog = DatabaseCatalog.getInstance();
+		TableInfo currentTable = catalog.GetTable(tableName);
+		indexLocation = catalog.getIndexDirectory() + "/" + tableName + "." + indexedAttribute;
+
+		fieldPrefix = tableName;
+		if (aliasName != null && !aliasName.equals("")) {
+			fieldPrefix = aliasName;
+		}
+
+		tupleReaderBinary = new TupleReaderBinary(tableName, aliasName, currentTable);
+		bPlusTreeReader = new BPlusTreeReader(indexLocation);
+	}
+
+	/**
+	 * Method to resolve the join key and compile the residual condition
+	 * against the schema of the joined tuples at plan time.
+	 * 
+	 * @param outerSchema
+	 *            the schema of the tuples produced by the outer child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema outerSchema) {
+		TupleSchema innerSchema = tupleReaderBinary.getSchema(false);
+		outerKeySlot = outerSchema.getSlot(outerKeyColumn);
+		indexedSlot = innerSchema.getSlot(fieldPrefix + "." + indexedAttribute);
+		if (outerKeySlot < 0) {
+			throw new IllegalArgumentException("Column " + outerKeyColumn + " is not in schema " + outerSchema);
+		}
+		joinedSchema = outerSchema.concat(innerSchema);
+		residualPredicate = PredicateCompiler.compile(BindColumnVisitor.bind(exp, joinedSchema),
+				outerSchema.size());
+		return joinedSchema;
+	}
+
+	/**
+	 * Fetches the next inner tuple whose indexed attribute equals the current
+	 * probe key. A clustered index is only consulted for the first match;
+	 * later matches are read sequentially from the data file.
+	 * 
+	 * @return the next matching inner tuple, or null if there are no more.
+	 */
+	private Tuple nextInnerTuple() {
+		if (probeStarted && isClustered) {
+			Tuple innerTuple = tupleReaderBinary.readTuple(false);
+			if (innerTuple == null || innerTuple.getValue(indexedSlot) != probeKey) {
+				return null;
+			}
+			return innerTuple;
+		}
+		RID rid = bPlusTreeReader.getNextRID();
+		if (rid == null) {
+			return null;
+		}
+		tupleReaderBinary.SetPageTuplePointer(rid.pageID, rid.tupleID);
+		probeStarted = true;
+		return tupleReaderBinary.readTuple(false);
+	}
+
+	/**
+	 * Method to get the next joined tuple satisfying the join condition if such
+	 * exists.
+	 * 
+	 * @return joined tuple satisfying the join condition.
+	 */
+	@Override
+	public Tuple getNextTuple() {
+		while (true) {
+			if (outerTuple != null) {
+				Tuple innerTuple;
+				while ((innerTuple = nextInnerTuple()) != null) {
+					if (residualPredicate.test(outerTuple, innerTuple)) {
+						return Tuple.join("JoinedTuple", outerTuple, innerTuple, joinedSchema);
+					}
+				}
+			}
+			outerTuple = outerChild.getNextTuple();
+			if (outerTuple == null) {
+				return null;
+			}
+			probeKey = outerTuple.getValue(outerKeySlot);
+			bPlusTreeReader.setLowerBound(probeKey);
+			bPlusTreeReader.setUpperBound(probeKey);
+			probeStarted = false;
+		}
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * again from the beginning.
+	 */
+	@Override
+	public void reset() {
+		outerChild.reset();
+		outerTuple = null;
+	}
+
+	/**
+	 * Method to reset the state of the operator to start returning its output
+	 * from the specified index. If the Operator is not a sort operator, this
+	 * function does nothing.
+	 */
+	@Override
+	public void reset(int index) {
+	}
+
+	/**
+	 * Method for accepting visitor; just calls back visitor. Visitor method
+	 * uses postorder traversal.
+	 * 
+	 * @param visitor
+	 *            visitor to be accepted
+	 */
+	public void accept(PhysicalPlanVisitor visitor) {
+		visitor.visit(this);
+	}
+
+}
@@ -31,6 +31,9 @@ public class IndexScanOperator extends Operator {
 
 	boolean readerInitialized;
 
+	// Slot of the indexed attribute in the scanned tuples
+	int indexedSlot;
+
 	/**
 	 * Constructor for IndexScanOperator.
 	 * 
@@ -79,6 +82,17 @@ public class IndexScanOperator extends Operator {
 		readerInitialized = false;
 	}
 
+	/**
+	 * Method to bind this operator at plan time.
+	 * 
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind() {
+		TupleSchema schema = tupleReaderBinary.getSchema(false);
+		indexedSlot = schema.getSlot(fieldPrefix + "." + indexedAttribute);
+		return schema;
+	}
+
 	/**
 	 * Method to get a tuple representing the next line of the data file for the
 	 * specified table.
@@ -92,8 +106,7 @@ public class IndexScanOperator extends Operator {
 			if (nextTuple == null) {
 				return null;
 			}
-			if (upperBound == null
-					|| Integer.parseInt(nextTuple.getField(fieldPrefix + "." + indexedAttribute)) <= upperBound) {
+			if (upperBound == null || nextTuple.getValue(indexedSlot) <= upperBound) {
 				return nextTuple;
 			} else {
 				return null;
@@ -1,6 +1,7 @@
 package PhysicalOperator;
 
 import DBMS.Tuple;
+import DBMS.TupleBatch;
 
 public abstract class Operator {
 
@@ -9,6 +10,28 @@ public abstract class Operator {
 	 */
 	public abstract Tuple getNextTuple();
 
+	/**
+	 * Called repeatedly to get the next batch of the operator’s output, as
+	 * column vectors with a selection vector of the live rows. Batches are
+	 * never empty; null marks the end of the output. An operator is read
+	 * either by tuples or by batches between two resets, not both.
+	 * 
+	 * By default the batch is gathered from getNextTuple(), so operators
+	 * without a batch implementation of their own can be mixed with those
+	 * that have one.
+	 */
+	public TupleBatch getNextBatch() {
+		Tuple tuple = getNextTuple();
+		if (tuple == null) {
+			return null;
+		}
+		TupleBatch batch = new TupleBatch(tuple.getSchema(), TupleBatch.DEFAULT_CAPACITY);
+		do {
+			batch.addRow(tuple.getValues());
+		} while (!batch.isFull() && (tuple = getNextTuple()) != null);
+		return batch;
+	}
+
 	/**
 	 * Tells the operator to reset its state and start returning its output
 	 * again from the beginning.
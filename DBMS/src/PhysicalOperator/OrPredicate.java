@@ -0,0 +1,68 @@
+package PhysicalOperator;
+
+import java.util.Arrays;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * A compiled disjunction. The right operand is only evaluated if the left
+ * operand fails.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public final class OrPredicate implements TuplePredicate {
+
+	private final TuplePredicate leftPredicate;
+	private final TuplePredicate rightPredicate;
+
+	/**
+	 * Constructor for OrPredicate.
+	 * 
+	 * @param leftPredicate
+	 *            the left operand of the disjunction.
+	 * @param rightPredicate
+	 *            the right operand of the disjunction.
+	 */
+	public OrPredicate(TuplePredicate leftPredicate, TuplePredicate rightPredicate) {
+		this.leftPredicate = leftPredicate;
+		this.rightPredicate = rightPredicate;
+	}
+
+	@Override
+	public boolean test(Tuple left, Tuple right) {
+		return leftPredicate.test(left, right) || rightPredicate.test(left, right);
+	}
+
+	@Override
+	public int select(int[] left, TupleBatch right, int[] selection, int count) {
+		int[] leftSelection = Arrays.copyOf(selection, count);
+		int leftCount = leftPredicate.select(left, right, leftSelection, count);
+		if (leftCount == count) {
+			return count;
+		}
+
+		// Only the rows failing the left operand are tested against the right.
+		int[] rest = new int[count - leftCount];
+		int restCount = 0;
+		for (int i = 0, j = 0; i < count; i++) {
+			if (j < leftCount && leftSelection[j] == selection[i]) {
+				j++;
+			} else {
+				rest[restCount++] = selection[i];
+			}
+		}
+		restCount = rightPredicate.select(left, right, rest, restCount);
+
+		int merged = 0;
+		for (int i = 0, j = 0; i < leftCount || j < restCount;) {
+			if (j == restCount || (i < leftCount && leftSelection[i] < rest[j])) {
+				selection[merged++] = leftSelection[i++];
+			} else {
+				selection[merged++] = rest[j++];
+			}
+		}
+		return merged;
+	}
+
+}
@@ -0,0 +1,233 @@
+package PhysicalOperator;
+
+import java.util.Stack;
+
+import DBMS.TupleSchema;
+
+/**
+ * Visitor to traverse through a physical operator tree once, before any tuple
+ * is pulled, resolving every column reference to a slot of the tuples its
+ * operator consumes. Post-order tree traversal is used so that each operator
+ * is bound against the schema its children produce.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public class PhysicalPlanBinder implements PhysicalPlanVisitor {
+
+	private Stack<TupleSchema> schemaStack;
+
+	/** Constructor for PhysicalPlanBinder */
+	public PhysicalPlanBinder() {
+		schemaStack = new Stack<TupleSchema>();
+	}
+
+	/**
+	 * Method to return the schema of the tuples produced by the root of the
+	 * bound operator tree.
+	 * 
+	 * @return the output schema of the physical plan.
+	 */
+	public TupleSchema getResult() {
+		return schemaStack.peek();
+	}
+
+	/**
+	 * Visit method for BNLJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(BNLJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		TupleSchema rightSchema = schemaStack.pop();
+		TupleSchema leftSchema = schemaStack.pop();
+		schemaStack.push(node.bind(leftSchema, rightSchema));
+	}
+
+	/**
+	 * Visit method for DuplicateEliminationOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(DuplicateEliminationOperator node) {
+		node.sorter.accept(this);
+		schemaStack.push(node.bind(schemaStack.pop()));
+	}
+
+	/**
+	 * Visit method for ExternalSortOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ExternalSortOperator node) {
+		node.childOperator.accept(this);
+		schemaStack.push(node.bind(schemaStack.pop()));
+	}
+
+	/**
+	 * Visit method for IndexScanOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IndexScanOperator node) {
+		schemaStack.push(node.bind());
+	}
+
+	/**
+	 * Visit method for ScanOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ScanOperator node) {
+		schemaStack.push(node.bind());
+	}
+
+	/**
+	 * Visit method for ColumnarScanOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ColumnarScanOperator node) {
+		schemaStack.push(node.bind());
+	}
+
+	/**
+	 * Visit method for SelectionOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(SelectionOperator node) {
+		node.scanner.accept(this);
+		schemaStack.push(node.bind(schemaStack.pop()));
+	}
+
+	/**
+	 * Visit method for SMJOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(SMJOperator node) {
+		node.outerChild.accept(this);
+		node.innerChild.accept(this);
+		TupleSchema innerSchema = schemaStack.pop();
+		TupleSchema outerSchema = schemaStack.pop();
+		schemaStack.push(node.bind(outerSchema, innerSchema));
+	}
+
+	/**
+	 * Visit method for SortOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(SortOperator node) {
+		node.childOperator.accept(this);
+		schemaStack.push(node.bind(schemaStack.pop()));
+	}
+
+	/**
+	 * Visit method for TNLJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(TNLJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		TupleSchema rightSchema = schemaStack.pop();
+		TupleSchema leftSchema = schemaStack.pop();
+		schemaStack.push(node.bind(leftSchema, rightSchema));
+	}
+
+	/**
+	 * Visit method for HashJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(HashJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		TupleSchema rightSchema = schemaStack.pop();
+		TupleSchema leftSchema = schemaStack.pop();
+		schemaStack.push(node.bind(leftSchema, rightSchema));
+	}
+
+	/**
+	 * Visit method for IEJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IEJoinOperator node) {
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		TupleSchema rightSchema = schemaStack.pop();
+		TupleSchema leftSchema = schemaStack.pop();
+		schemaStack.push(node.bind(leftSchema, rightSchema));
+	}
+
+	/**
+	 * Visit method for IndexNestedLoopJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IndexNestedLoopJoinOperator node) {
+		node.outerChild.accept(this);
+		schemaStack.push(node.bind(schemaStack.pop()));
+	}
+
+	/**
+	 * Visit method for ProjectionOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ProjectionOperator node) {
+		node.child.accept(this);
+		schemaStack.push(node.bind(schemaStack.pop()));
+	}
+
+	/**
+	 * Visit method for ExchangeOperator node. The producers of an exchange
+	 * are bound when its first consumer is visited.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ExchangeOperator node) {
+		Exchange exchange = node.exchange;
+		if (!exchange.isBound()) {
+			for (Operator producer : exchange.producers) {
+				producer.accept(this);
+				exchange.bind(schemaStack.pop());
+			}
+		}
+		schemaStack.push(exchange.getSchema());
+	}
+
+}
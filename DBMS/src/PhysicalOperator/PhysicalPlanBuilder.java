@@ -1,8 +1,10 @@
 package PhysicalOperator;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
 
 import DBMS.DatabaseCatalog;
@@ -11,11 +13,39 @@ import DBMS.TupleReaderBinary;
 import LogicalOperator.*;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.schema.Column;
 
 public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 
 	private Stack<Operator> OperatorStack; // stack of operators generated from
 											// post-order traversal.
+	private Set<String> neededColumns; // columns read above the join leaves;
+										// null if every column is.
+	private static final int JOIN_BUFFER_PAGES = 5; // buffer pages of the BNL
+													// joins.
+
+	/**
+	 * The probed equality, indexed attribute and estimated cost of an index
+	 * nested-loop join.
+	 */
+	private static class IndexJoinPlan {
+		final double cost;
+		final Expression keyConjunct;
+		final String indexedAttribute;
+		final String outerKeyColumn;
+
+		IndexJoinPlan(double cost, Expression keyConjunct, String indexedAttribute, String outerKeyColumn) {
+			this.cost = cost;
+			this.keyConjunct = keyConjunct;
+			this.indexedAttribute = indexedAttribute;
+			this.outerKeyColumn = outerKeyColumn;
+		}
+	}
 
 	/**
 	 * Constructor for PhysicalPlanBuilder.
@@ -25,12 +55,19 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 	}
 
 	/**
-	 * Method to get the root operator of the query tree.
+	 * Method to get the root operator of the query tree. If the catalog allows
+	 * more than one exchange worker, the tree is first split over the workers
+	 * by an ExchangePlanner.
 	 * 
 	 * @return the root operator of the query tree.
 	 */
 	public Operator getResult() {
-		return OperatorStack.pop();
+		Operator root = OperatorStack.pop();
+		int exchangeWorkers = DatabaseCatalog.getInstance().getExchangeWorkers();
+		if (exchangeWorkers > 1) {
+			return ExchangePlanner.parallelize(root, exchangeWorkers);
+		}
+		return root;
 	}
 
 	/**
@@ -43,7 +80,12 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 	 */
 	@Override
 	public void visit(LogicalScanOperator logicalScanOperator) {
-		OperatorStack.push(new ScanOperator(logicalScanOperator.tableName, logicalScanOperator.aliasName));
+		if (DatabaseCatalog.getInstance().GetTable(logicalScanOperator.tableName).isColumnar()) {
+			OperatorStack.push(new ColumnarScanOperator(logicalScanOperator.tableName, logicalScanOperator.aliasName,
+					logicalScanOperator.requiredAttributes));
+		} else {
+			OperatorStack.push(new ScanOperator(logicalScanOperator.tableName, logicalScanOperator.aliasName));
+		}
 	}
 
 	/**
@@ -63,7 +105,7 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 		List<String> attributeList = catalog.getAttributeInfo(tableName);
 		int tupleSize = attributeList.size();
 		int numTuples = catalog.getStatistics(tableName).getCount();
-		int pageSize = 4096;
+		int pageSize = catalog.getPageSize();
 
 		int numPages = (int) Math.ceil((4.0 * tupleSize * numTuples) / (pageSize - 8.0));
 
@@ -92,7 +134,7 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 		// CASE 1: either no attributes are indexed, or it's cheaper to do a
 		// full system scan.
 		if (lowestCost == null || lowestCost > numPages) {
-			ScanOperator scanner = new ScanOperator(tableName, aliasName);
+			Operator scanner = newTableScan(logicalSelectionOperator);
 			OperatorStack.push(
 					new SelectionOperator(tableName, logicalSelectionOperator.selectionCondition, aliasName, scanner));
 		} else {
@@ -105,7 +147,7 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 
 			// CASE 2: No expressions can utilize indexes.
 			if (indexableExpression == null) {
-				ScanOperator scanner = new ScanOperator(tableName, aliasName);
+				Operator scanner = newTableScan(logicalSelectionOperator);
 				OperatorStack.push(new SelectionOperator(tableName, logicalSelectionOperator.selectionCondition,
 						aliasName, scanner));
 			}
@@ -125,6 +167,67 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 
 	}
 
+	/**
+	 * Method to build the full scan below a selection: a columnar scan of the
+	 * referenced columns for a columnar table, otherwise a table scan
+	 * skipping the pages the selection cannot match.
+	 * 
+	 * @param logicalSelectionOperator
+	 *            the selection to be scanned for.
+	 * @return the scan operator.
+	 */
+	private Operator newTableScan(LogicalSelectionOperator logicalSelectionOperator) {
+		String tableName = logicalSelectionOperator.tableName;
+		String aliasName = logicalSelectionOperator.aliasName;
+		if (DatabaseCatalog.getInstance().GetTable(tableName).isColumnar()) {
+			return new ColumnarScanOperator(tableName, aliasName,
+					((LogicalScanOperator) logicalSelectionOperator.scanner).requiredAttributes);
+		}
+		ScanOperator scanner = new ScanOperator(tableName, aliasName);
+		addZoneMapBounds(scanner, tableName, aliasName, logicalSelectionOperator.selectionCondition);
+		return scanner;
+	}
+
+	/**
+	 * Method to pass the bounds the selection condition places on each
+	 * attribute down to the scan below it, so that the scan can skip the
+	 * pages whose zone map ranges lie outside them.
+	 * 
+	 * @param scanner
+	 *            the scan below the selection.
+	 * @param tableName
+	 *            the name of the table scanned.
+	 * @param aliasName
+	 *            the alias of the table, or null.
+	 * @param selectionCondition
+	 *            the condition of the selection.
+	 */
+	private void addZoneMapBounds(ScanOperator scanner, String tableName, String aliasName,
+			Expression selectionCondition) {
+		if (!DatabaseCatalog.getInstance().useZoneMaps()) {
+			return;
+		}
+		// Only the range comparisons of the top-level conjunction bound an
+		// attribute; disjunctions and the other comparisons are left to the
+		// selection.
+		List<Expression> rangeConjuncts = new ArrayList<Expression>();
+		for (Expression conjunct : new JavaUtils().expressionToList(selectionCondition)) {
+			if (conjunct instanceof GreaterThan || conjunct instanceof GreaterThanEquals
+					|| conjunct instanceof MinorThan || conjunct instanceof MinorThanEquals) {
+				rangeConjuncts.add(conjunct);
+			}
+		}
+		if (rangeConjuncts.isEmpty()) {
+			return;
+		}
+		Expression rangeCondition = new JavaUtils().listToExpression(rangeConjuncts);
+		for (String attr : DatabaseCatalog.getInstance().getAttributeInfo(tableName)) {
+			EvaluateIndexExpressionVisitor IV = new EvaluateIndexExpressionVisitor(tableName, aliasName, attr);
+			rangeCondition.accept(IV);
+			scanner.addBound(attr, IV.getLowkey(), IV.getHighkey());
+		}
+	}
+
 	public double calculateReductionFactor(String tableName, String aliasName, String attribute,
 			Expression selectionCondition) {
 		DatabaseCatalog catalog = DatabaseCatalog.getInstance();
@@ -160,17 +263,29 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 	public void visit(LogicalJoinOperator logicalJoinOperator) {
 
 		// Replace this with ordered list if DP gets finished.
-		List<LogicalJoinChild> joinChildList = new ConstructJoinTree(logicalJoinOperator).getJoinOrderList();
+		ConstructJoinTree joinOrderPlanner = new ConstructJoinTree(logicalJoinOperator);
+		List<LogicalJoinChild> joinChildList = joinOrderPlanner.getJoinOrderList();
 
 		List<Operator> operatorList = new ArrayList<Operator>();
 		JavaUtils utils = new JavaUtils();
 
+		// Columns needed above the leaves: those read above the join and those
+		// the join conditions compare. Each leaf is narrowed to them.
+		Expression joinCondition = logicalJoinOperator.getJoinCondition();
+		neededColumns = null;
+		if (logicalJoinOperator.outputColumns != null) {
+			neededColumns = new HashSet<String>(logicalJoinOperator.outputColumns);
+			if (joinCondition != null) {
+				neededColumns.addAll(utils.columnReferences(joinCondition.toString()));
+			}
+		}
+
 		for (LogicalJoinChild jc : joinChildList) {
 			jc.getOperator().accept(this);
-			operatorList.add(OperatorStack.pop());
+			List<String> leafColumns = leafColumns(jc);
+			operatorList.add(pruneColumns(OperatorStack.pop(), leafColumns, keptColumns(leafColumns, neededColumns)));
 		}
 
-		Expression joinCondition = logicalJoinOperator.getJoinCondition();
 		if (joinCondition != null) {
 			ArrayList<String> nodesInTree = new ArrayList<String>();
 
@@ -202,50 +317,41 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 				}
 				Operator leftOp = operatorList.get(0);
 				Operator rightOp = operatorList.get(1);
+				Operator hashJoin = buildHashJoin(conditionAccumulator, leftOp, rightOp,
+						joinOrderPlanner.getEstimatedTuples(joinChildList.get(0)), tupleWidth(joinChildList, 0, 1),
+						joinOrderPlanner.getEstimatedTuples(joinChildList.get(1)), tupleWidth(joinChildList, 1, 2));
+				Operator indexJoin = buildFirstIndexJoin(conditionAccumulator, leftOp, rightOp, joinChildList,
+						joinOrderPlanner);
 
 				if (conditionAccumulator == null) {
 					Operator joinTree = new BNLJoinOperator(conditionAccumulator, leftOp, rightOp, 5);
 					OperatorStack.push(joinTree);
+				} else if (indexJoin != null) {
+					OperatorStack.push(indexJoin);
+				} else if (hashJoin != null) {
+					OperatorStack.push(hashJoin);
 				} else {
+					// A condition equating a column of each input is planned as a
+					// hash join above, so what remains has no key to sort merge on.
 					CheckEqualityVisitor CEV = new CheckEqualityVisitor();
 					conditionAccumulator.accept(CEV);
-					boolean useSMJ = CEV.getResult();
-
-					if (!useSMJ) {
-						Operator joinTree = new BNLJoinOperator(conditionAccumulator, leftOp, rightOp, 5);
-						OperatorStack.push(joinTree);
+					Operator inequalityJoin = buildInequalityJoin(conditionAccumulator, CEV, leftOp, rightOp,
+							joinOrderPlanner.getEstimatedTuples(joinChildList.get(0)), tupleWidth(joinChildList, 0, 1),
+							joinOrderPlanner.getEstimatedTuples(joinChildList.get(1)), tupleWidth(joinChildList, 1, 2));
 
+					if (inequalityJoin != null) {
+						OperatorStack.push(inequalityJoin);
 					} else {
-						EvaluateJoinVisitor SMJConditionVisitor = new EvaluateJoinVisitor();
-						conditionAccumulator.accept(SMJConditionVisitor);
-						ArrayList<Expression> joinConditions = SMJConditionVisitor.getJoinList();
-
-						List<String> leftOrderByList = new ArrayList<String>();
-						List<String> rightOrderByList = new ArrayList<String>();
-
-						for (Expression exp : joinConditions) {
-							String[] equalityExp = exp.toString().split("[!=<>+-] ");
-							if (utils.contains(equalityExp[0], firstRelation)) {
-								leftOrderByList.add(equalityExp[0].trim());
-								rightOrderByList.add(equalityExp[1].trim());
-							} else {
-								leftOrderByList.add(equalityExp[1].trim());
-								rightOrderByList.add(equalityExp[0].trim());
-							}
-
-						}
-
-						Operator sortedLeftOp = new ExternalSortOperator(leftOp, 5, leftOrderByList, null,
-								leftOrderByList);
-						Operator sortedRightOp = new ExternalSortOperator(rightOp, 5, rightOrderByList, null,
-								rightOrderByList);
-						Operator joinTree = new SMJOperator(conditionAccumulator, sortedLeftOp, sortedRightOp);
+						Operator joinTree = new BNLJoinOperator(conditionAccumulator, leftOp, rightOp, 5);
 						OperatorStack.push(joinTree);
 					}
 				}
 			}
 
 			if (joinChildList.size() >= 3) {
+				List<String> joinedColumns = new ArrayList<String>();
+				joinedColumns.addAll(keptColumns(leafColumns(joinChildList.get(0)), neededColumns));
+				joinedColumns.addAll(keptColumns(leafColumns(joinChildList.get(1)), neededColumns));
 				for (int idx = 2; idx < joinChildList.size(); idx++) {
 					String unvisitedRelation = joinChildList.get(idx).getARName();
 
@@ -270,48 +376,53 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 						}
 					}
 
-					Operator currentJoinTree = OperatorStack.pop();
+					// Drop the columns of the tree that neither this join, the
+					// remaining joins nor the operators above the join read.
+					Set<String> laterColumns = null;
+					if (logicalJoinOperator.outputColumns != null) {
+						laterColumns = new HashSet<String>(logicalJoinOperator.outputColumns);
+						for (Expression exp : joinList) {
+							laterColumns.addAll(utils.columnReferences(exp.toString()));
+						}
+						if (conditionAccumulator != null) {
+							laterColumns.addAll(utils.columnReferences(conditionAccumulator.toString()));
+						}
+					}
+					List<String> keptColumns = keptColumns(joinedColumns, laterColumns);
+					Operator currentJoinTree = pruneColumns(OperatorStack.pop(), joinedColumns, keptColumns);
+					joinedColumns = new ArrayList<String>(keptColumns);
+					joinedColumns.addAll(keptColumns(leafColumns(joinChildList.get(idx)), neededColumns));
 					Operator newOp = operatorList.get(idx);
+					Operator hashJoin = buildHashJoin(conditionAccumulator, currentJoinTree, newOp,
+							joinOrderPlanner.getEstimatedJoinSize(idx), tupleWidth(joinChildList, 0, idx),
+							joinOrderPlanner.getEstimatedTuples(joinChildList.get(idx)),
+							tupleWidth(joinChildList, idx, idx + 1));
+					Operator indexJoin = buildIndexJoin(conditionAccumulator, currentJoinTree,
+							joinOrderPlanner.getEstimatedJoinSize(idx), tupleWidth(joinChildList, 0, idx),
+							joinChildList.get(idx));
 
 					if (conditionAccumulator == null) {
 						Operator updatedJoinTree = new BNLJoinOperator(conditionAccumulator, currentJoinTree, newOp, 5);
 						OperatorStack.push(updatedJoinTree);
 
+					} else if (indexJoin != null) {
+						OperatorStack.push(indexJoin);
+					} else if (hashJoin != null) {
+						OperatorStack.push(hashJoin);
 					} else {
 						CheckEqualityVisitor CEV = new CheckEqualityVisitor();
 						conditionAccumulator.accept(CEV);
-						boolean useSMJ = CEV.getResult();
+						Operator inequalityJoin = buildInequalityJoin(conditionAccumulator, CEV, currentJoinTree, newOp,
+								joinOrderPlanner.getEstimatedJoinSize(idx), tupleWidth(joinChildList, 0, idx),
+								joinOrderPlanner.getEstimatedTuples(joinChildList.get(idx)),
+								tupleWidth(joinChildList, idx, idx + 1));
 
-						if (!useSMJ) {
+						if (inequalityJoin != null) {
+							OperatorStack.push(inequalityJoin);
+						} else {
 							Operator updatedJoinTree = new BNLJoinOperator(conditionAccumulator, currentJoinTree, newOp,
 									5);
 							OperatorStack.push(updatedJoinTree);
-
-						} else {
-							EvaluateJoinVisitor SMJConditionVisitor = new EvaluateJoinVisitor();
-							conditionAccumulator.accept(SMJConditionVisitor);
-							ArrayList<Expression> joinConditions = SMJConditionVisitor.getJoinList();
-
-							List<String> leftOrderByList = new ArrayList<String>();
-							List<String> rightOrderByList = new ArrayList<String>();
-
-							for (Expression exp : joinConditions) {
-								String[] equalityExp = exp.toString().split("[!=<>+-] ");
-								if (!utils.contains(equalityExp[0], unvisitedRelation)) {
-									leftOrderByList.add(equalityExp[0].trim());
-									rightOrderByList.add(equalityExp[1].trim());
-								} else {
-									leftOrderByList.add(equalityExp[1].trim());
-									rightOrderByList.add(equalityExp[0].trim());
-								}
-							}
-
-							Operator sortedJoinOp = new ExternalSortOperator(currentJoinTree, 5, leftOrderByList, null,
-									leftOrderByList);
-							Operator sortedRightOp = new ExternalSortOperator(newOp, 5, rightOrderByList, null,
-									rightOrderByList);
-							Operator joinTree = new SMJOperator(conditionAccumulator, sortedJoinOp, sortedRightOp);
-							OperatorStack.push(joinTree);
 						}
 
 					}
@@ -342,6 +453,368 @@ public class PhysicalPlanBuilder implements LogicalPlanVisitor {
 
 	}
 
+	/**
+	 * Method to plan a join as a hybrid hash join when its condition contains
+	 * an equality between the two inputs. The hash table is built on the input
+	 * estimated to be smaller.
+	 * 
+	 * @param condition
+	 *            the join condition; may be null.
+	 * @param leftOp
+	 *            the left child operator.
+	 * @param rightOp
+	 *            the right child operator.
+	 * @param leftTuples
+	 *            the estimated number of tuples produced by the left child.
+	 * @param leftWidth
+	 *            the number of fields in a tuple of the left child.
+	 * @param rightTuples
+	 *            the estimated number of tuples produced by the right child.
+	 * @param rightWidth
+	 *            the number of fields in a tuple of the right child.
+	 * @return the hash join operator, or null if the join has no equality key.
+	 */
+	private Operator buildHashJoin(Expression condition, Operator leftOp, Operator rightOp, int leftTuples,
+			int leftWidth, int rightTuples, int rightWidth) {
+		if (condition == null || !containsEquiJoin(condition)) {
+			return null;
+		}
+		int leftPages = estimatePages(leftTuples, leftWidth);
+		int rightPages = estimatePages(rightTuples, rightWidth);
+		boolean buildLeft = leftPages <= rightPages;
+		return new HashJoinOperator(condition, leftOp, rightOp, buildLeft,
+				DatabaseCatalog.getInstance().getHashJoinBuffer());
+	}
+
+	/**
+	 * Method to plan a join as an inequality join when its condition compares
+	 * a column of each input with <, <=, > or >=, and both inputs are
+	 * estimated to fit in the pages the catalog allows an inequality join.
+	 * 
+	 * @param condition
+	 *            the join condition.
+	 * @param CEV
+	 *            the CheckEqualityVisitor that has visited the condition.
+	 * @param leftOp
+	 *            the left child operator.
+	 * @param rightOp
+	 *            the right child operator.
+	 * @param leftTuples
+	 *            the estimated number of tuples produced by the left child.
+	 * @param leftWidth
+	 *            the number of fields in a tuple of the left child.
+	 * @param rightTuples
+	 *            the estimated number of tuples produced by the right child.
+	 * @param rightWidth
+	 *            the number of fields in a tuple of the right child.
+	 * @return the inequality join operator, or null if the join has no column
+	 *         inequality or its inputs are too large.
+	 */
+	private Operator buildInequalityJoin(Expression condition, CheckEqualityVisitor CEV, Operator leftOp,
+			Operator rightOp, int leftTuples, int leftWidth, int rightTuples, int rightWidth) {
+		if (!CEV.hasColumnInequality()) {
+			return null;
+		}
+		int bufferCount = DatabaseCatalog.getInstance().getInequalityJoinBuffer();
+		if (estimatePages(leftTuples, leftWidth) + estimatePages(rightTuples, rightWidth) > bufferCount) {
+			return null;
+		}
+		return new IEJoinOperator(condition, leftOp, rightOp, bufferCount);
+	}
+
+	/**
+	 * Method to plan the first join of the join order as an index nested-loop
+	 * join. Either relation may be the indexed inner one; the orientation
+	 * estimated to be cheaper is chosen. If the right relation is the outer
+	 * one, the join is topped with a projection restoring the column order of
+	 * the join order.
+	 * 
+	 * @param condition
+	 *            the join condition; may be null.
+	 * @param leftOp
+	 *            the operator for the left relation.
+	 * @param rightOp
+	 *            the operator for the right relation.
+	 * @param joinChildList
+	 *            the join order.
+	 * @param joinOrderPlanner
+	 *            the planner of the join order, for its size estimates.
+	 * @return the index nested-loop join, or null if neither orientation is
+	 *         the cheapest plan.
+	 */
+	private Operator buildFirstIndexJoin(Expression condition, Operator leftOp, Operator rightOp,
+			List<LogicalJoinChild> joinChildList, ConstructJoinTree joinOrderPlanner) {
+		LogicalJoinChild left = joinChildList.get(0);
+		LogicalJoinChild right = joinChildList.get(1);
+		int leftTuples = joinOrderPlanner.getEstimatedTuples(left);
+		int rightTuples = joinOrderPlanner.getEstimatedTuples(right);
+		IndexJoinPlan plan = planIndexJoin(condition, leftTuples, tupleWidth(joinChildList, 0, 1), right);
+		IndexJoinPlan swappedPlan = planIndexJoin(condition, rightTuples, tupleWidth(joinChildList, 1, 2), left);
+		if (swappedPlan == null || (plan != null && plan.cost <= swappedPlan.cost)) {
+			return (plan == null) ? null : buildIndexJoin(condition, leftOp, right, plan);
+		}
+		List<String> columns = new ArrayList<String>(keptColumns(leafColumns(left), neededColumns));
+		columns.addAll(keptColumns(leafColumns(right), neededColumns));
+		return new ProjectionOperator(columns, buildIndexJoin(condition, rightOp, left, swappedPlan));
+	}
+
+	/**
+	 * Method to plan a join as an index nested-loop join with the given inner
+	 * relation.
+	 * 
+	 * @param condition
+	 *            the join condition; may be null.
+	 * @param outerOp
+	 *            the outer child operator.
+	 * @param outerTuples
+	 *            the estimated number of tuples produced by the outer child.
+	 * @param outerWidth
+	 *            the number of fields in a tuple of the outer child.
+	 * @param inner
+	 *            the inner relation.
+	 * @return the index nested-loop join operator, or null if it is not the
+	 *         cheapest plan.
+	 */
+	private Operator buildIndexJoin(Expression condition, Operator outerOp, int outerTuples, int outerWidth,
+			LogicalJoinChild inner) {
+		IndexJoinPlan plan = planIndexJoin(condition, outerTuples, outerWidth, inner);
+		return (plan == null) ? null : buildIndexJoin(condition, outerOp, inner, plan);
+	}
+
+	/**
+	 * Method to build the index nested-loop join chosen by a plan. The
+	 * conjuncts other than the probed equality, and any selection on the
+	 * inner table, become its residual condition.
+	 */
+	private Operator buildIndexJoin(Expression condition, Operator outerOp, LogicalJoinChild inner,
+			IndexJoinPlan plan) {
+		String tableName = inner.getRelationName();
+		List<Expression> conjuncts = new JavaUtils().expressionToList(condition);
+		conjuncts.remove(plan.keyConjunct);
+		if (inner.getOperator() instanceof LogicalSelectionOperator) {
+			conjuncts.add(((LogicalSelectionOperator) inner.getOperator()).selectionCondition);
+		}
+		return new IndexNestedLoopJoinOperator(new JavaUtils().listToExpression(conjuncts), outerOp, tableName,
+				inner.getAliasName(), plan.indexedAttribute,
+				DatabaseCatalog.getInstance().checkIfClustered(tableName, plan.indexedAttribute), plan.outerKeyColumn);
+	}
+
+	/**
+	 * Method to find the cheapest way of running a join as an index
+	 * nested-loop join when the inner input is a base table with a B+ tree
+	 * index on a column the join condition equates with the outer input. The
+	 * plan is kept only if probing the index once per outer tuple is estimated
+	 * to cost fewer page I/Os than the cheaper of the hash and block nested
+	 * loop joins.
+	 * 
+	 * @param condition
+	 *            the join condition; may be null.
+	 * @param outerTuples
+	 *            the estimated number of tuples produced by the outer child.
+	 * @param outerWidth
+	 *            the number of fields in a tuple of the outer child.
+	 * @param inner
+	 *            the inner relation.
+	 * @return the plan, or null if no index join is the cheapest plan.
+	 */
+	private IndexJoinPlan planIndexJoin(Expression condition, int outerTuples, int outerWidth,
+			LogicalJoinChild inner) {
+		if (condition == null) {
+			return null;
+		}
+		DatabaseCatalog catalog = DatabaseCatalog.getInstance();
+		String tableName = inner.getRelationName();
+		String innerPrefix = inner.getARName() + ".";
+		int innerTuples = inner.getNumTuples();
+		int innerWidth = inner.getAllAttributes().size();
+		int tuplesPerPage = (catalog.getPageSize() - 8) / (4 * innerWidth);
+
+		IndexJoinPlan best = null;
+		for (Expression conjunct : new JavaUtils().expressionToList(condition)) {
+			if (!(conjunct instanceof EqualsTo) || !(((EqualsTo) conjunct).getLeftExpression() instanceof Column)
+					|| !(((EqualsTo) conjunct).getRightExpression() instanceof Column)) {
+				continue;
+			}
+			String leftColumn = ((EqualsTo) conjunct).getLeftExpression().toString();
+			String rightColumn = ((EqualsTo) conjunct).getRightExpression().toString();
+			String innerColumn = leftColumn.startsWith(innerPrefix) ? leftColumn : rightColumn;
+			String outerColumn = leftColumn.startsWith(innerPrefix) ? rightColumn : leftColumn;
+			if (!innerColumn.startsWith(innerPrefix) || outerColumn.startsWith(innerPrefix)) {
+				continue;
+			}
+			String attribute = innerColumn.substring(innerPrefix.length());
+			if (!catalog.isIndexed(tableName, attribute)) {
+				continue;
+			}
+			int distinctValues = inner.getMax(attribute) - inner.getMin(attribute) + 1;
+			double matchesPerKey = Math.max(1.0, (double) innerTuples / distinctValues);
+			double probeCost = catalog.checkIfClustered(tableName, attribute)
+					? 3 + Math.ceil(matchesPerKey / tuplesPerPage) : 3 + matchesPerKey;
+			double currentCost = outerTuples * probeCost;
+			if (best == null || currentCost < best.cost) {
+				best = new IndexJoinPlan(currentCost, conjunct, attribute, outerColumn);
+			}
+		}
+		if (best == null) {
+			return null;
+		}
+
+		int outerPages = estimatePages(outerTuples, outerWidth);
+		int innerPages = estimatePages(innerTuples, innerWidth);
+		if (best.cost >= alternativeJoinCost(outerPages, innerPages)) {
+			return null;
+		}
+		return best;
+	}
+
+	/**
+	 * Method to estimate the page I/Os of the cheapest join the planner could
+	 * run instead of an index nested-loop join, besides reading the outer input
+	 * once. A hash join reads the inner table, three times over if it has to
+	 * spill; a block nested loop join reads it once per block of outer pages.
+	 * 
+	 * @param outerPages
+	 *            the estimated number of pages of the outer input.
+	 * @param innerPages
+	 *            the number of pages of the inner table.
+	 * @return the estimated page I/Os.
+	 */
+	private double alternativeJoinCost(int outerPages, int innerPages) {
+		double hashJoinCost = innerPages;
+		if (Math.min(outerPages, innerPages) > DatabaseCatalog.getInstance().getHashJoinBuffer()) {
+			hashJoinCost += 2 * (outerPages + innerPages);
+		}
+		double bnlCost = Math.ceil(outerPages / (JOIN_BUFFER_PAGES - 2.0)) * innerPages;
+		return Math.min(hashJoinCost, bnlCost);
+	}
+
+	/**
+	 * Method to check whether a join condition equates a column of one input
+	 * with a column of the other.
+	 * 
+	 * @param condition
+	 *            the join condition.
+	 * @return true if some conjunct of the condition is a column equality.
+	 */
+	private boolean containsEquiJoin(Expression condition) {
+		if (condition instanceof AndExpression) {
+			return containsEquiJoin(((AndExpression) condition).getLeftExpression())
+					|| containsEquiJoin(((AndExpression) condition).getRightExpression());
+		}
+		return condition instanceof EqualsTo && ((EqualsTo) condition).getLeftExpression() instanceof Column
+				&& ((EqualsTo) condition).getRightExpression() instanceof Column;
+	}
+
+	/**
+	 * Method to estimate the number of pages a number of tuples occupy.
+	 * 
+	 * @param numTuples
+	 *            the number of tuples.
+	 * @param tupleWidth
+	 *            the number of fields in each tuple.
+	 * @return the estimated number of pages.
+	 */
+	private int estimatePages(int numTuples, int tupleWidth) {
+		return (int) Math.ceil((4.0 * tupleWidth * numTuples) / (DatabaseCatalog.getInstance().getPageSize() - 8.0));
+	}
+
+	/**
+	 * Method to compute the number of fields in a tuple joined from a range of
+	 * relations of the join order.
+	 * 
+	 * @param joinChildList
+	 *            the join order.
+	 * @param from
+	 *            the index of the first relation, inclusive.
+	 * @param to
+	 *            the index of the last relation, exclusive.
+	 * @return the number of fields.
+	 */
+	private int tupleWidth(List<LogicalJoinChild> joinChildList, int from, int to) {
+		int width = 0;
+		for (int i = from; i < to; i++) {
+			width += keptColumns(leafColumns(joinChildList.get(i)), neededColumns).size();
+		}
+		return width;
+	}
+
+	/**
+	 * Method to list the qualified columns a join leaf produces: every
+	 * attribute of its relation, or only the columns read for a columnar
+	 * table.
+	 * 
+	 * @param jc
+	 *            the join leaf.
+	 * @return the qualified columns, in order.
+	 */
+	private List<String> leafColumns(LogicalJoinChild jc) {
+		LogicalOperator leaf = jc.getOperator();
+		if (leaf instanceof LogicalSelectionOperator) {
+			leaf = ((LogicalSelectionOperator) leaf).scanner;
+		}
+		List<String> requiredAttributes = null;
+		if (DatabaseCatalog.getInstance().GetTable(jc.getRelationName()).isColumnar()
+				&& leaf instanceof LogicalScanOperator) {
+			requiredAttributes = ((LogicalScanOperator) leaf).requiredAttributes;
+		}
+
+		List<String> columns = new ArrayList<String>();
+		for (String attribute : jc.getAllAttributes()) {
+			if (requiredAttributes == null || requiredAttributes.contains(attribute)) {
+				columns.add(jc.getARName() + "." + attribute);
+			}
+		}
+		if (columns.isEmpty()) {
+			columns.add(jc.getARName() + "." + jc.getAllAttributes().get(0));
+		}
+		return columns;
+	}
+
+	/**
+	 * Method to choose the columns to keep out of those an operator produces.
+	 * At least one column is kept so that the rows can still be counted.
+	 * 
+	 * @param columns
+	 *            the qualified columns produced, in order.
+	 * @param needed
+	 *            the qualified columns needed; null if every column is.
+	 * @return the columns to keep, in order.
+	 */
+	private List<String> keptColumns(List<String> columns, Set<String> needed) {
+		if (needed == null) {
+			return columns;
+		}
+		List<String> kept = new ArrayList<String>();
+		for (String column : columns) {
+			if (needed.contains(column)) {
+				kept.add(column);
+			}
+		}
+		if (kept.isEmpty()) {
+			kept.add(columns.get(0));
+		}
+		return kept;
+	}
+
+	/**
+	 * Method to place a projection onto the kept columns directly above an
+	 * operator, if it drops any of the columns the operator produces.
+	 * 
+	 * @param op
+	 *            the operator.
+	 * @param columns
+	 *            the qualified columns produced by the operator.
+	 * @param keptColumns
+	 *            the qualified columns to keep.
+	 * @return the projection, or the operator itself if nothing is dropped.
+	 */
+	private Operator pruneColumns(Operator op, List<String> columns, List<String> keptColumns) {
+		if (keptColumns.size() >= columns.size()) {
+			return op;
+		}
+		return new ProjectionOperator(keptColumns, op);
+	}
+
 	/**
 	 * Visit method for LogicalProjectionOperator node.
 	 * 
@@ -58,6 +58,7 @@ public class PhysicalPlanPrinter implements PhysicalPlanVisitor {
 		output.append("DupElim\n");
 		depth++;
 		node.sorter.accept(this);
+		depth--;
 	}
 
 	/**
@@ -105,6 +106,19 @@ public class PhysicalPlanPrinter implements PhysicalPlanVisitor {
 
 	}
 
+	/**
+	 * Visit method for ColumnarScanOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ColumnarScanOperator node) {
+		output.append(new String(new char[depth]).replace("\0", "-"));
+		output.append("ColumnarScan[" + node.tableName + "," + String.join(",", node.attributes) + "]\n");
+
+	}
+
 	/**
 	 * Visit method for SelectionOperator node.
 	 * 
@@ -173,6 +187,55 @@ public class PhysicalPlanPrinter implements PhysicalPlanVisitor {
 		depth--;
 	}
 
+	/**
+	 * Visit method for HashJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(HashJoinOperator node) {
+		output.append(new String(new char[depth]).replace("\0", "-"));
+		output.append("HashJoin[" + node.exp + "]\n");
+		depth++;
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		depth--;
+	}
+
+	/**
+	 * Visit method for IEJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IEJoinOperator node) {
+		output.append(new String(new char[depth]).replace("\0", "-"));
+		output.append("IEJoin[" + node.exp + "]\n");
+		depth++;
+		node.leftChild.accept(this);
+		node.rightChild.accept(this);
+		depth--;
+	}
+
+	/**
+	 * Visit method for IndexNestedLoopJoinOperator node.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(IndexNestedLoopJoinOperator node) {
+		output.append(new String(new char[depth]).replace("\0", "-"));
+		output.append("INLJ[" + node.outerKeyColumn + "," + node.exp + "]\n");
+		depth++;
+		node.outerChild.accept(this);
+		output.append(new String(new char[depth]).replace("\0", "-"));
+		output.append("IndexProbe[" + node.tableName + "," + node.indexedAttribute + "]\n");
+		depth--;
+	}
+
 	/**
 	 * Visit method for ProjectionOperator node.
 	 * 
@@ -185,6 +248,31 @@ public class PhysicalPlanPrinter implements PhysicalPlanVisitor {
 		output.append("Project" + node.selectClause.toString() + "\n");
 		depth++;
 		node.child.accept(this);
+		depth--;
+	}
+
+	/**
+	 * Visit method for ExchangeOperator node. The partitions below an
+	 * exchange only differ in the pages they scan, so only the first one is
+	 * printed.
+	 * 
+	 * @param node
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(ExchangeOperator node) {
+		Exchange exchange = node.exchange;
+		output.append(new String(new char[depth]).replace("\0", "-"));
+		if (exchange.kind == Exchange.HASH) {
+			output.append("HashExchange" + exchange.getKeyNames() + "[" + exchange.producers.size() + "]\n");
+		} else if (exchange.kind == Exchange.BROADCAST) {
+			output.append("Broadcast[" + exchange.producers.size() + "]\n");
+		} else {
+			output.append("Gather[" + exchange.producers.size() + "]\n");
+		}
+		depth++;
+		exchange.producers.get(0).accept(this);
+		depth--;
 	}
 
 }
@@ -12,6 +12,8 @@ public interface PhysicalPlanVisitor {
 
 	void visit(ScanOperator node);
 
+	void visit(ColumnarScanOperator node);
+
 	void visit(SelectionOperator node);
 
 	void visit(SMJOperator node);
@@ -20,6 +22,14 @@ public interface PhysicalPlanVisitor {
 
 	void visit(TNLJoinOperator node);
 
+	void visit(HashJoinOperator node);
+
+	void visit(IEJoinOperator node);
+
+	void visit(IndexNestedLoopJoinOperator node);
+
 	void visit(ProjectionOperator node);
 
+	void visit(ExchangeOperator node);
+
 }
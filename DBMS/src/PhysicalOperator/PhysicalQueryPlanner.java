@@ -1,5 +1,6 @@
 package PhysicalOperator;
 
+import DBMS.TupleSchema;
 import LogicalOperator.LogicalOperator;
 import LogicalOperator.LogicalPlanPrinter;
 import LogicalOperator.LogicalQueryPlanner;
@@ -7,6 +8,7 @@ import LogicalOperator.LogicalQueryPlanner;
 public class PhysicalQueryPlanner {
 
 	private Operator physicalPlan;
+	private TupleSchema outputSchema;
 
 	/**
 	 * Constructor for PhysicalQueryPlanner.
@@ -19,6 +21,9 @@ public class PhysicalQueryPlanner {
 		PhysicalPlanBuilder LPV = new PhysicalPlanBuilder();
 		rootLogicalOperator.accept(LPV);
 		physicalPlan = LPV.getResult();
+		PhysicalPlanBinder PPB = new PhysicalPlanBinder();
+		physicalPlan.accept(PPB);
+		outputSchema = PPB.getResult();
 	}
 
 	/** Method to fetch the constructed Operator tree. */
@@ -26,4 +31,9 @@ public class PhysicalQueryPlanner {
 		return physicalPlan;
 	}
 
+	/** Method to fetch the schema of the tuples the plan produces. */
+	public TupleSchema getOutputSchema() {
+		return outputSchema;
+	}
+
 }
@@ -0,0 +1,427 @@
+package PhysicalOperator;
+
+import java.util.Stack;
+
+import net.sf.jsqlparser.expression.AllComparisonExpression;
+import net.sf.jsqlparser.expression.AnyComparisonExpression;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.DateValue;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitor;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.InverseExpression;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.TimeValue;
+import net.sf.jsqlparser.expression.TimestampValue;
+import net.sf.jsqlparser.expression.WhenClause;
+import net.sf.jsqlparser.expression.operators.arithmetic.Addition;
+import net.sf.jsqlparser.expression.operators.arithmetic.BitwiseAnd;
+import net.sf.jsqlparser.expression.operators.arithmetic.BitwiseOr;
+import net.sf.jsqlparser.expression.operators.arithmetic.BitwiseXor;
+import net.sf.jsqlparser.expression.operators.arithmetic.Concat;
+import net.sf.jsqlparser.expression.operators.arithmetic.Division;
+import net.sf.jsqlparser.expression.operators.arithmetic.Multiplication;
+import net.sf.jsqlparser.expression.operators.arithmetic.Subtraction;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExistsExpression;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.Matches;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.SubSelect;
+
+/**
+ * Visitor to compile a bound expression (see BindColumnVisitor) once into a
+ * tree of TuplePredicate objects. Each comparison is specialized on whether
+ * its operands are columns or constants, and each column is resolved to the
+ * left or right tuple of a join candidate, so evaluating the result neither
+ * walks the expression tree nor allocates.
+ * 
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class PredicateCompiler implements ExpressionVisitor {
+
+	private Stack<TuplePredicate> predicateStack; // compiled predicates
+													// generated from postorder
+													// tree traversal
+	private int leftWidth; // number of slots taken by the left tuple.
+	private PredicateCompiler PC;
+
+	/**
+	 * Constructor for PredicateCompiler.
+	 * 
+	 * @param leftWidth
+	 *            the number of fields of the left tuple; bound slots at or
+	 *            past this width are read from the right tuple.
+	 */
+	public PredicateCompiler(int leftWidth) {
+		predicateStack = new Stack<TuplePredicate>();
+		this.leftWidth = leftWidth;
+		PC = this;
+	}
+
+	/**
+	 * Convenience method to compile a bound expression.
+	 * 
+	 * @param boundExp
+	 *            the bound expression to be compiled; may be null, in which
+	 *            case every candidate satisfies the result.
+	 * @param leftWidth
+	 *            the number of fields of the left tuple.
+	 * @return the compiled predicate.
+	 */
+	public static TuplePredicate compile(Expression boundExp, int leftWidth) {
+		if (boundExp == null) {
+			return ConstantPredicate.TRUE;
+		}
+		PredicateCompiler PC = new PredicateCompiler(leftWidth);
+		boundExp.accept(PC);
+		return PC.getResult();
+	}
+
+	/**
+	 * Method to get the compiled predicate when visitor is done.
+	 * 
+	 * @return the compiled predicate.
+	 */
+	public TuplePredicate getResult() {
+		return predicateStack.pop();
+	}
+
+	/**
+	 * Compiles a comparison whose operands are each a BoundColumn or a
+	 * LongValue.
+	 * 
+	 * @param op
+	 *            one of the ComparisonOperator constants.
+	 * @param arg
+	 *            the comparison node.
+	 */
+	private void compileComparison(int op, BinaryExpression arg) {
+		Expression left = arg.getLeftExpression();
+		Expression right = arg.getRightExpression();
+		if (left instanceof LongValue && right instanceof LongValue) {
+			boolean result = ComparisonOperator.evaluate(op, ((LongValue) left).getValue(),
+					((LongValue) right).getValue());
+			predicateStack.push(result ? ConstantPredicate.TRUE : ConstantPredicate.FALSE);
+		} else if (left instanceof LongValue) {
+			int slot = slotOf(right);
+			predicateStack.push(new ConstantComparisonPredicate(ComparisonOperator.mirror(op), slot >= leftWidth,
+					slot >= leftWidth ? slot - leftWidth : slot, ((LongValue) left).getValue()));
+		} else if (right instanceof LongValue) {
+			int slot = slotOf(left);
+			predicateStack.push(new ConstantComparisonPredicate(op, slot >= leftWidth,
+					slot >= leftWidth ? slot - leftWidth : slot, ((LongValue) right).getValue()));
+		} else {
+			int leftSlot = slotOf(left);
+			int rightSlot = slotOf(right);
+			predicateStack.push(new ColumnComparisonPredicate(op, leftSlot >= leftWidth,
+					leftSlot >= leftWidth ? leftSlot - leftWidth : leftSlot, rightSlot >= leftWidth,
+					rightSlot >= leftWidth ? rightSlot - leftWidth : rightSlot));
+		}
+	}
+
+	/**
+	 * Returns the slot of a comparison operand that must be a bound column.
+	 * 
+	 * @param operand
+	 *            the comparison operand.
+	 * @return the slot of the column within the joined tuple.
+	 */
+	private int slotOf(Expression operand) {
+		if (!(operand instanceof BoundColumn)) {
+			throw new IllegalArgumentException("Operand " + operand + " has not been bound to a slot.");
+		}
+		return ((BoundColumn) operand).getSlot();
+	}
+
+	/**
+	 * Visit method for leaf node. Operands are read directly by the enclosing
+	 * comparison, so a LongValue is only visited when it is a whole condition.
+	 * 
+	 * @param arg
+	 *            the node of type LongValue to be visited
+	 */
+	@Override
+	public void visit(LongValue arg) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	/**
+	 * Visit method for leaf node. Operands are read directly by the enclosing
+	 * comparison, so a Column is only visited when it is a whole condition.
+	 * 
+	 * @param arg
+	 *            the node of type Column to be visited
+	 */
+	@Override
+	public void visit(Column arg) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	/**
+	 * Visit method for AndExpression node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(AndExpression arg) {
+		arg.getLeftExpression().accept(PC);
+		arg.getRightExpression().accept(PC);
+		TuplePredicate right = predicateStack.pop();
+		TuplePredicate left = predicateStack.pop();
+		predicateStack.push(new AndPredicate(left, right));
+	}
+
+	/**
+	 * Visit method for OrExpression node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(OrExpression arg) {
+		arg.getLeftExpression().accept(PC);
+		arg.getRightExpression().accept(PC);
+		TuplePredicate right = predicateStack.pop();
+		TuplePredicate left = predicateStack.pop();
+		predicateStack.push(new OrPredicate(left, right));
+	}
+
+	/**
+	 * Visit method for Parenthesis node.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(Parenthesis arg) {
+		arg.getExpression().accept(PC);
+	}
+
+	/**
+	 * Visit method for GreaterThan node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(GreaterThan arg) {
+		compileComparison(ComparisonOperator.GREATER_THAN, arg);
+	}
+
+	/**
+	 * Visit method for GreaterThanEqual node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(GreaterThanEquals arg) {
+		compileComparison(ComparisonOperator.GREATER_THAN_EQUALS, arg);
+	}
+
+	/**
+	 * Visit method for MinorThan node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(MinorThan arg) {
+		compileComparison(ComparisonOperator.LESS_THAN, arg);
+	}
+
+	/**
+	 * Visit method for MinorThanEqual node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(MinorThanEquals arg) {
+		compileComparison(ComparisonOperator.LESS_THAN_EQUALS, arg);
+	}
+
+	/**
+	 * Visit method for EqualsTo node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(EqualsTo arg) {
+		compileComparison(ComparisonOperator.EQUALS, arg);
+	}
+
+	/**
+	 * Visit method for NotEqualsTo node based on postorder tree traversal.
+	 * 
+	 * @param arg
+	 *            the node to be visited
+	 */
+	@Override
+	public void visit(NotEqualsTo arg) {
+		compileComparison(ComparisonOperator.NOT_EQUALS, arg);
+	}
+
+	// ********** UNSUPPORTED OPERATIONS BELOW: DO NOT SUPPORT! **********
+
+	@Override
+	public void visit(NullValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(DateValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(TimeValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(TimestampValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(StringValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Addition arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Division arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Multiplication arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Subtraction arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Between arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(InExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(IsNullExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(LikeExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Function arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(InverseExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(JdbcParameter arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(DoubleValue arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(SubSelect arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(CaseExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(WhenClause arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(ExistsExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(AllComparisonExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(AnyComparisonExpression arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Concat arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(Matches arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(BitwiseAnd arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(BitwiseOr arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+	@Override
+	public void visit(BitwiseXor arg0) {
+		throw new UnsupportedOperationException("An unsupported operation was called.");
+	}
+
+}
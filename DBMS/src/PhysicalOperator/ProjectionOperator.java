@@ -1,10 +1,11 @@
 package PhysicalOperator;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 
 import DBMS.Tuple;
+import DBMS.TupleBatch;
+import DBMS.TupleSchema;
 
 /**
  * This class is responsible for projecting columns of the tuple specified by
@@ -18,6 +19,8 @@ public class ProjectionOperator extends Operator {
 	public Operator child;
 
 	public List selectClause;
+	private TupleSchema projectedSchema;
+	private int[] projectedSlots;
 
 	/**
 	 * Constructor for ProjectionOperator.
@@ -33,6 +36,27 @@ public class ProjectionOperator extends Operator {
 	public ProjectionOperator(List selectClause, Operator child) {
 		this.selectClause = selectClause;
 		this.child = child;
+		List<String> fieldNames = new ArrayList<String>();
+		for (Object fieldname : selectClause) {
+			fieldNames.add(fieldname.toString());
+		}
+		projectedSchema = new TupleSchema(fieldNames);
+	}
+
+	/**
+	 * Method to resolve the projected columns to slots of the child's tuples
+	 * at plan time.
+	 * 
+	 * @param childSchema
+	 *            the schema of the tuples produced by the child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema childSchema) {
+		projectedSlots = new int[projectedSchema.size()];
+		for (int i = 0; i < projectedSlots.length; i++) {
+			projectedSlots[i] = childSchema.getSlot(projectedSchema.getFieldName(i));
+		}
+		return projectedSchema;
 	}
 
 	/**
@@ -44,17 +68,36 @@ public class ProjectionOperator extends Operator {
 	public Tuple getNextTuple() {
 		Tuple currentTuple = null;
 		if ((currentTuple = child.getNextTuple()) != null) {
-			Tuple extractedTuple = new Tuple("ProjectedTuple", new Hashtable<String, String>(),
-					new ArrayList<String>());
-			for (Object fieldname : selectClause) {
-				extractedTuple.setField(fieldname.toString(), currentTuple.getField(fieldname.toString()));
-				extractedTuple.addOrdering(fieldname.toString());
+			int[] values = new int[projectedSchema.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = currentTuple.getValue(projectedSlots[i]);
 			}
-			return extractedTuple;
+			return new Tuple("ProjectedTuple", values, projectedSchema);
 		}
 		return null;
 	}
 
+	/**
+	 * Method to get the next batch after being projected on. The projected
+	 * batch shares the column vectors and selection vector of the child's
+	 * batch, so no values are copied.
+	 * 
+	 * @return batch after having its columns projected on.
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		TupleBatch currentBatch = child.getNextBatch();
+		if (currentBatch == null) {
+			return null;
+		}
+		int[][] columns = new int[projectedSlots.length][];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = currentBatch.getColumn(projectedSlots[i]);
+		}
+		return new TupleBatch(projectedSchema, columns, currentBatch.size(), currentBatch.getSelection(),
+				currentBatch.getSelectedCount());
+	}
+
 	/**
 	 * Method to reset the state of the operator to start returning its output
 	 * again from the beginning.
@@ -1,13 +1,14 @@
 package PhysicalOperator;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 
 import DBMS.Interpreter;
 import DBMS.Tuple;
 import DBMS.TupleCompare;
+import DBMS.TupleSchema;
 import LogicalOperator.EvaluateJoinVisitor;
+import net.sf.jsqlparser.expression.BinaryExpression;
 import net.sf.jsqlparser.expression.Expression;
 
 /**
@@ -36,8 +37,8 @@ public class SMJOperator extends Operator {
 
 	private int Ts_idx;
 	private int Gs_idx;
+	private TupleSchema joinedSchema;
 
-	public static final int BUFFER_SIZE = 4096;
 	public static final int METADATA_SIZE = 8;
 	public static final int BYTE_SIZE = 4;
 
@@ -60,8 +61,6 @@ public class SMJOperator extends Operator {
 		this.innerChild = innerChild;
 		isInitialized = false;
 
-		comparator = new TupleCompare();
-
 		Tr = null;
 		Ts = null;
 		Gs = null;
@@ -74,6 +73,36 @@ public class SMJOperator extends Operator {
 		innerTupleSize = 0;
 	}
 
+	/**
+	 * Method to resolve the join columns to slots of the outer and inner
+	 * tuples at plan time.
+	 * 
+	 * @param outerSchema
+	 *            the schema of the tuples produced by the outer child.
+	 * @param innerSchema
+	 *            the schema of the tuples produced by the inner child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema outerSchema, TupleSchema innerSchema) {
+		int[] outerSlots = new int[conditionList.size()];
+		int[] innerSlots = new int[conditionList.size()];
+		for (int i = 0; i < conditionList.size(); i++) {
+			BinaryExpression condition = (BinaryExpression) conditionList.get(i);
+			String leftCol = condition.getLeftExpression().toString();
+			String rightCol = condition.getRightExpression().toString();
+			if (outerSchema.contains(leftCol)) {
+				outerSlots[i] = outerSchema.getSlot(leftCol);
+				innerSlots[i] = innerSchema.getSlot(rightCol);
+			} else {
+				outerSlots[i] = outerSchema.getSlot(rightCol);
+				innerSlots[i] = innerSchema.getSlot(leftCol);
+			}
+		}
+		comparator = new TupleCompare(outerSlots, innerSlots);
+		joinedSchema = outerSchema.concat(innerSchema);
+		return joinedSchema;
+	}
+
 	/**
 	 * Method to get the next joined tuple satisfying the join condition if such
 	 * exists.
@@ -104,11 +133,11 @@ public class SMJOperator extends Operator {
 			// conditional check to ensure only 1 reset per while-loop iteration
 			if (!outerReset) {
 				// Step 1: find inner partition that satisfies on outerTuple.
-				while (comparator.lessThan(Tr, Gs, conditionList)) {
+				while (comparator.lessThan(Tr, Gs)) {
 					Tr = outerChild.getNextTuple();
 				}
 
-				while (comparator.greaterThan(Tr, Gs, conditionList)) {
+				while (comparator.greaterThan(Tr, Gs)) {
 					Gs = innerChild.getNextTuple();
 					// MOVE PARTITION POINTER
 					Gs_idx++;
@@ -126,7 +155,7 @@ public class SMJOperator extends Operator {
 			}
 
 			// Step 3: Find satisfying outer and inner tuples.
-			while (Tr != null && comparator.equals(Tr, Gs, conditionList)) {
+			while (Tr != null && comparator.equals(Tr, Gs)) {
 
 				// conditional check to ensure only 1 reset per while-loop
 				// iteration
@@ -141,13 +170,8 @@ public class SMJOperator extends Operator {
 				}
 
 				// Step 4: begin joining tuples
-				while (Ts != null && comparator.equals(Ts, Tr, conditionList)) {
-					List<String> ordering = new ArrayList<>();
-					ordering.addAll(Tr.ordering);
-					ordering.addAll(Ts.ordering);
-					Tuple result = new Tuple("SMJTuple", new Hashtable<String, String>(), ordering);
-					result.getHashtable().putAll(Tr.getHashtable());
-					result.getHashtable().putAll(Ts.getHashtable());
+				while (Ts != null && comparator.equals(Tr, Ts)) {
+					Tuple result = Tuple.join("SMJTuple", Tr, Ts, joinedSchema);
 
 					Ts = innerChild.getNextTuple();
 
@@ -6,6 +6,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.Hashtable;
 import DBMS.*;
 
@@ -22,6 +23,11 @@ public class ScanOperator extends Operator {
 	private TupleReaderBinary tupleReaderBinary;
 	private TupleReaderHuman tupleReaderHuman;
 	public String tableName;
+	private String aliasName;
+	private ZoneMap zoneMap;
+	private int[] boundColumns = new int[0];
+	private int[] lowBounds = new int[0];
+	private int[] highBounds = new int[0];
 
 	/**
 	 * Constructor for ScanOperator.
@@ -36,9 +42,90 @@ public class ScanOperator extends Operator {
 		DatabaseCatalog catalog = DatabaseCatalog.getInstance();
 		currentTable = catalog.GetTable(tableName);
 		tupleReaderBinary = new TupleReaderBinary(tableName, aliasName, currentTable);
+		tupleReaderBinary.setReadAhead(catalog.getReadAheadPages());
 		TableInfo currentTableHuman = new TableInfo(currentTable.getLocation(), currentTable.getFields());
 		tupleReaderHuman = new TupleReaderHuman(tableName, aliasName, currentTableHuman);
 		this.tableName = tableName;
+		this.aliasName = aliasName;
+	}
+
+	/**
+	 * Method to get the number of pages of the data file for the specified
+	 * table.
+	 * 
+	 * @return the number of pages of the data file.
+	 */
+	public int getNumPages() {
+		int pageSize = DatabaseCatalog.getInstance().getPageSize();
+		long length = new File(currentTable.getLocation()).length();
+		return (int) ((length + pageSize - 1) / pageSize);
+	}
+
+	/**
+	 * Method to create a scan over the morsels of the data file it claims
+	 * from the given cursor, with the same zone map bounds as this scan. The
+	 * partitions sharing a cursor together return each tuple of the file
+	 * exactly once.
+	 * 
+	 * @param morsels
+	 *            the cursor handing out the morsels of the data file.
+	 * @return the scan over the morsels it claims.
+	 */
+	public ScanOperator partition(MorselCursor morsels) {
+		ScanOperator scan = new ScanOperator(tableName, aliasName);
+		scan.zoneMap = zoneMap;
+		scan.boundColumns = boundColumns;
+		scan.lowBounds = lowBounds;
+		scan.highBounds = highBounds;
+		if (boundColumns.length > 0) {
+			scan.tupleReaderBinary.setPageFilter(zoneMap, boundColumns, lowBounds, highBounds);
+		}
+		scan.tupleReaderBinary.setMorsels(morsels);
+		return scan;
+	}
+
+	/**
+	 * Method to bind this operator at plan time.
+	 * 
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind() {
+		return tupleReaderBinary.getSchema(false);
+	}
+
+	/**
+	 * Method to restrict the pages read by this scan to those whose zone map
+	 * ranges for the given attribute overlap the given bounds. The scan
+	 * still returns every tuple of the pages it reads, so the selection
+	 * above it must check the bounds itself. Does nothing if zone maps are
+	 * disabled or the table has none.
+	 * 
+	 * @param attribute
+	 *            the attribute, without its table or alias prefix.
+	 * @param low
+	 *            the inclusive lower bound, or null if unbounded.
+	 * @param high
+	 *            the inclusive upper bound, or null if unbounded.
+	 */
+	public void addBound(String attribute, Integer low, Integer high) {
+		int column = currentTable.getFields().indexOf(attribute);
+		if (column < 0 || (low == null && high == null) || !DatabaseCatalog.getInstance().useZoneMaps()) {
+			return;
+		}
+		if (zoneMap == null) {
+			zoneMap = ZoneMap.load(currentTable.getLocation());
+			if (zoneMap == null) {
+				return;
+			}
+		}
+		int bound = boundColumns.length;
+		boundColumns = Arrays.copyOf(boundColumns, bound + 1);
+		lowBounds = Arrays.copyOf(lowBounds, bound + 1);
+		highBounds = Arrays.copyOf(highBounds, bound + 1);
+		boundColumns[bound] = column;
+		lowBounds[bound] = low == null ? Integer.MIN_VALUE : low;
+		highBounds[bound] = high == null ? Integer.MAX_VALUE : high;
+		tupleReaderBinary.setPageFilter(zoneMap, boundColumns, lowBounds, highBounds);
 	}
 
 	/**
@@ -54,6 +141,17 @@ public class ScanOperator extends Operator {
 		return ret;
 	}
 
+	/**
+	 * Method to get a batch holding the next lines of the data file for the
+	 * specified table, decoded straight from the pages into column vectors.
+	 * 
+	 * @return batch representing the next entries of the data table.
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		return tupleReaderBinary.readBatch(false, TupleBatch.DEFAULT_CAPACITY);
+	}
+
 	/**
 	 * Method to reset the state of the operator to start returning its output
 	 * again from the beginning.
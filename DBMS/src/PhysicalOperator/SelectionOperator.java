@@ -4,6 +4,8 @@ package PhysicalOperator;
 import java.util.List;
 
 import DBMS.Tuple;
+import DBMS.TupleBatch;
+import DBMS.TupleSchema;
 import net.sf.jsqlparser.expression.Expression;
 
 /**
@@ -18,6 +20,8 @@ public class SelectionOperator extends Operator {
 	public Operator scanner;
 	private String tableName;
 	public Expression selectionCondition;
+	private TuplePredicate selectionPredicate;
+	private TuplePredicate batchPredicate;
 	private String fromClause;
 
 	/**
@@ -41,6 +45,28 @@ public class SelectionOperator extends Operator {
 		scanner = child;
 	}
 
+	/**
+	 * Method to get the from clause this operator was created with.
+	 */
+	public String getFromClause() {
+		return fromClause;
+	}
+
+	/**
+	 * Method to compile the selection condition against the schema of the
+	 * child's tuples at plan time, once for tuples and once for batches.
+	 * 
+	 * @param childSchema
+	 *            the schema of the tuples produced by the child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema childSchema) {
+		Expression boundCondition = BindColumnVisitor.bind(selectionCondition, childSchema);
+		selectionPredicate = PredicateCompiler.compile(boundCondition, childSchema.size());
+		batchPredicate = PredicateCompiler.compile(boundCondition, 0);
+		return childSchema;
+	}
+
 	/**
 	 * Method to get the next tuple satisfying the selection condition.
 	 * 
@@ -52,9 +78,7 @@ public class SelectionOperator extends Operator {
 		boolean entryFound = false;
 		while (!(entryFound)) {
 			if ((currentTuple = scanner.getNextTuple()) != null) {
-				EvaluateExpressionVisitor EV = new EvaluateExpressionVisitor(currentTuple);
-				selectionCondition.accept(EV);
-				if (EV.getResult() == true)
+				if (selectionPredicate.test(currentTuple, null))
 					entryFound = true;
 			} else
 				break;
@@ -62,6 +86,27 @@ public class SelectionOperator extends Operator {
 		return currentTuple;
 	}
 
+	/**
+	 * Method to get the next batch holding tuples satisfying the selection
+	 * condition. The condition narrows the selection vector of the child's
+	 * batch; batches left without live rows are skipped.
+	 * 
+	 * @return batch of tuples satisfying the selection condition.
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		TupleBatch currentBatch;
+		while ((currentBatch = scanner.getNextBatch()) != null) {
+			int count = batchPredicate.select(null, currentBatch, currentBatch.getSelection(),
+					currentBatch.getSelectedCount());
+			if (count > 0) {
+				currentBatch.setSelectedCount(count);
+				return currentBatch;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Method to reset the state of the operator to start returning its output
 	 * again from the beginning.
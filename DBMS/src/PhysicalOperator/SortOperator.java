@@ -3,8 +3,11 @@ package PhysicalOperator;
 import java.util.ArrayList;
 import java.util.List;
 
+import DBMS.NormalizedKeySorter;
 import DBMS.RecordComparator;
 import DBMS.Tuple;
+import DBMS.TupleBatch;
+import DBMS.TupleSchema;
 
 /**
  * This class is responsible for sorting the resulting tuples.
@@ -20,6 +23,9 @@ public class SortOperator extends Operator {
 	private List<Tuple> resultAccumulator;
 	private int resultIdx;
 	public List<String> printOrder;
+	private RecordComparator sorter;
+	private NormalizedKeySorter keySorter;
+	private TupleSchema schema;
 
 	/**
 	 * Constructor for SortOperator.
@@ -50,6 +56,21 @@ public class SortOperator extends Operator {
 		resultIdx = 0;
 	}
 
+	/**
+	 * Method to resolve the sort order to slots of the child's tuples at plan
+	 * time.
+	 * 
+	 * @param childSchema
+	 *            the schema of the tuples produced by the child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema childSchema) {
+		schema = childSchema;
+		sorter = new RecordComparator(sortOrder.toArray(new String[0]), childSchema);
+		keySorter = new NormalizedKeySorter(sorter);
+		return childSchema;
+	}
+
 	/**
 	 * Method to get the next tuple after result is sorted.
 	 * 
@@ -57,16 +78,7 @@ public class SortOperator extends Operator {
 	 */
 	@Override
 	public Tuple getNextTuple() {
-		if (resultAccumulator == null) {
-			resultAccumulator = new ArrayList<Tuple>();
-			Tuple currentTuple = null;
-			while ((currentTuple = childOperator.getNextTuple()) != null) {
-				resultAccumulator.add(currentTuple);
-			}
-			String[] comparisons = sortOrder.toArray(new String[0]);
-			RecordComparator sorter = new RecordComparator(comparisons);
-			resultAccumulator.sort(sorter);
-		}
+		sortInput();
 
 		if (resultIdx < resultAccumulator.size()) {
 			Tuple currentTuple = resultAccumulator.get(resultIdx);
@@ -76,6 +88,46 @@ public class SortOperator extends Operator {
 			return null;
 	}
 
+	/**
+	 * Method to get the next batch of tuples after result is sorted.
+	 * 
+	 * @return next batch of sorted tuples
+	 */
+	@Override
+	public TupleBatch getNextBatch() {
+		sortInput();
+
+		int count = Math.min(TupleBatch.DEFAULT_CAPACITY, resultAccumulator.size() - resultIdx);
+		if (count <= 0) {
+			return null;
+		}
+		TupleBatch currentBatch = new TupleBatch(schema, count);
+		int[][] columns = currentBatch.getColumns();
+		for (int row = 0; row < count; row++) {
+			int[] values = resultAccumulator.get(resultIdx++).getValues();
+			for (int slot = 0; slot < columns.length; slot++) {
+				columns[slot][row] = values[slot];
+			}
+		}
+		currentBatch.setSize(count);
+		return currentBatch;
+	}
+
+	/**
+	 * Method to read and sort the whole input on the first request for
+	 * output.
+	 */
+	private void sortInput() {
+		if (resultAccumulator == null) {
+			resultAccumulator = new ArrayList<Tuple>();
+			Tuple currentTuple = null;
+			while ((currentTuple = childOperator.getNextTuple()) != null) {
+				resultAccumulator.add(currentTuple);
+			}
+			keySorter.sort(resultAccumulator);
+		}
+	}
+
 	/**
 	 * Method to reset the state of the operator to start returning its output
 	 * again from the beginning.
@@ -1,9 +1,9 @@
 package PhysicalOperator;
 
 import DBMS.Tuple;
+import DBMS.TupleSchema;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 
 import net.sf.jsqlparser.expression.Expression;
@@ -21,6 +21,9 @@ public class TNLJoinOperator extends Operator {
 	public Operator leftChild;
 	public Operator rightChild;
 	private Tuple leftTuple;
+	private TupleSchema joinedSchema;
+	private TuplePredicate joinPredicate;
+	private boolean initialized;
 
 	/**
 	 * Constructor for JoinOperator.
@@ -37,8 +40,23 @@ public class TNLJoinOperator extends Operator {
 		this.exp = exp;
 		this.leftChild = leftChild;
 		this.rightChild = rightChild;
-		leftTuple = leftChild.getNextTuple();
+		initialized = false;
+	}
 
+	/**
+	 * Method to compile the join condition against the schema of the joined
+	 * tuples at plan time.
+	 * 
+	 * @param leftSchema
+	 *            the schema of the tuples produced by the left child.
+	 * @param rightSchema
+	 *            the schema of the tuples produced by the right child.
+	 * @return the schema of the tuples produced by this operator.
+	 */
+	public TupleSchema bind(TupleSchema leftSchema, TupleSchema rightSchema) {
+		joinedSchema = leftSchema.concat(rightSchema);
+		joinPredicate = PredicateCompiler.compile(BindColumnVisitor.bind(exp, joinedSchema), leftSchema.size());
+		return joinedSchema;
 	}
 
 	/**
@@ -51,7 +69,11 @@ public class TNLJoinOperator extends Operator {
 	public Tuple getNextTuple() {
 
 		Tuple rightTuple = null;
-		Tuple joinedTuple = null;
+
+		if (!initialized) {
+			leftTuple = leftChild.getNextTuple();
+			initialized = true;
+		}
 
 		while (true) {
 			if (leftTuple == null) {
@@ -63,20 +85,8 @@ public class TNLJoinOperator extends Operator {
 				leftTuple = leftChild.getNextTuple();
 				continue;
 			}
-			List<String> ordering = new ArrayList<>();
-			ordering.addAll(leftTuple.ordering);
-			ordering.addAll(rightTuple.ordering);
-			joinedTuple = new Tuple("JoinedTuple", new Hashtable<String, String>(), ordering);
-			joinedTuple.getHashtable().putAll(leftTuple.getHashtable());
-			joinedTuple.getHashtable().putAll(rightTuple.getHashtable());
-			if (exp == null) {
-				return joinedTuple;
-			} else {
-				EvaluateExpressionVisitor EV = new EvaluateExpressionVisitor(joinedTuple);
-				exp.accept(EV);
-				if (EV.getResult() == true) {
-					return joinedTuple;
-				}
+			if (joinPredicate.test(leftTuple, rightTuple)) {
+				return Tuple.join("JoinedTuple", leftTuple, rightTuple, joinedSchema);
 			}
 		}
 	}
@@ -89,7 +99,7 @@ public class TNLJoinOperator extends Operator {
 	public void reset() {
 		leftChild.reset();
 		rightChild.reset();
-		leftTuple = leftChild.getNextTuple();
+		initialized = false;
 	}
 
 	/**
@@ -0,0 +1,60 @@
+package PhysicalOperator;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * This class hands out the live rows of an operator's batches one tuple at a
+ * time, so that an operator producing batches natively can also serve
+ * getNextTuple() from them.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+
+public class TupleBatchCursor {
+
+	private Operator source;
+	private String tableName;
+	private TupleBatch currentBatch;
+	private int position;
+
+	/**
+	 * Constructor for TupleBatchCursor.
+	 *
+	 * @param source
+	 *            the operator whose batches are read.
+	 * @param tableName
+	 *            the table name given to the tuples handed out.
+	 */
+	public TupleBatchCursor(Operator source, String tableName) {
+		this.source = source;
+		this.tableName = tableName;
+		currentBatch = null;
+		position = 0;
+	}
+
+	/**
+	 * Method to get the next live row of the source's batches.
+	 *
+	 * @return the tuple holding the row, or null at the end of the output.
+	 */
+	public Tuple getNextTuple() {
+		while (currentBatch == null || position == currentBatch.getSelectedCount()) {
+			currentBatch = source.getNextBatch();
+			position = 0;
+			if (currentBatch == null) {
+				return null;
+			}
+		}
+		return currentBatch.getTuple(tableName, currentBatch.getSelection()[position++]);
+	}
+
+	/**
+	 * Method to drop the batch being read, after the source has been reset.
+	 */
+	public void reset() {
+		currentBatch = null;
+		position = 0;
+	}
+
+}
@@ -0,0 +1,49 @@
+package PhysicalOperator;
+
+import DBMS.Tuple;
+import DBMS.TupleBatch;
+
+/**
+ * A compiled selection or join condition. Implementations are built once per
+ * query by the PredicateCompiler and are evaluated against every candidate
+ * tuple (or pair of tuples) without allocating.
+ *
+ * @author Daniel Park (dp435) & Michael Neborak (mln45)
+ */
+public interface TuplePredicate {
+
+	/**
+	 * Evaluates the condition on a candidate tuple. For a join condition the
+	 * candidate is the concatenation of the left and right tuples, which is
+	 * never materialized; for a selection condition right is null.
+	 * 
+	 * @param left
+	 *            the outer (or only) tuple.
+	 * @param right
+	 *            the inner tuple, or null for a selection condition.
+	 * @return true if the candidate satisfies the condition; false otherwise.
+	 */
+	boolean test(Tuple left, Tuple right);
+
+	/**
+	 * Evaluates the condition on a vector of candidates at once. Columns of
+	 * the left input are read from the given values, shared by every
+	 * candidate; columns of the right input are read from the rows of the
+	 * batch. A selection condition compiled with a left width of 0 reads all
+	 * its columns from the batch.
+	 * 
+	 * @param left
+	 *            the values of the outer tuple, or null if the condition reads
+	 *            no column of the left input.
+	 * @param right
+	 *            the batch holding the candidate rows.
+	 * @param selection
+	 *            the candidate rows, in ascending order. The rows satisfying
+	 *            the condition are moved to its front, in the same order.
+	 * @param count
+	 *            the number of candidate rows.
+	 * @return the number of rows satisfying the condition.
+	 */
+	int select(int[] left, TupleBatch right, int[] selection, int count);
+
+}